@@ -14,6 +14,7 @@ fi
 
 POM_FILES=(eclipse-pom.xml
 sevntu-checks/pom.xml
+sevntu-checks-benchmarks/pom.xml
 sevntu-checkstyle-idea-extension/pom.xml
 sevntu-checkstyle-maven-plugin/pom.xml
 sevntu-checkstyle-sonar-plugin/pom.xml
@@ -41,12 +42,17 @@ do
 done
 
 #additional version reference in dependency
-FILE=sevntu-checkstyle-maven-plugin/pom.xml
-echo "Updating: "$FILE
-xmlstarlet ed --ps -N pom="http://maven.apache.org/POM/4.0.0" \
-    -u '//pom:project/pom:dependencies/pom:dependency[pom:artifactId="sevntu-checks"]/pom:version' -v $NEW_VERSION \
-    $FILE > $FILE.new
-mv $FILE.new $FILE
+POM_FILES=(sevntu-checkstyle-maven-plugin/pom.xml
+sevntu-checks-benchmarks/pom.xml
+)
+for FILE in "${POM_FILES[@]}"
+do
+	echo "Updating: "$FILE
+	xmlstarlet ed --ps -N pom="http://maven.apache.org/POM/4.0.0" \
+	    -u '//pom:project/pom:dependencies/pom:dependency[pom:artifactId="sevntu-checks"]/pom:version' -v $NEW_VERSION \
+	    $FILE > $FILE.new
+	mv $FILE.new $FILE
+done
 
 #additional version reference, eclipse file 
 FILE=eclipsecs-sevntu-plugin-feature/feature.xml
@@ -0,0 +1,225 @@
+////////////////////////////////////////////////////////////////////////////////
+// checkstyle: Checks Java source code for adherence to a set of rules.
+// Copyright (C) 2001-2019 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 2.1 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+////////////////////////////////////////////////////////////////////////////////
+
+package com.github.sevntu.checkstyle.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.github.sevntu.checkstyle.benchmarks.SevntuChecksBenchmark.CorpusFile;
+import com.github.sevntu.checkstyle.cache.CachedCheckGroup;
+import com.puppycrawl.tools.checkstyle.ConfigurationLoader;
+import com.puppycrawl.tools.checkstyle.DefaultConfiguration;
+import com.puppycrawl.tools.checkstyle.PropertiesExpander;
+import com.puppycrawl.tools.checkstyle.TreeWalker;
+import com.puppycrawl.tools.checkstyle.api.AbstractCheck;
+import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+import com.puppycrawl.tools.checkstyle.api.Configuration;
+import com.puppycrawl.tools.checkstyle.api.LocalizedMessage;
+
+/**
+ * JMH benchmark that compares auditing files with all sevntu checks to replaying their results
+ * from a warm {@link CachedCheckGroup} cache. Each benchmark invocation audits exactly one file
+ * of the corpus, so the reported score is the average time per file.
+ *
+ * <p>
+ * In {@code uncached} mode the checks are placed directly into the TreeWalker. In {@code warm}
+ * mode they are nested in a {@link CachedCheckGroup} whose cache file is filled by auditing the
+ * whole corpus once before the measurement, as it happens when files didn't change since the
+ * previous audit. Parsing is included in both modes. Run it with {@code java -cp
+ * target/benchmarks.jar com.github.sevntu.checkstyle.benchmarks.CachedChecksBenchmark}, the
+ * {@code corpus} and {@code config} parameters are the same as in
+ * {@link SevntuChecksBenchmark}.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class CachedChecksBenchmark {
+
+    /** Prefix of the names of sevntu checks in the configuration. */
+    private static final String SEVNTU_CHECKS_PREFIX = "com.github.sevntu.checkstyle.checks.";
+
+    /** Whether the checks run directly or replay results from a warm cache. */
+    @Param({"uncached", "warm"})
+    private String mode;
+
+    /** Directory with the Java files to audit, see {@link SevntuChecksBenchmark}. */
+    @Param("../sevntu-checks/src/main/java")
+    private String corpus;
+
+    /** Checkstyle configuration all sevntu checks are taken from. */
+    @Param("../sevntu-checks/sevntu-checks.xml")
+    private String config;
+
+    /** Tree walker with the benchmarked checks. */
+    private TreeWalker treeWalker;
+
+    /** Prefix of the cache files of the groups, or null if checks are not cached. */
+    private Path cacheFile;
+
+    /** Files of the corpus, read into memory in advance. */
+    private List<CorpusFile> files;
+
+    /** Index of the next file to audit. */
+    private int nextFile;
+
+    /**
+     * Runs all benchmarks of this class with the GC profiler enabled.
+     * @param args JMH command line options.
+     * @throws Exception if the benchmarks fail.
+     */
+    public static void main(String... args) throws Exception {
+        new Runner(new OptionsBuilder()
+            .parent(new CommandLineOptions(args))
+            .include(CachedChecksBenchmark.class.getName())
+            .addProfiler(GCProfiler.class)
+            .build()).run();
+    }
+
+    /**
+     * Reads the corpus, creates the tree walker and fills the cache in {@code warm} mode.
+     * @throws Exception if the corpus can't be read or the checks can't be configured.
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        files = SevntuChecksBenchmark.readCorpus(Paths.get(corpus));
+        final List<Configuration> checks = findSevntuChecks(
+            ConfigurationLoader.loadConfiguration(config,
+                new PropertiesExpander(System.getProperties())));
+
+        if ("warm".equals(mode)) {
+            cacheFile = Files.createTempFile("sevntu-checks", ".cache");
+            Files.delete(cacheFile);
+            final Configuration[] groupConfigs = createGroupConfigs(checks);
+
+            final TreeWalker coldTreeWalker = SevntuChecksBenchmark.createTreeWalker(groupConfigs);
+            for (CorpusFile file : files) {
+                coldTreeWalker.process(file.file, file.text);
+            }
+            coldTreeWalker.destroy();
+
+            treeWalker = SevntuChecksBenchmark.createTreeWalker(groupConfigs);
+        }
+        else {
+            treeWalker = SevntuChecksBenchmark.createTreeWalker(
+                checks.toArray(new Configuration[0]));
+        }
+        nextFile = 0;
+    }
+
+    /**
+     * Releases resources of the tree walker and removes the cache file.
+     * @throws IOException if the cache file can't be removed.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        treeWalker.destroy();
+        if (cacheFile != null) {
+            Files.deleteIfExists(Paths.get(cacheFile + ".0"));
+            Files.deleteIfExists(Paths.get(cacheFile + ".1"));
+        }
+    }
+
+    /**
+     * Audits the next file of the corpus.
+     * @return violations, returned to avoid dead code elimination.
+     * @throws CheckstyleException if the file can't be processed.
+     */
+    @Benchmark
+    public SortedSet<LocalizedMessage> auditFile() throws CheckstyleException {
+        final CorpusFile file = files.get(nextFile);
+        nextFile++;
+        if (nextFile == files.size()) {
+            nextFile = 0;
+        }
+        return treeWalker.process(file.file, file.text);
+    }
+
+    /**
+     * Nests the checks into cache groups, one for checks that require comment nodes and one for
+     * the others, as checks of one group share the walk over the tree.
+     * @param checks configurations of the checks.
+     * @return configurations of the groups.
+     * @throws ReflectiveOperationException if a check can't be created.
+     */
+    private Configuration[] createGroupConfigs(List<Configuration> checks)
+            throws ReflectiveOperationException {
+        final DefaultConfiguration[] result = new DefaultConfiguration[2];
+        for (int index = 0; index < result.length; index++) {
+            result[index] = new DefaultConfiguration(CachedCheckGroup.class.getName());
+            result[index].addAttribute("cacheFile", cacheFile + "." + index);
+        }
+        for (Configuration check : checks) {
+            final AbstractCheck instance = (AbstractCheck) Class.forName(check.getName())
+                .getConstructor().newInstance();
+            if (instance.isCommentNodesRequired()) {
+                result[1].addChild(check);
+            }
+            else {
+                result[0].addChild(check);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Finds configurations of all sevntu checks in the given configuration tree.
+     * @param root root of the configuration tree.
+     * @return configurations of the checks.
+     */
+    private static List<Configuration> findSevntuChecks(Configuration root) {
+        final List<Configuration> result = new ArrayList<>();
+        if (root.getName().startsWith(SEVNTU_CHECKS_PREFIX)) {
+            result.add(root);
+        }
+        for (Configuration child : root.getChildren()) {
+            result.addAll(findSevntuChecks(child));
+        }
+        return result;
+    }
+
+}
@@ -0,0 +1,330 @@
+////////////////////////////////////////////////////////////////////////////////
+// checkstyle: Checks Java source code for adherence to a set of rules.
+// Copyright (C) 2001-2019 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 2.1 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+////////////////////////////////////////////////////////////////////////////////
+
+package com.github.sevntu.checkstyle.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.puppycrawl.tools.checkstyle.ConfigurationLoader;
+import com.puppycrawl.tools.checkstyle.DefaultConfiguration;
+import com.puppycrawl.tools.checkstyle.PackageObjectFactory;
+import com.puppycrawl.tools.checkstyle.PropertiesExpander;
+import com.puppycrawl.tools.checkstyle.TreeWalker;
+import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+import com.puppycrawl.tools.checkstyle.api.Configuration;
+import com.puppycrawl.tools.checkstyle.api.FileText;
+import com.puppycrawl.tools.checkstyle.api.LocalizedMessage;
+
+/**
+ * JMH benchmark that drives every sevntu check through a {@link TreeWalker} over a fixed corpus
+ * of Java files. Each benchmark invocation audits exactly one file of the corpus, files are
+ * taken in a stable round-robin order, so the reported score is the average time per file.
+ * {@link NoopCheck} is measured as well to give the cost of parsing alone.
+ *
+ * <p>
+ * Run it with {@code java -jar target/benchmarks.jar}. The {@link GCProfiler} is always enabled,
+ * so the results contain allocation rate, allocations per file ({@code gc.alloc.rate.norm}) and
+ * GC counts for each check. All usual JMH options are accepted, e.g.
+ * {@code -p checkName=CustomDeclarationOrderCheck -p corpus=/path/to/sources -rf json}.
+ * Checks are configured with the properties found for them in the {@code config} parameter,
+ * which defaults to the configuration sevntu-checks are validated with.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class SevntuChecksBenchmark {
+
+    /** Packages used to resolve the short check names. */
+    private static final Set<String> PACKAGES = new HashSet<>(Arrays.asList(
+        "com.github.sevntu.checkstyle.checks.annotation",
+        "com.github.sevntu.checkstyle.checks.coding",
+        "com.github.sevntu.checkstyle.checks.design",
+        "com.github.sevntu.checkstyle.checks.naming",
+        "com.github.sevntu.checkstyle.checks.sizes",
+        "com.github.sevntu.checkstyle.benchmarks"));
+
+    /** Charset of the corpus files. */
+    private static final String CHARSET = "UTF-8";
+
+    /** Name of the benchmarked check. */
+    @Param({
+        "NoopCheck",
+        "AvoidConditionInversionCheck",
+        "AvoidConstantAsFirstOperandInConditionCheck",
+        "AvoidDefaultSerializableInInnerClassesCheck",
+        "AvoidHidingCauseExceptionCheck",
+        "AvoidModifiersForTypesCheck",
+        "AvoidNotShortCircuitOperatorsForBooleanCheck",
+        "CauseParameterInExceptionCheck",
+        "CheckstyleTestMakeupCheck",
+        "ChildBlockLengthCheck",
+        "ConfusingConditionCheck",
+        "ConstructorWithoutParamsCheck",
+        "CustomDeclarationOrderCheck",
+        "DiamondOperatorForVariableDefinitionCheck",
+        "EitherLogOrThrowCheck",
+        "EmptyPublicCtorInClassCheck",
+        "EnumValueNameCheck",
+        "FinalizeImplementationCheck",
+        "ForbidAnnotationCheck",
+        "ForbidAnnotationElementValueCheck",
+        "ForbidCCommentsInMethodsCheck",
+        "ForbidCertainImportsCheck",
+        "ForbidCertainMethodCheck",
+        "ForbidInstantiationCheck",
+        "ForbidReturnInFinallyBlockCheck",
+        "ForbidThrowAnonymousExceptionsCheck",
+        "ForbidWildcardAsReturnTypeCheck",
+        "HideUtilityClassConstructorCheck",
+        "IllegalCatchExtendedCheck",
+        "InnerClassCheck",
+        "InterfaceTypeParameterNameCheck",
+        "Jsr305AnnotationsCheck",
+        "LineLengthExtendedCheck",
+        "LogicConditionNeedOptimizationCheck",
+        "MapIterationInForEachLoopCheck",
+        "MoveVariableInsideIfCheck",
+        "MultipleStringLiteralsExtendedCheck",
+        "MultipleVariableDeclarationsExtendedCheck",
+        "NameConventionForJunit4TestClassesCheck",
+        "NestedSwitchCheck",
+        "NoMainMethodInAbstractClassCheck",
+        "NoNullForCollectionReturnCheck",
+        "NumericLiteralNeedsUnderscoreCheck",
+        "OverridableMethodInConstructorCheck",
+        "PublicReferenceToPrivateTypeCheck",
+        "RedundantReturnCheck",
+        "RequireFailForTryCatchInJunitCheck",
+        "RequiredParameterForAnnotationCheck",
+        "ReturnBooleanFromTernaryCheck",
+        "ReturnCountExtendedCheck",
+        "ReturnNullInsteadOfBooleanCheck",
+        "SimpleAccessorNameNotationCheck",
+        "SingleBreakOrContinueCheck",
+        "StaticMethodCandidateCheck",
+        "TernaryPerExpressionCountCheck",
+        "UniformEnumConstantNameCheck",
+        "UnnecessaryParenthesesExtendedCheck",
+        "UselessSingleCatchCheck",
+        "UselessSuperCtorCallCheck",
+        "WhitespaceBeforeArrayInitializerCheck"
+    })
+    private String checkName;
+
+    /**
+     * Directory with the Java files to audit. It is scanned recursively. The default value
+     * points to the sources of sevntu-checks, when running from this module's directory.
+     */
+    @Param("../sevntu-checks/src/main/java")
+    private String corpus;
+
+    /**
+     * Checkstyle configuration the properties of the check are taken from. Checks missing in
+     * it are benchmarked with their default properties.
+     */
+    @Param("../sevntu-checks/sevntu-checks.xml")
+    private String config;
+
+    /** Tree walker with the benchmarked check as the only child. */
+    private TreeWalker treeWalker;
+
+    /** Files of the corpus, read into memory in advance. */
+    private List<CorpusFile> files;
+
+    /** Index of the next file to audit. */
+    private int nextFile;
+
+    /**
+     * Runs all benchmarks of this class with the GC profiler enabled.
+     * @param args JMH command line options.
+     * @throws Exception if the benchmarks fail.
+     */
+    public static void main(String... args) throws Exception {
+        new Runner(new OptionsBuilder()
+            .parent(new CommandLineOptions(args))
+            .include(SevntuChecksBenchmark.class.getName())
+            .addProfiler(GCProfiler.class)
+            .build()).run();
+    }
+
+    /**
+     * Reads the corpus and creates the tree walker.
+     * @throws Exception if the corpus can't be read or the check can't be configured.
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        files = readCorpus(Paths.get(corpus));
+        treeWalker = createTreeWalker(findCheckConfig(
+            ConfigurationLoader.loadConfiguration(config,
+                new PropertiesExpander(System.getProperties())), checkName));
+        nextFile = 0;
+    }
+
+    /** Releases resources of the tree walker. */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        treeWalker.destroy();
+    }
+
+    /**
+     * Audits the next file of the corpus.
+     * @return violations, returned to avoid dead code elimination.
+     * @throws CheckstyleException if the file can't be processed.
+     */
+    @Benchmark
+    public SortedSet<LocalizedMessage> auditFile() throws CheckstyleException {
+        final CorpusFile file = files.get(nextFile);
+        nextFile++;
+        if (nextFile == files.size()) {
+            nextFile = 0;
+        }
+        return treeWalker.process(file.file, file.text);
+    }
+
+    /**
+     * Finds the configuration of the check in the given configuration tree.
+     * @param root root of the configuration tree.
+     * @param name short name of the check.
+     * @return configuration of the check, or an empty configuration if it is not found.
+     */
+    private static Configuration findCheckConfig(Configuration root, String name) {
+        Configuration result = null;
+        final String moduleName = root.getName();
+        if (moduleName.equals(name) || moduleName.endsWith("." + name)) {
+            result = root;
+        }
+        else {
+            for (Configuration child : root.getChildren()) {
+                result = findCheckConfig(child, name);
+                if (result != null) {
+                    break;
+                }
+            }
+        }
+        if (result == null && "Checker".equals(moduleName)) {
+            result = new DefaultConfiguration(name);
+        }
+        return result;
+    }
+
+    /**
+     * Creates a tree walker with the given checks.
+     * @param checkConfigs configurations of the checks.
+     * @return configured tree walker.
+     * @throws CheckstyleException if a check can't be created.
+     */
+    static TreeWalker createTreeWalker(Configuration... checkConfigs)
+            throws CheckstyleException {
+        final ClassLoader loader = SevntuChecksBenchmark.class.getClassLoader();
+        final DefaultConfiguration walkerConfig = new DefaultConfiguration("TreeWalker");
+        for (Configuration checkConfig : checkConfigs) {
+            walkerConfig.addChild(checkConfig);
+        }
+
+        final TreeWalker result = new TreeWalker();
+        result.setModuleFactory(new PackageObjectFactory(PACKAGES, loader));
+        result.setClassLoader(loader);
+        result.configure(walkerConfig);
+        return result;
+    }
+
+    /**
+     * Reads all Java files found under the directory, in a stable order.
+     * @param root corpus directory.
+     * @return contents of the files.
+     * @throws IOException if the directory or a file can't be read.
+     */
+    static List<CorpusFile> readCorpus(Path root) throws IOException {
+        final List<Path> paths;
+        try (Stream<Path> stream = Files.walk(root)) {
+            paths = stream
+                .filter(path -> path.toString().endsWith(".java"))
+                .sorted()
+                .collect(Collectors.toList());
+        }
+        if (paths.isEmpty()) {
+            throw new IllegalStateException("No Java files found in corpus "
+                + root.toAbsolutePath());
+        }
+
+        final List<CorpusFile> result = new ArrayList<>(paths.size());
+        for (Path path : paths) {
+            final File file = path.toFile();
+            result.add(new CorpusFile(file, new FileText(file, CHARSET)));
+        }
+        return result;
+    }
+
+    /** File of the corpus together with its text. */
+    static final class CorpusFile {
+
+        /** The file. */
+        final File file;
+
+        /** Text of the file. */
+        final FileText text;
+
+        /**
+         * Creates a new instance.
+         * @param file the file.
+         * @param text text of the file.
+         */
+        CorpusFile(File file, FileText text) {
+            this.file = file;
+            this.text = text;
+        }
+
+    }
+
+}
@@ -0,0 +1,235 @@
+////////////////////////////////////////////////////////////////////////////////
+// checkstyle: Checks Java source code for adherence to a set of rules.
+// Copyright (C) 2001-2019 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 2.1 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+////////////////////////////////////////////////////////////////////////////////
+
+package com.github.sevntu.checkstyle;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import com.puppycrawl.tools.checkstyle.DefaultContext;
+import com.puppycrawl.tools.checkstyle.ModuleFactory;
+import com.puppycrawl.tools.checkstyle.PackageNamesLoader;
+import com.puppycrawl.tools.checkstyle.PackageObjectFactory;
+import com.puppycrawl.tools.checkstyle.api.AbstractCheck;
+import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+import com.puppycrawl.tools.checkstyle.api.Configuration;
+import com.puppycrawl.tools.checkstyle.utils.TokenUtil;
+
+/**
+ * Base class for checks that run other checks nested in them during a single walk over the
+ * tree. It creates and configures the nested checks the same way TreeWalker does, subscribes to
+ * all tokens they are registered for and finds the nested checks registered for a token with
+ * one list lookup.
+ * <p>
+ * Subclasses keep their own state for each nested check in an object of type {@code T} and
+ * dispatch {@code beginTree}, {@code visitToken}, {@code leaveToken} and {@code finishTree}
+ * themselves. Nested checks should either all require comment nodes or all not require them,
+ * as they share one walk over the tree.
+ * </p>
+ *
+ * @param <T> type of the objects kept for the nested checks.
+ * @since 1.35.0
+ */
+public abstract class AbstractCheckGroup<T> extends AbstractCheck {
+
+    /** Nested checks, in order of configuration. */
+    private final List<T> nestedChecks = new ArrayList<>();
+
+    /** Nested checks registered for each token type, indexed by token type. */
+    private List<List<T>> checksByToken = new ArrayList<>();
+
+    /** All token types the nested checks are registered for. */
+    private int[] tokens = new int[0];
+
+    /** Factory to create the nested checks. */
+    private ModuleFactory moduleFactory;
+
+    @Override
+    public int[] getDefaultTokens() {
+        return tokens.clone();
+    }
+
+    @Override
+    public int[] getAcceptableTokens() {
+        return tokens.clone();
+    }
+
+    @Override
+    public int[] getRequiredTokens() {
+        return tokens.clone();
+    }
+
+    @Override
+    public boolean isCommentNodesRequired() {
+        return !nestedChecks.isEmpty() && getCheck(nestedChecks.get(0)).isCommentNodesRequired();
+    }
+
+    @Override
+    protected final void setupChild(Configuration childConf) throws CheckstyleException {
+        if (moduleFactory == null) {
+            moduleFactory = new PackageObjectFactory(
+                PackageNamesLoader.getPackageNames(getClassLoader()), getClassLoader());
+        }
+
+        final String name = childConf.getName();
+        final String groupName = getClass().getSimpleName();
+        final Object module = moduleFactory.createModule(name);
+        if (!(module instanceof AbstractCheck)) {
+            throw new CheckstyleException(groupName + " is not allowed as a parent of "
+                + name + ", only checks can be nested in it");
+        }
+
+        final AbstractCheck check = (AbstractCheck) module;
+        final DefaultContext context = new DefaultContext();
+        context.add("classLoader", getClassLoader());
+        context.add("severity", getSeverity());
+        context.add("tabWidth", String.valueOf(getTabWidth()));
+        check.contextualize(context);
+        check.configure(childConf);
+        validateTokens(check);
+        check.init();
+
+        if (!nestedChecks.isEmpty() && isCommentNodesRequired() != check.isCommentNodesRequired()) {
+            throw new CheckstyleException("Checks nested in " + groupName + " should "
+                + "either all require comment nodes or all not require them: " + name);
+        }
+        nestedChecks.add(createNestedCheck(check, childConf));
+    }
+
+    @Override
+    public void init() {
+        final SortedSet<Integer> allTokens = new TreeSet<>();
+        for (T nestedCheck : nestedChecks) {
+            allTokens.addAll(getRegisteredTokens(getCheck(nestedCheck)));
+        }
+
+        tokens = allTokens.stream().mapToInt(Integer::intValue).toArray();
+
+        final List<List<T>> byToken = new ArrayList<>();
+        for (int token = 0; token <= getMaxToken(); token++) {
+            byToken.add(new ArrayList<>());
+        }
+        for (T nestedCheck : nestedChecks) {
+            for (int token : getRegisteredTokens(getCheck(nestedCheck))) {
+                byToken.get(token).add(nestedCheck);
+            }
+        }
+        checksByToken = byToken;
+    }
+
+    @Override
+    public void destroy() {
+        for (T nestedCheck : nestedChecks) {
+            getCheck(nestedCheck).destroy();
+        }
+        super.destroy();
+    }
+
+    /**
+     * Creates the object to keep for a configured nested check.
+     * @param check the nested check, already configured and initialized.
+     * @param configuration configuration of the nested check.
+     * @return the object to keep.
+     * @throws CheckstyleException if the configuration can't be used.
+     */
+    protected abstract T createNestedCheck(AbstractCheck check, Configuration configuration)
+            throws CheckstyleException;
+
+    /**
+     * Gets the check kept in the object.
+     * @param nestedCheck object created by {@link #createNestedCheck}.
+     * @return the nested check.
+     */
+    protected abstract AbstractCheck getCheck(T nestedCheck);
+
+    /**
+     * Gets all nested checks.
+     * @return the nested checks, in order of configuration.
+     */
+    protected final List<T> getNestedChecks() {
+        return nestedChecks;
+    }
+
+    /**
+     * Gets the nested checks registered for the token type.
+     * @param tokenType the token type, one the group is registered for.
+     * @return the nested checks, in order of configuration.
+     */
+    protected final List<T> getNestedChecks(int tokenType) {
+        return checksByToken.get(tokenType);
+    }
+
+    /**
+     * Gets the biggest token type the nested checks are registered for.
+     * @return the biggest token type, or -1 if there are no tokens.
+     */
+    private int getMaxToken() {
+        int result = -1;
+        if (tokens.length > 0) {
+            result = tokens[tokens.length - 1];
+        }
+        return result;
+    }
+
+    /**
+     * Verifies that all tokens configured for the check are acceptable for it, as TreeWalker
+     * does for checks placed directly into it.
+     * @param check the check.
+     * @throws CheckstyleException if a configured token is not acceptable.
+     */
+    private static void validateTokens(AbstractCheck check) throws CheckstyleException {
+        final int[] acceptableTokens = check.getAcceptableTokens();
+        Arrays.sort(acceptableTokens);
+        for (String tokenName : check.getTokenNames()) {
+            if (Arrays.binarySearch(acceptableTokens, TokenUtil.getTokenId(tokenName)) < 0) {
+                throw new CheckstyleException(String.format(Locale.ROOT, "Token \"%s\" was "
+                    + "not found in Acceptable tokens list in check %s",
+                    tokenName, check.getClass().getName()));
+            }
+        }
+    }
+
+    /**
+     * Gets the token types TreeWalker would register the check for.
+     * @param check the check.
+     * @return the token types.
+     */
+    private static SortedSet<Integer> getRegisteredTokens(AbstractCheck check) {
+        final SortedSet<Integer> result = new TreeSet<>();
+        if (check.getTokenNames().isEmpty()) {
+            for (int token : check.getDefaultTokens()) {
+                result.add(token);
+            }
+        }
+        else {
+            for (String tokenName : check.getTokenNames()) {
+                result.add(TokenUtil.getTokenId(tokenName));
+            }
+        }
+        for (int token : check.getRequiredTokens()) {
+            result.add(token);
+        }
+        return result;
+    }
+
+}
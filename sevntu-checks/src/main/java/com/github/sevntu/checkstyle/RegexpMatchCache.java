@@ -0,0 +1,183 @@
+////////////////////////////////////////////////////////////////////////////////
+// checkstyle: Checks Java source code for adherence to a set of rules.
+// Copyright (C) 2001-2019 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 2.1 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+////////////////////////////////////////////////////////////////////////////////
+
+package com.github.sevntu.checkstyle;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Remembers results of matching regular expressions against strings, so the same imports,
+ * method names or annotation values are not matched again and again in every file.
+ * <p>
+ * Each check keeps its own cache, so results are dropped together with the check and no lock
+ * is needed, as a check is never used by several threads at once. Results are keyed by the
+ * regular expression, its flags, the kind of match and the input. The number of results is
+ * bounded, the least recently used ones are dropped first. This class is not thread-safe.
+ * </p>
+ *
+ * @since 1.35.0
+ */
+public final class RegexpMatchCache {
+
+    /** Default maximum number of results to keep. */
+    private static final int DEFAULT_MAX_SIZE = 1000;
+
+    /** Cached results, in order of their last use. */
+    private final Map<Key, Boolean> results;
+
+    /**
+     * Creates a new cache that keeps the default number of results.
+     */
+    public RegexpMatchCache() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * Creates a new cache.
+     * @param maxSize maximum number of results to keep.
+     */
+    public RegexpMatchCache(final int maxSize) {
+        results = new LinkedHashMap<Key, Boolean>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Boolean> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * Checks whether the entire input matches the pattern, see
+     * {@link java.util.regex.Matcher#matches()}.
+     * @param pattern the pattern.
+     * @param input the input.
+     * @return true if the input matches.
+     */
+    public boolean matches(Pattern pattern, String input) {
+        return getResult(new Key(pattern, input, false));
+    }
+
+    /**
+     * Checks whether any part of the input matches the pattern, see
+     * {@link java.util.regex.Matcher#find()}.
+     * @param pattern the pattern.
+     * @param input the input.
+     * @return true if a match is found.
+     */
+    public boolean find(Pattern pattern, String input) {
+        return getResult(new Key(pattern, input, true));
+    }
+
+    /**
+     * Gets the number of cached results.
+     * @return the number of results.
+     */
+    public int size() {
+        return results.size();
+    }
+
+    /**
+     * Checks whether the result of the match is cached, without marking it as used.
+     * @param key the match.
+     * @return true if the result is cached.
+     */
+    boolean contains(Key key) {
+        return results.containsKey(key);
+    }
+
+    /**
+     * Gets the cached result or matches the input and caches the result.
+     * @param key the match to perform.
+     * @return the result of the match.
+     */
+    private boolean getResult(Key key) {
+        Boolean result = results.get(key);
+        if (result == null) {
+            result = key.match();
+            results.put(key, result);
+        }
+        return result;
+    }
+
+    /** A match of an input against a pattern. */
+    static final class Key {
+
+        /** The pattern. */
+        private final Pattern pattern;
+
+        /** The input. */
+        private final String input;
+
+        /** Whether to find a part of the input, or to match the entire input. */
+        private final boolean find;
+
+        /**
+         * Creates a new instance.
+         * @param pattern the pattern.
+         * @param input the input.
+         * @param find whether to find a part of the input, or to match the entire input.
+         */
+        Key(Pattern pattern, String input, boolean find) {
+            this.pattern = pattern;
+            this.input = input;
+            this.find = find;
+        }
+
+        /**
+         * Performs the match.
+         * @return the result of the match.
+         */
+        public boolean match() {
+            final boolean result;
+            if (find) {
+                result = pattern.matcher(input).find();
+            }
+            else {
+                result = pattern.matcher(input).matches();
+            }
+            return result;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            boolean result = false;
+            if (other instanceof Key) {
+                final Key key = (Key) other;
+                result = find == key.find
+                    && pattern.flags() == key.pattern.flags()
+                    && pattern.pattern().equals(key.pattern.pattern())
+                    && input.equals(key.input);
+            }
+            return result;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = pattern.pattern().hashCode();
+            result = 31 * result + pattern.flags();
+            result = 31 * result + input.hashCode();
+            return 31 * result + Boolean.hashCode(find);
+        }
+
+    }
+
+}
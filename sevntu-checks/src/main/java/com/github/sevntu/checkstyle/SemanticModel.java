@@ -0,0 +1,207 @@
+////////////////////////////////////////////////////////////////////////////////
+// checkstyle: Checks Java source code for adherence to a set of rules.
+// Copyright (C) 2001-2019 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 2.1 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+////////////////////////////////////////////////////////////////////////////////
+
+package com.github.sevntu.checkstyle;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.puppycrawl.tools.checkstyle.api.DetailAST;
+import com.puppycrawl.tools.checkstyle.api.TokenTypes;
+
+/**
+ * Facts about the type definitions of one file and their members, shared by all checks that
+ * audit this file.
+ * <p>
+ * Checks obtain the model with {@link #of(DetailAST)}, usually in {@code beginTree}, and drop
+ * their reference to it in {@code finishTree}. All checks that are given the same root node get
+ * the same instance. The body of a type is scanned only once, when the type is queried for the
+ * first time, and only its direct children are looked at. The model of the last file is
+ * referenced per thread, so files audited in parallel do not replace the model of each other.
+ * This reference is weak, so the model and the tree of a file are not kept after the checks are
+ * done with it, e.g. by idle threads of a pool.
+ * </p>
+ *
+ * @since 1.35.0
+ */
+public final class SemanticModel {
+
+    /** The model of the file that was audited last by the current thread, if it is in use. */
+    private static final ThreadLocal<WeakReference<SemanticModel>> CURRENT =
+        ThreadLocal.withInitial(() -> new WeakReference<>(null));
+
+    /** Root node of the file. */
+    private final DetailAST rootAST;
+
+    /** Type definitions queried so far, by their nodes. */
+    private final Map<DetailAST, TypeDetails> typesByAst = new HashMap<>();
+
+    /**
+     * Creates a new model.
+     * @param rootAST root node of the file.
+     */
+    private SemanticModel(DetailAST rootAST) {
+        this.rootAST = rootAST;
+    }
+
+    /**
+     * Gets the model of the file with the given root node. The model is created only if the
+     * model of the last file of the current thread has a different root.
+     * @param rootAST root node of the file, as it is passed to {@code beginTree}.
+     * @return the model of the file.
+     */
+    public static SemanticModel of(DetailAST rootAST) {
+        SemanticModel result = CURRENT.get().get();
+        if (result == null || result.rootAST != rootAST) {
+            result = new SemanticModel(rootAST);
+            CURRENT.set(new WeakReference<>(result));
+        }
+        return result;
+    }
+
+    /**
+     * Gets the type with the given definition.
+     * @param typeDef CLASS_DEF, INTERFACE_DEF, ENUM_DEF or ANNOTATION_DEF node of the file.
+     * @return the type.
+     */
+    public TypeDetails getType(DetailAST typeDef) {
+        return typesByAst.computeIfAbsent(typeDef, TypeDetails::new);
+    }
+
+    /**
+     * Facts about one type definition.
+     */
+    public static final class TypeDetails {
+
+        /** The type definition node. */
+        private final DetailAST typeDef;
+
+        /** Token types of the modifiers of the type. */
+        private final BitSet modifiers = new BitSet();
+
+        /** Method definitions of the type, in order of their appearance. */
+        private final List<DetailAST> methods = new ArrayList<>();
+
+        /** Method definitions of the type grouped by name. */
+        private final Map<String, List<DetailAST>> methodsByName = new HashMap<>();
+
+        /** Constructor definitions of the type, in order of their appearance. */
+        private final List<DetailAST> ctors = new ArrayList<>();
+
+        /** Field definitions of the type, in order of their appearance. */
+        private final List<DetailAST> fields = new ArrayList<>();
+
+        /**
+         * Creates a new instance and collects the members declared in the body of the type.
+         * @param typeDef the type definition node.
+         */
+        private TypeDetails(DetailAST typeDef) {
+            this.typeDef = typeDef;
+            for (DetailAST modifier = typeDef.findFirstToken(TokenTypes.MODIFIERS).getFirstChild();
+                    modifier != null; modifier = modifier.getNextSibling()) {
+                modifiers.set(modifier.getType());
+            }
+            for (DetailAST member = typeDef.findFirstToken(TokenTypes.OBJBLOCK).getFirstChild();
+                    member != null; member = member.getNextSibling()) {
+                addMember(member);
+            }
+        }
+
+        /**
+         * Adds a member definition of the type, other nodes are ignored.
+         * @param member a child of the body of the type.
+         */
+        private void addMember(DetailAST member) {
+            switch (member.getType()) {
+                case TokenTypes.METHOD_DEF:
+                    methods.add(member);
+                    methodsByName.computeIfAbsent(
+                        member.findFirstToken(TokenTypes.IDENT).getText(),
+                        key -> new ArrayList<>()).add(member);
+                    break;
+                case TokenTypes.CTOR_DEF:
+                    ctors.add(member);
+                    break;
+                case TokenTypes.VARIABLE_DEF:
+                    fields.add(member);
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        /**
+         * Gets the type definition node.
+         * @return CLASS_DEF, INTERFACE_DEF, ENUM_DEF or ANNOTATION_DEF node.
+         */
+        public DetailAST getTypeDef() {
+            return typeDef;
+        }
+
+        /**
+         * Checks whether the type is declared with the modifier.
+         * @param modifierType token type of the modifier, like {@link TokenTypes#ABSTRACT}.
+         * @return true if the type has the modifier.
+         */
+        public boolean hasModifier(int modifierType) {
+            return modifiers.get(modifierType);
+        }
+
+        /**
+         * Gets the methods declared in the body of the type.
+         * @return METHOD_DEF nodes in order of their appearance.
+         */
+        public List<DetailAST> getMethods() {
+            return Collections.unmodifiableList(methods);
+        }
+
+        /**
+         * Gets the methods with the given name declared in the body of the type.
+         * @param methodName name of the methods.
+         * @return METHOD_DEF nodes in order of their appearance, empty if there are none.
+         */
+        public List<DetailAST> getMethods(String methodName) {
+            return Collections.unmodifiableList(
+                methodsByName.getOrDefault(methodName, Collections.emptyList()));
+        }
+
+        /**
+         * Gets the constructors declared in the body of the type.
+         * @return CTOR_DEF nodes in order of their appearance.
+         */
+        public List<DetailAST> getCtors() {
+            return Collections.unmodifiableList(ctors);
+        }
+
+        /**
+         * Gets the fields declared in the body of the type.
+         * @return VARIABLE_DEF nodes in order of their appearance.
+         */
+        public List<DetailAST> getFields() {
+            return Collections.unmodifiableList(fields);
+        }
+
+    }
+
+}
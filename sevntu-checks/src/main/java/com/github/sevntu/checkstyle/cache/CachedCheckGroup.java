@@ -0,0 +1,448 @@
+////////////////////////////////////////////////////////////////////////////////
+// checkstyle: Checks Java source code for adherence to a set of rules.
+// Copyright (C) 2001-2019 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 2.1 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+////////////////////////////////////////////////////////////////////////////////
+
+package com.github.sevntu.checkstyle.cache;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystemNotFoundException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeMap;
+
+import com.github.sevntu.checkstyle.AbstractCheckGroup;
+import com.puppycrawl.tools.checkstyle.api.AbstractCheck;
+import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+import com.puppycrawl.tools.checkstyle.api.Configuration;
+import com.puppycrawl.tools.checkstyle.api.DetailAST;
+import com.puppycrawl.tools.checkstyle.api.LocalizedMessage;
+import com.puppycrawl.tools.checkstyle.api.SeverityLevel;
+
+/**
+ * Runs the checks nested in it only on files they have not seen yet, and replays the violations
+ * they reported before for all other files. Results are kept in a file on local disk between
+ * audits, so unchanged files are not walked by the nested checks again.
+ * <p>
+ * To cache results of checks, move them from TreeWalker inside of this module, their properties
+ * and violations stay the same:
+ * </p>
+ * <pre>
+ * &lt;module name="TreeWalker"&gt;
+ *   &lt;module name="com.github.sevntu.checkstyle.cache.CachedCheckGroup"&gt;
+ *     &lt;property name="cacheFile" value="target/sevntu-checks.cache"/&gt;
+ *     &lt;module name="MultipleStringLiteralsExtendedCheck"/&gt;
+ *     &lt;module name="OverridableMethodInConstructorCheck"/&gt;
+ *   &lt;/module&gt;
+ * &lt;/module&gt;
+ * </pre>
+ * <p>
+ * Results of a check are looked up by a SHA-256 hash of the file content, the check class, all
+ * properties and custom messages the check is configured with, severity and tab width, and
+ * the content of the jar file or class directory the check is loaded from. Any change of these
+ * runs the check again, including a rebuild of a snapshot version with changed code. Results of
+ * checks whose code can't be read are not cached. Violations logged in {@code finishTree} are
+ * cached the same way as the others.
+ * </p>
+ * <p>
+ * Only results used in the last audit are written back, so the cache does not grow with old
+ * versions of files. A cache file that can't be read, e.g. written by an incompatible version
+ * of Checkstyle or containing objects of classes that are never cached, is ignored. Nested
+ * checks should either all require comment nodes or all not require them, as they share one
+ * walk over the tree.
+ * </p>
+ */
+public class CachedCheckGroup extends AbstractCheckGroup<CachedCheckGroup.CachedCheck> {
+
+    /** Algorithm used to hash file contents and check configurations. */
+    private static final String HASH_ALGORITHM = "SHA-256";
+
+    /**
+     * Classes of the objects kept in the cache file, except for the classes of nested checks.
+     * Objects of any other class are never created when the file is read.
+     */
+    private static final List<Class<?>> CACHED_CLASSES = Arrays.asList(
+        HashMap.class, ArrayList.class, LocalizedMessage.class, SeverityLevel.class, Enum.class,
+        Object[].class, String[].class, Number.class, Integer.class, Long.class, Short.class,
+        Byte.class, Double.class, Float.class, Boolean.class, Character.class);
+
+    /** Results read from the cache file, by file hash and check hash. */
+    private Map<String, List<LocalizedMessage>> cachedResults = new HashMap<>();
+
+    /** Results of the current audit, to be written to the cache file. */
+    private final Map<String, List<LocalizedMessage>> results = new HashMap<>();
+
+    /** Hashes of the jar files and class directories of nested checks, by their location. */
+    private final Map<String, String> codeHashes = new HashMap<>();
+
+    /** File to keep the results in. */
+    private String cacheFile = "sevntu-checks.cache";
+
+    /**
+     * Sets the file to keep the results in.
+     * @param cacheFile path of the file.
+     */
+    public void setCacheFile(String cacheFile) {
+        this.cacheFile = cacheFile;
+    }
+
+    @Override
+    protected CachedCheck createNestedCheck(AbstractCheck check, Configuration configuration)
+            throws CheckstyleException {
+        final String codeHash = getCodeHash(check.getClass());
+        String checkHash = null;
+        if (codeHash != null) {
+            final StringBuilder signature = new StringBuilder(256)
+                .append(codeHash).append('\0')
+                .append(check.getClass().getName()).append('\0')
+                .append(getSeverity()).append('\0')
+                .append(getTabWidth()).append('\0');
+            appendConfiguration(signature, configuration);
+            checkHash = hash(signature);
+        }
+        return new CachedCheck(check, checkHash);
+    }
+
+    @Override
+    protected AbstractCheck getCheck(CachedCheck nestedCheck) {
+        return nestedCheck.check;
+    }
+
+    @Override
+    public void init() {
+        super.init();
+        cachedResults = readCache(Paths.get(cacheFile));
+    }
+
+    @Override
+    public void beginTree(DetailAST rootAST) {
+        final String fileHash = hash(getFileContents().getText().getFullText());
+        for (CachedCheck cachedCheck : getNestedChecks()) {
+            final AbstractCheck check = cachedCheck.check;
+            check.setFileContents(getFileContents());
+            check.clearMessages();
+
+            cachedCheck.replayedMessages = null;
+            if (cachedCheck.hash != null) {
+                cachedCheck.key = fileHash + cachedCheck.hash;
+                cachedCheck.replayedMessages = cachedResults.get(cachedCheck.key);
+            }
+            if (cachedCheck.replayedMessages == null) {
+                check.beginTree(rootAST);
+            }
+            else {
+                results.put(cachedCheck.key, cachedCheck.replayedMessages);
+            }
+        }
+    }
+
+    @Override
+    public void visitToken(DetailAST ast) {
+        for (CachedCheck cachedCheck : getNestedChecks(ast.getType())) {
+            if (cachedCheck.replayedMessages == null) {
+                cachedCheck.check.visitToken(ast);
+            }
+        }
+    }
+
+    @Override
+    public void leaveToken(DetailAST ast) {
+        for (CachedCheck cachedCheck : getNestedChecks(ast.getType())) {
+            if (cachedCheck.replayedMessages == null) {
+                cachedCheck.check.leaveToken(ast);
+            }
+        }
+    }
+
+    @Override
+    public void finishTree(DetailAST rootAST) {
+        for (CachedCheck cachedCheck : getNestedChecks()) {
+            if (cachedCheck.replayedMessages == null) {
+                final AbstractCheck check = cachedCheck.check;
+                check.finishTree(rootAST);
+                if (cachedCheck.hash != null) {
+                    results.put(cachedCheck.key, new ArrayList<>(check.getMessages()));
+                }
+            }
+        }
+    }
+
+    @Override
+    public SortedSet<LocalizedMessage> getMessages() {
+        final SortedSet<LocalizedMessage> result = super.getMessages();
+        for (CachedCheck cachedCheck : getNestedChecks()) {
+            if (cachedCheck.replayedMessages == null) {
+                result.addAll(cachedCheck.check.getMessages());
+            }
+            else {
+                result.addAll(cachedCheck.replayedMessages);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void destroy() {
+        super.destroy();
+        try {
+            writeCache(Paths.get(cacheFile));
+        }
+        catch (IOException ex) {
+            throw new IllegalStateException("Unable to write cache file " + cacheFile, ex);
+        }
+    }
+
+    /**
+     * Gets the hash of the jar file or class directory the check class is loaded from. It is
+     * calculated once for each location.
+     * @param checkClass the check class.
+     * @return the hash, or null if the location is unknown or can't be read.
+     */
+    private String getCodeHash(Class<?> checkClass) {
+        final URL location = checkClass.getProtectionDomain().getCodeSource().getLocation();
+        String result = null;
+        if (location != null) {
+            result = codeHashes.get(location.toString());
+            if (result == null) {
+                try {
+                    result = hashFiles(Paths.get(location.toURI()));
+                    codeHashes.put(location.toString(), result);
+                }
+                catch (URISyntaxException | IllegalArgumentException
+                        | FileSystemNotFoundException | IOException ignored) {
+                    // results of the check are not cached
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Appends the properties, custom messages and children of the configuration, in a stable
+     * order.
+     * @param builder the builder to append to.
+     * @param configuration the configuration.
+     * @throws CheckstyleException if a property can't be read.
+     */
+    private static void appendConfiguration(StringBuilder builder, Configuration configuration)
+            throws CheckstyleException {
+        builder.append(configuration.getName()).append('\0');
+        final String[] names = configuration.getAttributeNames();
+        Arrays.sort(names);
+        for (String name : names) {
+            builder.append(name).append('=').append(configuration.getAttribute(name))
+                .append('\0');
+        }
+        for (Map.Entry<String, String> message
+                : new TreeMap<>(configuration.getMessages()).entrySet()) {
+            builder.append(message.getKey()).append('=').append(message.getValue())
+                .append('\0');
+        }
+        for (Configuration child : configuration.getChildren()) {
+            builder.append('{');
+            appendConfiguration(builder, child);
+            builder.append('}');
+        }
+    }
+
+    /**
+     * Calculates the hash of the text.
+     * @param text the text.
+     * @return the hash as a hexadecimal string.
+     */
+    private static String hash(CharSequence text) {
+        return toHex(createDigest().digest(text.toString().getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Calculates the hash of the names and contents of all files in the directory, or of the
+     * content of the file if it is not a directory.
+     * @param location the directory or file.
+     * @return the hash as a hexadecimal string.
+     * @throws IOException if a file can't be read.
+     */
+    private static String hashFiles(Path location) throws IOException {
+        final List<Path> files = new ArrayList<>();
+        Files.walkFileTree(location, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+                files.add(file);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        Collections.sort(files);
+        final MessageDigest digest = createDigest();
+        for (Path file : files) {
+            digest.update(location.relativize(file).toString().getBytes(StandardCharsets.UTF_8));
+            digest.update(Files.readAllBytes(file));
+        }
+        return toHex(digest.digest());
+    }
+
+    /**
+     * Creates the digest to calculate hashes with.
+     * @return the digest.
+     */
+    private static MessageDigest createDigest() {
+        try {
+            return MessageDigest.getInstance(HASH_ALGORITHM);
+        }
+        catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("Unable to hash with " + HASH_ALGORITHM, ex);
+        }
+    }
+
+    /**
+     * Converts the bytes of a hash to a hexadecimal string.
+     * @param bytes the bytes.
+     * @return the hexadecimal string.
+     */
+    private static String toHex(byte[] bytes) {
+        final StringBuilder result = new StringBuilder(bytes.length * 2);
+        for (byte value : bytes) {
+            result.append(Character.forDigit((value >> 4) & 0xF, 16))
+                .append(Character.forDigit(value & 0xF, 16));
+        }
+        return result.toString();
+    }
+
+    /**
+     * Reads the results kept in the cache file.
+     * @param path the cache file.
+     * @return the results, or an empty map if the file doesn't exist or can't be read.
+     */
+    @SuppressWarnings("unchecked")
+    private Map<String, List<LocalizedMessage>> readCache(Path path) {
+        Map<String, List<LocalizedMessage>> result = new HashMap<>();
+        if (Files.exists(path)) {
+            final Map<String, Class<?>> allowedClasses = new HashMap<>();
+            for (Class<?> type : CACHED_CLASSES) {
+                allowedClasses.put(type.getName(), type);
+            }
+            for (CachedCheck cachedCheck : getNestedChecks()) {
+                allowedClasses.put(cachedCheck.check.getClass().getName(),
+                    cachedCheck.check.getClass());
+            }
+            try {
+                final ObjectInputStream input = new CacheInputStream(
+                    new ByteArrayInputStream(Files.readAllBytes(path)), allowedClasses);
+                result = (Map<String, List<LocalizedMessage>>) input.readObject();
+            }
+            catch (IOException | ClassNotFoundException | ClassCastException ignored) {
+                // results are computed again
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Writes the results of the current audit to the cache file.
+     * @param path the cache file.
+     * @throws IOException if the file can't be written.
+     */
+    private void writeCache(Path path) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final ObjectOutputStream output = new ObjectOutputStream(bytes);
+        output.writeObject(results);
+        output.flush();
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        Files.write(path, bytes.toByteArray());
+    }
+
+    /**
+     * Stream to read the cache file, that resolves only the classes allowed in it. This way
+     * no objects of other classes are created, whatever the file contains.
+     */
+    private static final class CacheInputStream extends ObjectInputStream {
+
+        /** Classes allowed in the stream, by name. */
+        private final Map<String, Class<?>> allowedClasses;
+
+        /**
+         * Creates a new instance.
+         * @param input the stream to read from.
+         * @param allowedClasses classes allowed in the stream, by name.
+         * @throws IOException if the stream header can't be read.
+         */
+        CacheInputStream(InputStream input, Map<String, Class<?>> allowedClasses)
+                throws IOException {
+            super(input);
+            this.allowedClasses = allowedClasses;
+        }
+
+        @Override
+        protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException {
+            final Class<?> result = allowedClasses.get(desc.getName());
+            if (result == null) {
+                throw new InvalidClassException(desc.getName(), "Unexpected class in cache file");
+            }
+            return result;
+        }
+
+    }
+
+    /** A nested check with the state of its results for the current file. */
+    static final class CachedCheck {
+
+        /** The nested check. */
+        private final AbstractCheck check;
+
+        /** Hash of the check configuration, or null if the results are not cached. */
+        private final String hash;
+
+        /** Key of the results for the current file. */
+        private String key;
+
+        /** Cached violations for the current file, or null if the check has to run. */
+        private List<LocalizedMessage> replayedMessages;
+
+        /**
+         * Creates a new instance.
+         * @param check the nested check.
+         * @param hash hash of the check configuration, or null if the results are not cached.
+         */
+        CachedCheck(AbstractCheck check, String hash) {
+            this.check = check;
+            this.hash = hash;
+        }
+
+    }
+
+}
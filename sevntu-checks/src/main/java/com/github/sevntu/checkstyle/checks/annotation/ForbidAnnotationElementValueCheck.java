@@ -19,11 +19,15 @@
 
 package com.github.sevntu.checkstyle.checks.annotation;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.regex.Matcher;
+import java.util.Map;
 import java.util.regex.Pattern;
 
+import com.github.sevntu.checkstyle.RegexpMatchCache;
 import com.google.common.base.CharMatcher;
 import com.puppycrawl.tools.checkstyle.api.AbstractCheck;
 import com.puppycrawl.tools.checkstyle.api.DetailAST;
@@ -107,6 +111,31 @@ import com.puppycrawl.tools.checkstyle.api.TokenTypes;
  * <pre>
  * &#64;SuppressWarnings({"unused", "unchecked"})
  * </pre>
+ * <p>
+ * To forbid element values of several annotations with one instance of the check,
+ * annotationRules option should contain rules in the form
+ * "AnnotationName(elementName=forbiddenElementValueRegexp)", separated by "###".
+ * When this option is set, annotationName, elementName and forbiddenElementValueRegexp
+ * options are ignored.
+ * </p>
+ * <p>
+ * Config
+ * </p>
+ *
+ * <pre>
+ * &lt;module name="ForbidAnnotationElementValue"&gt;
+ * &lt;property name="annotationRules"
+ *     value="Test(expected=.*) ### SuppressWarnings(value=unchecked)"/&gt;
+ * &lt;/module&gt;
+ * </pre>
+ * <p>
+ * Code
+ * </p>
+ *
+ * <pre>
+ *  &#64;Test(expected = Exception.class)
+ *  &#64;SuppressWarnings("unchecked")
+ * </pre>
  *
  * @author <a href="mailto:drozzds@gmail.com"> Sergey Drozd </a>
  * @author Richard Veach
@@ -132,6 +161,15 @@ public class ForbidAnnotationElementValueCheck extends AbstractCheck {
     /** Precompiled forbidden element value pattern. */
     private Pattern forbiddenElementValueRegexp = Pattern.compile(".*");
 
+    /** Rules from the rule table. */
+    private final List<Rule> annotationRules = new ArrayList<>();
+
+    /** Rules of all the forbidden annotations, mapped by the annotation name. */
+    private final Map<String, List<Rule>> rulesByAnnotationName = new HashMap<>();
+
+    /** Results of matching element values against the forbidden values. */
+    private final RegexpMatchCache matchCache = new RegexpMatchCache();
+
     /**
      * Sets Annotation Name Check property.
      *
@@ -160,6 +198,44 @@ public class ForbidAnnotationElementValueCheck extends AbstractCheck {
         this.forbiddenElementValueRegexp = Pattern.compile(forbiddenElementValueRegexp);
     }
 
+    /**
+     * Sets Annotation Rules Check property.
+     *
+     * @param annotationRulesTable
+     *        The rules in the form "AnnotationName(elementName=forbiddenElementValueRegexp)",
+     *        separated by "###".
+     */
+    public void setAnnotationRules(String annotationRulesTable) {
+        annotationRules.clear();
+        for (String rule : annotationRulesTable.trim().split("\\s*###\\s*")) {
+            final int openingParenIndex = rule.indexOf('(');
+            final int equalsIndex = rule.indexOf('=', openingParenIndex);
+            if (openingParenIndex <= 0 || equalsIndex < 0 || !rule.endsWith(")")) {
+                throw new IllegalArgumentException("Unable to parse annotation rule: " + rule);
+            }
+            annotationRules.add(new Rule(rule.substring(0, openingParenIndex).trim(),
+                    rule.substring(openingParenIndex + 1, equalsIndex).trim(),
+                    Pattern.compile(rule.substring(equalsIndex + 1, rule.length() - 1).trim())));
+        }
+    }
+
+    @Override
+    public void init() {
+        rulesByAnnotationName.clear();
+        final List<Rule> rules;
+        if (annotationRules.isEmpty()) {
+            rules = Collections.singletonList(
+                    new Rule(annotationName, elementName, forbiddenElementValueRegexp));
+        }
+        else {
+            rules = annotationRules;
+        }
+        for (Rule rule : rules) {
+            rulesByAnnotationName.computeIfAbsent(rule.annotationName, key -> new ArrayList<>())
+                    .add(rule);
+        }
+    }
+
     @Override
     public int[] getDefaultTokens() {
         return new int[] {
@@ -179,29 +255,41 @@ public class ForbidAnnotationElementValueCheck extends AbstractCheck {
 
     @Override
     public void visitToken(DetailAST ast) {
-        if (getAnnotationName(ast).equals(annotationName)) {
-            if (ELEMENT_NAME_DEFAULT.equals(elementName) && isSingleElementAnnotation(ast)) {
-                final DetailAST forbiddenElement = getSingleElementWithForbiddenValue(ast);
+        final List<Rule> rules = rulesByAnnotationName.get(getAnnotationName(ast));
 
-                log(forbiddenElement, MSG_KEY, elementName, annotationName);
-            }
-            else {
-                for (DetailAST forbiddenElement : getForbiddenElements(ast)) {
-                    log(forbiddenElement, MSG_KEY, elementName, annotationName);
-                }
+        if (rules != null) {
+            for (Rule rule : rules) {
+                checkAnnotation(ast, rule);
             }
         }
     }
 
     /**
-     * Determining that annotation is single-element.
+     * Checks the annotation for the forbidden element value of the rule.
      *
-     * @param annotation
+     * @param ast
      *        DetailAST node of type {@link TokenTypes#ANNOTATION}
-     * @return True if the annotation is a single-element.
+     * @param rule
+     *        The rule to check.
      */
-    private boolean isSingleElementAnnotation(DetailAST annotation) {
-        return getSingleElementWithForbiddenValue(annotation) != null;
+    private void checkAnnotation(DetailAST ast, Rule rule) {
+        final DetailAST singleElement;
+        if (ELEMENT_NAME_DEFAULT.equals(rule.elementName)) {
+            singleElement = getSingleElementWithForbiddenValue(ast,
+                    rule.forbiddenElementValueRegexp);
+        }
+        else {
+            singleElement = null;
+        }
+
+        if (singleElement == null) {
+            for (DetailAST forbiddenElement : getForbiddenElements(ast, rule)) {
+                log(forbiddenElement, MSG_KEY, rule.elementName, rule.annotationName);
+            }
+        }
+        else {
+            log(singleElement, MSG_KEY, rule.elementName, rule.annotationName);
+        }
     }
 
     /**
@@ -209,9 +297,12 @@ public class ForbidAnnotationElementValueCheck extends AbstractCheck {
      *
      * @param annotation
      *        DetailAST node of type {@link TokenTypes#ANNOTATION}
+     * @param forbiddenElementValuePattern
+     *        The forbidden element value pattern.
      * @return DetailAST node of type {@link TokenTypes#EXPR}
      */
-    private DetailAST getSingleElementWithForbiddenValue(DetailAST annotation) {
+    private DetailAST getSingleElementWithForbiddenValue(DetailAST annotation,
+            Pattern forbiddenElementValuePattern) {
         DetailAST singleElement = null;
         DetailAST currentNode = annotation.getFirstChild();
 
@@ -220,7 +311,7 @@ public class ForbidAnnotationElementValueCheck extends AbstractCheck {
                     || currentNode.getType() == TokenTypes.ANNOTATION_ARRAY_INIT) {
                 final String elementValue = getSingleElementValue(currentNode);
 
-                if (forbiddenElementValueRegexp.matcher(elementValue).find()) {
+                if (matchCache.find(forbiddenElementValuePattern, elementValue)) {
                     singleElement = currentNode;
                     break;
                 }
@@ -237,15 +328,17 @@ public class ForbidAnnotationElementValueCheck extends AbstractCheck {
      *
      * @param annotation
      *        DetailAST node of type {@link TokenTypes#ANNOTATION}
+     * @param rule
+     *        The rule to check.
      * @return List of forbidden elements.
      */
-    private List<DetailAST> getForbiddenElements(DetailAST annotation) {
+    private List<DetailAST> getForbiddenElements(DetailAST annotation, Rule rule) {
         final List<DetailAST> forbiddenElements = new LinkedList<>();
         DetailAST currentNode = annotation.getFirstChild();
 
         while (currentNode != null) {
             if (currentNode.getType() == TokenTypes.ANNOTATION_MEMBER_VALUE_PAIR
-                    && isElementForbidden(currentNode)) {
+                    && isElementForbidden(currentNode, rule)) {
                 forbiddenElements.add(currentNode);
             }
 
@@ -260,13 +353,15 @@ public class ForbidAnnotationElementValueCheck extends AbstractCheck {
      *
      * @param memberValuePair
      *        DetailAST node of type {@link TokenTypes#ANNOTATION_MEMBER_VALUE_PAIR}
+     * @param rule
+     *        The rule to check.
      * @return True if element is forbidden.
      */
-    private boolean isElementForbidden(DetailAST memberValuePair) {
+    private boolean isElementForbidden(DetailAST memberValuePair, Rule rule) {
         final String elementValue = getElementValue(memberValuePair);
-        final Matcher elementValueMatcher = forbiddenElementValueRegexp.matcher(elementValue);
 
-        return getElementName(memberValuePair).equals(elementName) && elementValueMatcher.find();
+        return getElementName(memberValuePair).equals(rule.elementName)
+                && matchCache.find(rule.forbiddenElementValueRegexp, elementValue);
     }
 
     /**
@@ -399,4 +494,34 @@ public class ForbidAnnotationElementValueCheck extends AbstractCheck {
         return elementName.getText();
     }
 
+    /**
+     * Forbidden element value of an annotation.
+     */
+    private static final class Rule {
+
+        /** Forbidden annotation name. */
+        private final String annotationName;
+
+        /** Forbidden annotation element name. */
+        private final String elementName;
+
+        /** Precompiled forbidden element value pattern. */
+        private final Pattern forbiddenElementValueRegexp;
+
+        /**
+         * Creates new instance.
+         *
+         * @param annotationName The annotation name.
+         * @param elementName The annotation element name.
+         * @param forbiddenElementValueRegexp The forbidden element value pattern.
+         */
+        /* package */ Rule(String annotationName, String elementName,
+                Pattern forbiddenElementValueRegexp) {
+            this.annotationName = annotationName;
+            this.elementName = elementName;
+            this.forbiddenElementValueRegexp = forbiddenElementValueRegexp;
+        }
+
+    }
+
 }
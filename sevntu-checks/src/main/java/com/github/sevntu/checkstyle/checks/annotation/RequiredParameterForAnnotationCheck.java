@@ -19,6 +19,9 @@
 
 package com.github.sevntu.checkstyle.checks.annotation;
 
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
 
@@ -37,7 +40,10 @@ import com.puppycrawl.tools.checkstyle.api.TokenTypes;
  * <b>annotationName</b> - The name of the target annotation where enforcement of parameter
  * should happen.<br>
  * <b>requiredParameters</b> - Set of parameter names that are required on the target
- * annotation. Names can be specified on any order in target annotation.
+ * annotation. Names can be specified on any order in target annotation.<br>
+ * <b>annotationRules</b> - Table of the target annotations with their required parameters,
+ * separated by "###". Each rule has the form <code>AnnotationName(parameter1, parameter2)</code>.
+ * When this property is set, <b>annotationName</b> and <b>requiredParameters</b> are ignored.
  * </p>
  * <p>
  * <b>Example 1.</b><br>
@@ -93,6 +99,28 @@ import com.puppycrawl.tools.checkstyle.api.TokenTypes;
  * class SomeClass {}
  * </code>
  * </pre>
+ * <p>
+ * <b>Example 3.</b><br>
+ * Configuration:
+ * </p>
+ * <pre>
+ * &lt;module name="RequiredParameterForAnnotation"&gt;
+ *     &lt;property name="annotationRules" value="TheAnnotation(ThePropertyName1)
+ *         ### TheOtherAnnotation(ThePropertyName1, ThePropertyName2)"/&gt;
+ * &lt;/module&gt;
+ * </pre>
+ * <p>
+ * Result:
+ * </p>
+ * <pre>
+ * <code>
+ * {@literal @}TheAnnotation(ThePropertyName2=2) //Violation. ThePropertyName1 missing.
+ * someMethod() {}
+ *
+ * {@literal @}TheOtherAnnotation(ThePropertyName1=1) //Violation. ThePropertyName2 missing.
+ * class SomeClass {}
+ * </code>
+ * </pre>
  *
  * @author <a href="mailto:andrew.uljanenko@gmail.com">Andrew Uljanenko</a>
  * @since 1.13.0
@@ -110,6 +138,21 @@ public class RequiredParameterForAnnotationCheck extends AbstractCheck {
      */
     private final Set<String> requiredParameters = new TreeSet<>();
 
+    /**
+     * Required parameters of the annotations from the rule table.
+     */
+    private final Map<String, Set<String>> annotationRules = new HashMap<>();
+
+    /**
+     * Required parameters of all the annotations we are interested in.
+     */
+    private final Map<String, Set<String>> rules = new HashMap<>();
+
+    /**
+     * Simple names of all the annotations we are interested in.
+     */
+    private final Set<String> simpleNames = new HashSet<>();
+
     /**
      * The annotation name we are interested in.
      */
@@ -133,6 +176,44 @@ public class RequiredParameterForAnnotationCheck extends AbstractCheck {
         }
     }
 
+    /**
+     * The table of annotations with the required parameters.
+     * @param annotationRulesTable set rules, separated by "###"
+     */
+    public void setAnnotationRules(String annotationRulesTable) {
+        annotationRules.clear();
+        for (String rule : annotationRulesTable.trim().split("\\s*###\\s*")) {
+            final int openingParenIndex = rule.indexOf('(');
+            if (openingParenIndex <= 0 || !rule.endsWith(")")) {
+                throw new IllegalArgumentException("Unable to parse annotation rule: " + rule);
+            }
+            final Set<String> parameters = annotationRules.computeIfAbsent(
+                    rule.substring(0, openingParenIndex).trim(), key -> new TreeSet<>());
+            for (String parameter
+                    : rule.substring(openingParenIndex + 1, rule.length() - 1).split(",")) {
+                final String trimmedParameter = parameter.trim();
+                if (!trimmedParameter.isEmpty()) {
+                    parameters.add(trimmedParameter);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void init() {
+        rules.clear();
+        simpleNames.clear();
+        if (!annotationRules.isEmpty()) {
+            rules.putAll(annotationRules);
+        }
+        else if (annotationName != null) {
+            rules.put(annotationName, requiredParameters);
+        }
+        for (String name : rules.keySet()) {
+            simpleNames.add(name.substring(name.lastIndexOf('.') + 1));
+        }
+    }
+
     @Override
     public int[] getDefaultTokens() {
         return new int[] {
@@ -156,29 +237,53 @@ public class RequiredParameterForAnnotationCheck extends AbstractCheck {
     public void visitToken(DetailAST annotationNode) {
         final String annotationNameCheck = getAnnotationName(annotationNode);
 
-        if (annotationNameCheck.equals(this.annotationName)) {
-            final Set<String> missingParameters =
-                    Sets.difference(requiredParameters, getAnnotationParameters(annotationNode));
+        if (annotationNameCheck != null) {
+            final Set<String> annotationRequiredParameters = rules.get(annotationNameCheck);
+
+            if (annotationRequiredParameters != null) {
+                final Set<String> missingParameters = Sets.difference(
+                        annotationRequiredParameters, getAnnotationParameters(annotationNode));
 
-            if (!missingParameters.isEmpty()) {
-                final String missingParametersAsString = Joiner.on(", ").join(missingParameters);
-                log(annotationNode, MSG_KEY, this.annotationName, missingParametersAsString);
+                if (!missingParameters.isEmpty()) {
+                    final String missingParametersAsString =
+                            Joiner.on(", ").join(missingParameters);
+                    log(annotationNode, MSG_KEY, annotationNameCheck, missingParametersAsString);
+                }
             }
         }
     }
 
     /**
-     * Returns full name of an annotation.
+     * Returns full name of an annotation. The dotted name is built only if its
+     * simple name is one of the names we are interested in.
      * @param annotationNode The node to examine.
-     * @return name of an annotation.
+     * @return name of an annotation, or null if the dotted name is not interesting.
      */
-    private static String getAnnotationName(DetailAST annotationNode) {
+    private String getAnnotationName(DetailAST annotationNode) {
         final DetailAST identNode = annotationNode.findFirstToken(TokenTypes.IDENT);
         final String result;
 
         if (identNode == null) {
+            result = getFullAnnotationName(annotationNode);
+        }
+        else {
+            result = identNode.getText();
+        }
+        return result;
+    }
+
+    /**
+     * Returns full name of an annotation with the dotted name, if its simple name
+     * is one of the names we are interested in.
+     * @param annotationNode The node to examine.
+     * @return name of an annotation, or null if it is not interesting.
+     */
+    private String getFullAnnotationName(DetailAST annotationNode) {
+        DetailAST separationDotNode = annotationNode.findFirstToken(TokenTypes.DOT);
+        String result = null;
+
+        if (simpleNames.contains(separationDotNode.getLastChild().getText())) {
             final StringBuilder builder = new StringBuilder();
-            DetailAST separationDotNode = annotationNode.findFirstToken(TokenTypes.DOT);
             while (separationDotNode.getType() == TokenTypes.DOT) {
                 builder.insert(0, '.').insert(1, separationDotNode.getLastChild().getText());
                 separationDotNode = separationDotNode.getFirstChild();
@@ -186,9 +291,6 @@ public class RequiredParameterForAnnotationCheck extends AbstractCheck {
             builder.insert(0, separationDotNode.getText());
             result = builder.toString();
         }
-        else {
-            result = identNode.getText();
-        }
         return result;
     }
 
@@ -198,7 +300,7 @@ public class RequiredParameterForAnnotationCheck extends AbstractCheck {
      * @return name of annotation properties.
      */
     private static Set<String> getAnnotationParameters(DetailAST annotationNode) {
-        final Set<String> annotationParameters = new TreeSet<>();
+        final Set<String> annotationParameters = new HashSet<>();
         DetailAST annotationChildNode = annotationNode.getFirstChild();
 
         while (annotationChildNode != null) {
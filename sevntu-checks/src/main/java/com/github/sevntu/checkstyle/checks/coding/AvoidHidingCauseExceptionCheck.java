@@ -19,8 +19,11 @@
 
 package com.github.sevntu.checkstyle.checks.coding;
 
-import java.util.LinkedList;
-import java.util.List;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
 
 import com.puppycrawl.tools.checkstyle.api.AbstractCheck;
 import com.puppycrawl.tools.checkstyle.api.DetailAST;
@@ -96,157 +99,126 @@ public class AvoidHidingCauseExceptionCheck extends AbstractCheck {
                 .findFirstToken(TokenTypes.PARAMETER_DEF).getLastChild()
                 .getText();
 
-        final List<DetailAST> throwList = makeThrowList(detailAST);
+        final CatchDetails catchDetails = new CatchDetails(originExcName);
+        catchDetails.processChildren(detailAST, null, null, false);
 
-        final List<String> wrapExcNames = new LinkedList<>();
-        wrapExcNames.add(originExcName);
-        wrapExcNames.addAll(makeExceptionsList(detailAST, detailAST,
-                            originExcName));
-
-        for (DetailAST throwAST : throwList) {
-            final List<DetailAST> throwParamNamesList = new LinkedList<>();
-            buildThrowParamNamesList(throwAST, throwParamNamesList);
-            if (!isContainsCaughtExc(throwParamNamesList, wrapExcNames)) {
-                log(throwAST, MSG_KEY, originExcName);
+        for (Map.Entry<DetailAST, Set<String>> entry
+                : catchDetails.throwParamNames.entrySet()) {
+            if (Collections.disjoint(entry.getValue(), catchDetails.wrapExcNames)) {
+                log(entry.getKey(), MSG_KEY, originExcName);
             }
         }
     }
 
     /**
-     * Returns true when aThrowParamNamesList contains caught exception.
-     * @param throwParamNamesList List of throw parameter names.
-     * @param wrapExcNames List of caught exception names.
-     * @return true when aThrowParamNamesList contains caught exception
+     * Details of the current "catch" block, that are collected within a
+     * single traversal of the block.
      */
-    private static boolean isContainsCaughtExc(List<DetailAST> throwParamNamesList,
-                                    List<String> wrapExcNames) {
-        boolean result = false;
-        for (DetailAST currentNode : throwParamNamesList) {
-            if (currentNode.getParent().getType() != TokenTypes.DOT
-                    && wrapExcNames.contains(currentNode.getText())) {
-                result = true;
-                break;
-            }
+    private static final class CatchDetails {
+
+        /** The name of exception handled by current "catch" block. */
+        private final String originExcName;
+
+        /**
+         * Names of the original exception and all exceptions that wraps
+         * the original exception object.
+         */
+        private final Set<String> wrapExcNames = new HashSet<>();
+
+        /**
+         * The <code>LITERAL_THROW</code> nodes outside of nested try/catch blocks,
+         * mapped to the names of identifiers used in them.
+         */
+        private final Map<DetailAST, Set<String>> throwParamNames = new HashMap<>();
+
+        /**
+         * Creates new instance.
+         * @param originExcName The name of exception handled by current "catch" block.
+         */
+        /* package */ CatchDetails(String originExcName) {
+            this.originExcName = originExcName;
+            wrapExcNames.add(originExcName);
         }
-        return result;
-    }
-
-    /**
-     * Returns a List of<code>DetailAST</code> that contains the names of
-     * parameters  for current "throw" keyword.
-     * @param startNode The start node for exception name searching.
-     * @param paramNamesAST The list, that will be contain names of the
-     *     parameters
-     * @return A null-safe list of tokens (<code>DetailAST</code>) contains the
-     *     thrown exception name if it was found or null otherwise.
-     */
-    private List<DetailAST> buildThrowParamNamesList(DetailAST startNode,
-                            List<DetailAST> paramNamesAST) {
-        for (DetailAST currentNode : getChildNodes(startNode)) {
-            if (currentNode.getType() == TokenTypes.IDENT) {
-                paramNamesAST.add(currentNode);
-            }
-
-            if (currentNode.getType() != TokenTypes.PARAMETER_DEF
-                    && currentNode.getType() != TokenTypes.LITERAL_TRY
-                    && currentNode.getNumberOfChildren() > 0) {
-                buildThrowParamNamesList(currentNode, paramNamesAST);
-            }
-        }
-        return paramNamesAST;
-    }
-
-    /**
-     * Recursive method which searches for the <code>LITERAL_THROW</code>
-     * DetailASTs all levels below on the current <code>aParentAST</code> node
-     * without entering into nested try/catch blocks.
-     * @param parentAST A start node for "throw" keyword <code>DetailASTs
-     * </code> searching.
-     * @return null-safe list of <code>LITERAL_THROW</code> literals
-     */
-    private List<DetailAST> makeThrowList(DetailAST parentAST) {
-        final List<DetailAST> throwList = new LinkedList<>();
-        for (DetailAST currentNode : getChildNodes(parentAST)) {
-            if (currentNode.getType() == TokenTypes.LITERAL_THROW) {
-                throwList.add(currentNode);
-            }
 
-            if (currentNode.getType() != TokenTypes.PARAMETER_DEF
-                    && currentNode.getType() != TokenTypes.LITERAL_THROW
-                    && currentNode.getType() != TokenTypes.LITERAL_TRY
-                    && currentNode.getNumberOfChildren() > 0) {
-                throwList.addAll(makeThrowList(currentNode));
+        /**
+         * Recursive method which collects all levels below on the current
+         * <code>parentAST</code> node: the "throw" keywords outside of nested
+         * try/catch blocks, the names used in them and the names of exceptions
+         * that wraps the original exception object.
+         * @param parentAST Current parent node to start search.
+         * @param assignAST The closest <code>ASSIGN</code> node enclosing
+         *     <code>parentAST</code> in the current "catch" block, or null.
+         * @param paramNames The names used in the enclosing "throw" keyword,
+         *     or null if there is no such keyword.
+         * @param insideTry true if <code>parentAST</code> is inside of a nested
+         *     try/catch block.
+         */
+        private void processChildren(DetailAST parentAST, DetailAST assignAST,
+                Set<String> paramNames, boolean insideTry) {
+            for (DetailAST currentNode = parentAST.getFirstChild(); currentNode != null;
+                    currentNode = currentNode.getNextSibling()) {
+                switch (currentNode.getType()) {
+                    case TokenTypes.PARAMETER_DEF:
+                        // parameters are skipped
+                        break;
+                    case TokenTypes.IDENT:
+                        processIdent(currentNode, assignAST, paramNames);
+                        processChildren(currentNode, assignAST, paramNames, insideTry);
+                        break;
+                    case TokenTypes.ASSIGN:
+                        processChildren(currentNode, currentNode, paramNames, insideTry);
+                        break;
+                    case TokenTypes.LITERAL_TRY:
+                        processChildren(currentNode, assignAST, null, true);
+                        break;
+                    case TokenTypes.LITERAL_THROW:
+                        if (insideTry || paramNames != null) {
+                            processChildren(currentNode, assignAST, paramNames, insideTry);
+                        }
+                        else {
+                            final Set<String> throwNames = new HashSet<>();
+                            throwParamNames.put(currentNode, throwNames);
+                            processChildren(currentNode, assignAST, throwNames, false);
+                        }
+                        break;
+                    default:
+                        processChildren(currentNode, assignAST, paramNames, insideTry);
+                        break;
+                }
             }
         }
-        return throwList;
-    }
 
-    /**
-     * Searches for all exceptions that wraps the original exception
-     * object (only in current "catch" block).
-     * @param currentCatchAST A LITERAL_CATCH node of the
-     *     current "catch" block.
-     * @param parentAST Current parent node to start search.
-     * @param currentExcName The name of exception handled by
-     *     current "catch" block.
-     * @return List contains exceptions that wraps the original
-     *     exception object.
-     */
-    private List<String> makeExceptionsList(DetailAST currentCatchAST,
-            DetailAST parentAST, String currentExcName) {
-        final List<String> wrapExcNames = new LinkedList<>();
-
-        for (DetailAST currentNode : getChildNodes(parentAST)) {
-            if (currentNode.getType() == TokenTypes.IDENT
-                    && currentNode.getText().equals(currentExcName)
-                    && currentNode.getParent().getType() != TokenTypes.DOT) {
-                DetailAST temp = currentNode;
-
-                while (!temp.equals(currentCatchAST)
-                        && temp.getType() != TokenTypes.ASSIGN) {
-                    temp = temp.getParent();
+        /**
+         * Saves the name of identifier, if it is used in the "throw" keyword or
+         * assigns the original exception object to another exception.
+         * @param identAST The <code>IDENT</code> node.
+         * @param assignAST The closest <code>ASSIGN</code> node enclosing
+         *     the identifier in the current "catch" block, or null.
+         * @param paramNames The names used in the enclosing "throw" keyword,
+         *     or null if there is no such keyword.
+         */
+        private void processIdent(DetailAST identAST, DetailAST assignAST,
+                Set<String> paramNames) {
+            if (identAST.getParent().getType() != TokenTypes.DOT) {
+                final String name = identAST.getText();
+                if (paramNames != null) {
+                    paramNames.add(name);
                 }
-
-                if (temp.getType() == TokenTypes.ASSIGN) {
-                    DetailAST convertedExc = null;
-                    if (temp.getParent().getType() == TokenTypes.VARIABLE_DEF) {
-                        convertedExc = temp.getParent().findFirstToken(TokenTypes.IDENT);
+                if (assignAST != null && name.equals(originExcName)) {
+                    final DetailAST convertedExc;
+                    if (assignAST.getParent().getType() == TokenTypes.VARIABLE_DEF) {
+                        convertedExc = assignAST.getParent().findFirstToken(TokenTypes.IDENT);
                     }
                     else {
-                        convertedExc = temp.findFirstToken(TokenTypes.IDENT);
+                        convertedExc = assignAST.findFirstToken(TokenTypes.IDENT);
                     }
                     if (convertedExc != null) {
                         wrapExcNames.add(convertedExc.getText());
                     }
                 }
             }
-
-            if (currentNode.getType() != TokenTypes.PARAMETER_DEF
-                    && currentNode.getNumberOfChildren() > 0) {
-                wrapExcNames.addAll(makeExceptionsList(currentCatchAST,
-                        currentNode, currentExcName));
-            }
-        }
-        return wrapExcNames;
-    }
-
-    /**
-     * Gets all the children one level below on the current parent node.
-     * @param node Current parent node.
-     * @return List of children one level below on the current
-     *         parent node (aNode).
-     */
-    private static List<DetailAST> getChildNodes(DetailAST node) {
-        final List<DetailAST> result = new LinkedList<>();
-
-        DetailAST currNode = node.getFirstChild();
-
-        while (currNode != null) {
-            result.add(currNode);
-            currNode = currNode.getNextSibling();
         }
 
-        return result;
     }
 
 }
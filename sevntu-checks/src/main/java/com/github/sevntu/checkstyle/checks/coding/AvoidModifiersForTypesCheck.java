@@ -19,17 +19,15 @@
 
 package com.github.sevntu.checkstyle.checks.coding;
 
-import java.util.HashSet;
-import java.util.LinkedList;
-import java.util.List;
+import java.util.BitSet;
+import java.util.HashMap;
 import java.util.Locale;
-import java.util.Set;
+import java.util.Map;
 import java.util.regex.Pattern;
 
 import com.github.sevntu.checkstyle.SevntuUtil;
 import com.puppycrawl.tools.checkstyle.api.AbstractCheck;
 import com.puppycrawl.tools.checkstyle.api.DetailAST;
-import com.puppycrawl.tools.checkstyle.api.FullIdent;
 import com.puppycrawl.tools.checkstyle.api.TokenTypes;
 import com.puppycrawl.tools.checkstyle.utils.TokenUtil;
 
@@ -157,6 +155,32 @@ public class AvoidModifiersForTypesCheck extends AbstractCheck {
      */
     public static final String MSG_KEY = "avoid.modifiers.for.types";
 
+    /**
+     * Index of the package-private access in the set of forbidden modifiers,
+     * no token has this type.
+     */
+    private static final int PACKAGE_PRIVATE = 0;
+
+    /** Token types of the modifiers which can be forbidden. */
+    private static final BitSet SUPPORTED_MODIFIERS = new BitSet();
+
+    static {
+        SUPPORTED_MODIFIERS.set(TokenTypes.ANNOTATION);
+        SUPPORTED_MODIFIERS.set(TokenTypes.FINAL);
+        SUPPORTED_MODIFIERS.set(TokenTypes.LITERAL_STATIC);
+        SUPPORTED_MODIFIERS.set(TokenTypes.LITERAL_TRANSIENT);
+        SUPPORTED_MODIFIERS.set(TokenTypes.LITERAL_VOLATILE);
+        SUPPORTED_MODIFIERS.set(TokenTypes.LITERAL_PRIVATE);
+        SUPPORTED_MODIFIERS.set(TokenTypes.LITERAL_PROTECTED);
+        SUPPORTED_MODIFIERS.set(TokenTypes.LITERAL_PUBLIC);
+    }
+
+    /**
+     * Forbidden modifiers of the classes checked so far, by class name. Class names repeat
+     * across files, so it is kept for the whole audit.
+     */
+    private final Map<String, BitSet> forbiddenModifiersByClassName = new HashMap<>();
+
     /**
      * Pattern object is used to store the regexp for the names of classes, that
      * could not have 'annotation' modifier.
@@ -408,24 +432,32 @@ public class AvoidModifiersForTypesCheck extends AbstractCheck {
     }
 
     @Override
-    public void visitToken(DetailAST ast) {
-        final String classNameAndPath = getClassNameAndPath(ast);
+    public void init() {
+        forbiddenModifiersByClassName.clear();
+    }
 
-        if (classNameAndPath != null) {
-            final String className = getClassName(classNameAndPath);
+    @Override
+    public void visitToken(DetailAST ast) {
+        final String className = getClassName(ast);
 
-            final Set<Integer> modifiersSet = getModifiers(ast);
+        if (className != null) {
+            final BitSet forbiddenModifiers = getForbiddenModifiers(className);
+            final BitSet modifiersSet = getModifiers(ast);
 
             if (ast.getParent().getType() == TokenTypes.OBJBLOCK
-                    && !modifiersSet.contains(TokenTypes.LITERAL_PUBLIC)
-                    && !modifiersSet.contains(TokenTypes.LITERAL_PROTECTED)
-                    && !modifiersSet.contains(TokenTypes.LITERAL_PRIVATE)
-                    && forbiddenClassesRegexpPackagePrivate.matcher(className).matches()) {
+                    && !modifiersSet.get(TokenTypes.LITERAL_PUBLIC)
+                    && !modifiersSet.get(TokenTypes.LITERAL_PROTECTED)
+                    && !modifiersSet.get(TokenTypes.LITERAL_PRIVATE)
+                    && forbiddenModifiers.get(PACKAGE_PRIVATE)) {
                 log(ast, MSG_KEY, className, "package-private");
             }
 
-            for (int modifierType : modifiersSet) {
-                if (match(modifierType, className)) {
+            for (int modifierType = modifiersSet.nextSetBit(0); modifierType >= 0;
+                    modifierType = modifiersSet.nextSetBit(modifierType + 1)) {
+                if (!SUPPORTED_MODIFIERS.get(modifierType)) {
+                    SevntuUtil.reportInvalidToken(modifierType);
+                }
+                if (forbiddenModifiers.get(modifierType)) {
                     String tokenName = TokenUtil.getTokenName(modifierType);
 
                     // Remove literal prefix and switch to lower case for better readability
@@ -438,69 +470,62 @@ public class AvoidModifiersForTypesCheck extends AbstractCheck {
     }
 
     /**
-     * Checks whether a specific Java modifier is used in a given class with
-     * the specified regular expression.
-     * @param modifierType the modifier type
+     * Gets the modifiers that are forbidden for the class. All patterns are matched only once
+     * for each class name, the results are reused for all following files.
      * @param className the class name
-     * @return either <code>true</code> if the regexp match the className,
-     *     else <code>false</code>
+     * @return the set of token types of the forbidden modifiers, with {@link #PACKAGE_PRIVATE}
+     *     set if the class can't be used for a package-private field.
      */
-    private boolean match(int modifierType, String className) {
-        final Pattern pattern = mapToRegExp(modifierType);
-        return pattern.matcher(className).matches();
+    private BitSet getForbiddenModifiers(String className) {
+        BitSet result = forbiddenModifiersByClassName.get(className);
+
+        if (result == null) {
+            result = new BitSet();
+            setIfMatches(result, PACKAGE_PRIVATE, forbiddenClassesRegexpPackagePrivate, className);
+            setIfMatches(result, TokenTypes.ANNOTATION, forbiddenClassesRegexpAnnotation,
+                    className);
+            setIfMatches(result, TokenTypes.FINAL, forbiddenClassesRegexpFinal, className);
+            setIfMatches(result, TokenTypes.LITERAL_STATIC, forbiddenClassesRegexpStatic,
+                    className);
+            setIfMatches(result, TokenTypes.LITERAL_TRANSIENT, forbiddenClassesRegexpTransient,
+                    className);
+            setIfMatches(result, TokenTypes.LITERAL_VOLATILE, forbiddenClassesRegexpVolatile,
+                    className);
+            setIfMatches(result, TokenTypes.LITERAL_PRIVATE, forbiddenClassesRegexpPrivate,
+                    className);
+            setIfMatches(result, TokenTypes.LITERAL_PROTECTED, forbiddenClassesRegexpProtected,
+                    className);
+            setIfMatches(result, TokenTypes.LITERAL_PUBLIC, forbiddenClassesRegexpPublic,
+                    className);
+            forbiddenModifiersByClassName.put(className, result);
+        }
+
+        return result;
     }
 
     /**
-     * Maps the modifierType to a regular expression.
+     * Marks the modifier as forbidden if the class name matches the pattern.
+     * @param forbiddenModifiers the set of forbidden modifiers to update
      * @param modifierType the modifier type
-     * @return the Pattern object storing the regexp for the names of classes,
-     *     that must not have the modifierType.
+     * @param pattern the regexp for the names of classes, that must not have the modifier
+     * @param className the class name
      */
-    private Pattern mapToRegExp(int modifierType) {
-        Pattern result = null;
-
-        switch (modifierType) {
-            case TokenTypes.ANNOTATION:
-                result = forbiddenClassesRegexpAnnotation;
-                break;
-            case TokenTypes.FINAL:
-                result = forbiddenClassesRegexpFinal;
-                break;
-            case TokenTypes.LITERAL_STATIC:
-                result = forbiddenClassesRegexpStatic;
-                break;
-            case TokenTypes.LITERAL_TRANSIENT:
-                result = forbiddenClassesRegexpTransient;
-                break;
-            case TokenTypes.LITERAL_VOLATILE:
-                result = forbiddenClassesRegexpVolatile;
-                break;
-            case TokenTypes.LITERAL_PRIVATE:
-                result = forbiddenClassesRegexpPrivate;
-                break;
-            case TokenTypes.LITERAL_PROTECTED:
-                result = forbiddenClassesRegexpProtected;
-                break;
-            case TokenTypes.LITERAL_PUBLIC:
-                result = forbiddenClassesRegexpPublic;
-                break;
-            default:
-                SevntuUtil.reportInvalidToken(modifierType);
-                break;
+    private static void setIfMatches(BitSet forbiddenModifiers, int modifierType,
+            Pattern pattern, String className) {
+        if (pattern.matcher(className).matches()) {
+            forbiddenModifiers.set(modifierType);
         }
-
-        return result;
     }
 
     /**
-     * Gets the full className of the defined variable.
+     * Gets the class name of the defined variable.
      * @param variableDefNode
      *        A DetailAST node is related to variable definition (VARIABLE_DEF
      *        node type).
-     * @return String contains the className of the defined variable or null if
-     *         the current processed object is an array of primitive types
+     * @return String contains the class name without path of the defined variable or null if
+     *         the current processed object is an array
      */
-    private static String getClassNameAndPath(DetailAST variableDefNode) {
+    private static String getClassName(DetailAST variableDefNode) {
         String result = null;
         final DetailAST type = variableDefNode.findFirstToken(TokenTypes.TYPE);
         final DetailAST textWithoutDots = type.findFirstToken(TokenTypes.IDENT);
@@ -509,10 +534,7 @@ public class AvoidModifiersForTypesCheck extends AbstractCheck {
             // if there are TokenTypes.DOT nodes in subTree.
             final DetailAST parentDotAST = type.findFirstToken(TokenTypes.DOT);
             if (parentDotAST != null) {
-                final FullIdent dottedPathIdent = FullIdent
-                        .createFullIdentBelow(parentDotAST);
-                final DetailAST nameAST = parentDotAST.getLastChild();
-                result = dottedPathIdent.getText() + "." + nameAST.getText();
+                result = parentDotAST.getLastChild().getText();
             }
         }
         // if subtree doesn`t contain dots.
@@ -523,51 +545,24 @@ public class AvoidModifiersForTypesCheck extends AbstractCheck {
         return result;
     }
 
-    /**
-     * Gets the class name from full (dotted) classPath.
-     * @param classNameAndPath
-     *        - the full (dotted) classPath. Must not be null.
-     * @return the name of the class is specified by the current full name&path.
-     *         Guaranteed to not be null if aClassNameAndPath is not null.
-     */
-    private static String getClassName(final String classNameAndPath) {
-        return classNameAndPath.replaceAll(".+\\.", "");
-    }
-
     /**
      * Gets the modifiers of the defined variable (annotation, public, private, final, static,
      * transient or volatile).
      * @param variableDefAst
      *        A DetailAST node is related to the variable definition
      *        (VARIABLE_DEF type)
-     * @return List of token types is related to the given variable modifiers.
+     * @return Set of token types is related to the given variable modifiers.
      */
-    private static Set<Integer> getModifiers(DetailAST variableDefAst) {
-        final Set<Integer> modifiersSet = new HashSet<>();
+    private static BitSet getModifiers(DetailAST variableDefAst) {
+        final BitSet modifiersSet = new BitSet();
         final DetailAST modifiersAST = variableDefAst
                 .findFirstToken(TokenTypes.MODIFIERS);
-        for (DetailAST modifier : getChildren(modifiersAST)) {
-            modifiersSet.add(modifier.getType());
+        for (DetailAST modifier = modifiersAST.getFirstChild(); modifier != null;
+                modifier = modifier.getNextSibling()) {
+            modifiersSet.set(modifier.getType());
         }
 
         return modifiersSet;
     }
 
-    /**
-     * Gets all the children which are one level below on the current DetailAST
-     * parent node.
-     * @param node
-     *        The parent node.
-     * @return The list of children one level below on the current parent node.
-     */
-    private static List<DetailAST> getChildren(final DetailAST node) {
-        final List<DetailAST> result = new LinkedList<>();
-        DetailAST curNode = node.getFirstChild();
-        while (curNode != null) {
-            result.add(curNode);
-            curNode = curNode.getNextSibling();
-        }
-        return result;
-    }
-
 }
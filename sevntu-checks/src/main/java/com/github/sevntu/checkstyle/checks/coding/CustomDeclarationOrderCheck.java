@@ -21,14 +21,18 @@ package com.github.sevntu.checkstyle.checks.coding;
 
 import java.beans.Introspector;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
 
@@ -241,6 +245,9 @@ public class CustomDeclarationOrderCheck extends AbstractCheck {
             + "MainMethod(.*) ### GetterSetter(.*) ### Method(.*) ### InnerClass(.*) "
             + "### InnerInterface(.*) ### InnerEnum(.*)";
 
+    /** Maximum number of cached signatures of class members of one type. */
+    private static final int MAX_CACHED_SIGNATURES = 4096;
+
     /**
      * Compares line numbers.
      */
@@ -255,6 +262,15 @@ public class CustomDeclarationOrderCheck extends AbstractCheck {
     private final List<FormatMatcher> customOrderDeclaration =
         new ArrayList<>();
 
+    /** Indexes of the rules in the custom order declaration by type of class member. */
+    private final Map<Integer, int[]> rulesByClassMember = new HashMap<>();
+
+    /**
+     * Indexes of the rules which regular expressions match a signature of class member,
+     * by type of class member and the signature.
+     */
+    private final Map<Integer, Map<String, int[]>> matchingRulesCache = new HashMap<>();
+
     /** Save compile flags for further usage. */
     private int compileFlags;
 
@@ -277,6 +293,9 @@ public class CustomDeclarationOrderCheck extends AbstractCheck {
      */
     private final Deque<ClassDetail> classDetails = new LinkedList<>();
 
+    /** Number of METHOD_DEF nodes that enclose the node is currently being processed. */
+    private int methodDepth;
+
     /** Constructor to set default format. */
     public CustomDeclarationOrderCheck() {
         setCustomDeclarationOrder(DEFAULT_DECLARATION);
@@ -290,6 +309,8 @@ public class CustomDeclarationOrderCheck extends AbstractCheck {
      */
     public final void setCustomDeclarationOrder(final String inputOrderDeclaration) {
         customOrderDeclaration.clear();
+        rulesByClassMember.clear();
+        matchingRulesCache.clear();
         for (String currentState : inputOrderDeclaration.split("\\s*###\\s*")) {
             try {
                 customOrderDeclaration
@@ -328,12 +349,13 @@ public class CustomDeclarationOrderCheck extends AbstractCheck {
         for (FormatMatcher currentRule : customOrderDeclaration) {
             currentRule.setCompileFlags(compileFlags);
         }
+        matchingRulesCache.clear();
     }
 
     @Override
     public int[] getDefaultTokens() {
         final int size = customOrderDeclaration.size();
-        final int[] tokenTypes = new int[size + 1];
+        final int[] tokenTypes = new int[size + 2];
 
         for (int i = 0; i < size; i++) {
             final FormatMatcher currentRule = customOrderDeclaration.get(i);
@@ -348,6 +370,7 @@ public class CustomDeclarationOrderCheck extends AbstractCheck {
         }
 
         tokenTypes[size] = TokenTypes.CLASS_DEF;
+        tokenTypes[size + 1] = TokenTypes.METHOD_DEF;
 
         return tokenTypes;
     }
@@ -362,10 +385,15 @@ public class CustomDeclarationOrderCheck extends AbstractCheck {
         return getDefaultTokens();
     }
 
+    @Override
+    public void beginTree(DetailAST rootAST) {
+        methodDepth = 0;
+    }
+
     @Override
     public void visitToken(DetailAST ast) {
         if (ast.getType() == TokenTypes.CLASS_DEF) {
-            if (!isClassDefInMethodDef(ast)) {
+            if (!isClassDefInMethodDef()) {
                 if (checkInnerClasses && !classDetails.isEmpty()) {
                     final int position = getPositionInOrderDeclaration(ast);
 
@@ -382,14 +410,15 @@ public class CustomDeclarationOrderCheck extends AbstractCheck {
                 classDetails.push(new ClassDetail());
             }
         }
-        else {
+        else if (rulesByClassMember.computeIfAbsent(ast.getType(),
+                this::getRulesOfClassMember).length > 0) {
             final DetailAST objBlockAst = ast.getParent();
             if (objBlockAst != null
                 && objBlockAst.getType() == TokenTypes.OBJBLOCK) {
                 final DetailAST classDefAst = objBlockAst.getParent();
 
                 if (classDefAst.getType() == TokenTypes.CLASS_DEF
-                    && !isClassDefInMethodDef(classDefAst)) {
+                    && !isClassDefInMethodDef()) {
                     if (checkGettersSetters) {
                         collectGetterSetter(ast);
                     }
@@ -407,12 +436,18 @@ public class CustomDeclarationOrderCheck extends AbstractCheck {
                 }
             }
         }
+        if (ast.getType() == TokenTypes.METHOD_DEF) {
+            methodDepth++;
+        }
     }
 
     @Override
     public void leaveToken(DetailAST ast) {
-        if (ast.getType() == TokenTypes.CLASS_DEF
-                && !isClassDefInMethodDef(ast)) {
+        if (ast.getType() == TokenTypes.METHOD_DEF) {
+            methodDepth--;
+        }
+        else if (ast.getType() == TokenTypes.CLASS_DEF
+                && !isClassDefInMethodDef()) {
             // -@cs[MoveVariableInsideIf] assignment value is a modification
             // call so it can't be moved
             final ClassDetail classDetail = classDetails.pop();
@@ -494,22 +529,12 @@ public class CustomDeclarationOrderCheck extends AbstractCheck {
     }
 
     /**
-     * Verify that class definition is in method definition.
-     * @param classDef
-     *        DetailAST of CLASS_DEF.
+     * Verify that class definition of the current node is in method definition.
+     * The current node is either CLASS_DEF itself or a member of CLASS_DEF.
      * @return true if class definition is in method definition.
      */
-    private static boolean isClassDefInMethodDef(DetailAST classDef) {
-        boolean result = false;
-        DetailAST currentParentAst = classDef.getParent();
-        while (currentParentAst != null) {
-            if (currentParentAst.getType() == TokenTypes.METHOD_DEF) {
-                result = true;
-                break;
-            }
-            currentParentAst = currentParentAst.getParent();
-        }
-        return result;
+    private boolean isClassDefInMethodDef() {
+        return methodDepth > 0;
     }
 
     /**
@@ -616,35 +641,111 @@ public class CustomDeclarationOrderCheck extends AbstractCheck {
      */
     private int getPositionInOrderDeclaration(final DetailAST ast) {
         int result = -1;
-        final String modifiers = getCombinedModifiersList(ast);
-        for (int index = 0; result != 1 && index < customOrderDeclaration.size(); index++) {
-            final FormatMatcher currentRule = customOrderDeclaration.get(index);
-            if (currentRule.getClassMember() == ast.getType()
-                    && currentRule.getRegexp().matcher(modifiers).find()) {
-                if (currentRule.hasRule(ANON_CLASS_FIELD_MACRO)
-                        || currentRule.hasRule(GETTER_SETTER_MACRO)
-                        || currentRule.hasRule(MAIN_METHOD_MACRO)) {
-                    final String methodName = getIdentifier(ast);
-                    final ClassDetail classDetail = classDetails.peek();
-
-                    if (isAnonymousClassField(ast)
-                            || classDetail.containsGetter(methodName)
-                            || classDetail.containsSetter(methodName)
-                            || isMainMethod(ast)) {
-                        result = index;
-                    }
+        final int[] matchingRules = getMatchingRules(ast);
+        final boolean isSpecialMember = hasSpecialMemberRule(matchingRules)
+                && isSpecialMember(ast);
+        for (int index : matchingRules) {
+            if (result == 1) {
+                break;
+            }
+            if (customOrderDeclaration.get(index).isSpecialMemberRule()) {
+                if (isSpecialMember) {
+                    result = index;
                 }
-                else {
-                    // if more than one rule matches current AST node, then keep first one
-                    if (result == -1) {
-                        result = index;
-                    }
+            }
+            // if more than one rule matches current AST node, then keep first one
+            else if (result == -1) {
+                result = index;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Finds the rules whose class member is the type of the AST and whose regular expression
+     * matches the combined modifiers of the AST. The results are cached by the combined
+     * modifiers, as the same modifiers repeat in many classes.
+     *
+     * @param ast current DetailAST state.
+     * @return indexes of the matching rules in ascending order.
+     */
+    private int[] getMatchingRules(final DetailAST ast) {
+        final String modifiers = getCombinedModifiersList(ast);
+        final Map<String, int[]> cache = matchingRulesCache.computeIfAbsent(ast.getType(),
+            type -> new HashMap<>());
+        int[] result = cache.get(modifiers);
+        if (result == null) {
+            if (cache.size() == MAX_CACHED_SIGNATURES) {
+                cache.clear();
+            }
+            final int[] rules = rulesByClassMember.computeIfAbsent(ast.getType(),
+                this::getRulesOfClassMember);
+            int count = 0;
+            result = new int[rules.length];
+            for (int index : rules) {
+                if (customOrderDeclaration.get(index).getRegexp().matcher(modifiers).find()) {
+                    result[count] = index;
+                    count++;
                 }
             }
+            result = Arrays.copyOf(result, count);
+            cache.put(modifiers, result);
+        }
+        return result;
+    }
+
+    /**
+     * Finds the rules for the type of class member.
+     * @param classMember type of class member.
+     * @return indexes of the rules in ascending order.
+     */
+    private int[] getRulesOfClassMember(int classMember) {
+        final List<Integer> rules = new ArrayList<>();
+        for (int index = 0; index < customOrderDeclaration.size(); index++) {
+            if (customOrderDeclaration.get(index).getClassMember() == classMember) {
+                rules.add(index);
+            }
+        }
+        final int[] result = new int[rules.size()];
+        for (int index = 0; index < result.length; index++) {
+            result[index] = rules.get(index);
+        }
+        return result;
+    }
+
+    /**
+     * Verify that any of the rules is a rule of anonymous class fields, getters and setters
+     * or main methods.
+     * @param rules indexes of the rules.
+     * @return true if any of the rules is a rule of special members.
+     */
+    private boolean hasSpecialMemberRule(int[] rules) {
+        boolean result = false;
+        for (int index : rules) {
+            if (customOrderDeclaration.get(index).isSpecialMemberRule()) {
+                result = true;
+                break;
+            }
         }
         return result;
     }
 
+    /**
+     * Verify that class member is an anonymous class field, a getter, a setter or
+     * a main method.
+     * @param ast current DetailAST state.
+     * @return true if class member is an anonymous class field, a getter, a setter or
+     *         a main method.
+     */
+    private boolean isSpecialMember(final DetailAST ast) {
+        final String methodName = getIdentifier(ast);
+        final ClassDetail classDetail = classDetails.peek();
+        return isAnonymousClassField(ast)
+                || classDetail.containsGetter(methodName)
+                || classDetail.containsSetter(methodName)
+                || isMainMethod(ast);
+    }
+
     /**
      * Verify that there is anonymous class in variable definition and this
      * variable is a field.
@@ -1190,6 +1291,8 @@ public class CustomDeclarationOrderCheck extends AbstractCheck {
         private final String rule;
         /** The string format of the RegExp. */
         private String format;
+        /** Whether the rule is for anonymous class fields, getters and setters or main methods. */
+        private final boolean specialMemberRule;
 
         /**
          * Creates a new <code>FormatMatcher</code> instance.
@@ -1201,6 +1304,9 @@ public class CustomDeclarationOrderCheck extends AbstractCheck {
                 final int classMember) {
             this.classMember = classMember;
             rule = inputRule;
+            specialMemberRule = hasRule(ANON_CLASS_FIELD_MACRO)
+                    || hasRule(GETTER_SETTER_MACRO)
+                    || hasRule(MAIN_METHOD_MACRO);
         }
 
         /**
@@ -1226,6 +1332,15 @@ public class CustomDeclarationOrderCheck extends AbstractCheck {
             return classMember;
         }
 
+        /**
+         * Check that the rule is for anonymous class fields, getters and setters
+         * or main methods, which are matched not only by their modifiers.
+         * @return true if the rule is for special members.
+         */
+        public boolean isSpecialMemberRule() {
+            return specialMemberRule;
+        }
+
         /**
          * Set the compile flags for the regular expression.
          *
@@ -1280,11 +1395,19 @@ public class CustomDeclarationOrderCheck extends AbstractCheck {
         /**
          * List of getter ASTs.
          */
-        private final List<DetailAST> getters = new LinkedList<>();
+        private final List<DetailAST> getters = new ArrayList<>();
         /**
          * List of setter ASTs.
          */
-        private final List<DetailAST> setters = new LinkedList<>();
+        private final List<DetailAST> setters = new ArrayList<>();
+        /**
+         * Names of getters.
+         */
+        private final Set<String> getterNames = new HashSet<>();
+        /**
+         * Names of setters.
+         */
+        private final Set<String> setterNames = new HashSet<>();
 
         public int getCurrentPosition() {
             return currentPosition;
@@ -1300,6 +1423,7 @@ public class CustomDeclarationOrderCheck extends AbstractCheck {
          */
         public void addGetter(DetailAST getterAst) {
             getters.add(getterAst);
+            getterNames.add(getIdentifier(getterAst));
         }
 
         /**
@@ -1308,6 +1432,7 @@ public class CustomDeclarationOrderCheck extends AbstractCheck {
          */
         public void addSetter(DetailAST setterAst) {
             setters.add(setterAst);
+            setterNames.add(getIdentifier(setterAst));
         }
 
         /**
@@ -1324,56 +1449,59 @@ public class CustomDeclarationOrderCheck extends AbstractCheck {
                 // sort by line numbers
                 Collections.sort(allGettersSetters, AST_LINE_COMPARATOR);
 
+                final Map<String, List<Integer>> setterIndexes =
+                        getSetterIndexesByField(allGettersSetters);
                 for (int i = 0; i < allGettersSetters.size(); i++) {
-                    result.putAll(getWrongOrderedGettersSetters(allGettersSetters, i));
+                    final DetailAST getterAst = allGettersSetters.get(i);
+                    final List<Integer> indexes = setterIndexes.get(getGetterField(getterAst));
+                    if (indexes != null) {
+                        // the setter should be the sibling of the getter
+                        for (int index : indexes) {
+                            if (index != i + 1) {
+                                result.put(allGettersSetters.get(index), getterAst);
+                                break;
+                            }
+                        }
+                    }
                 }
             }
             return result;
         }
 
         /**
-         * Compare order of getters and setters. Order should be like "getX; setX; getY; setY; ...".
-         * If it is wrong order, then wrong ordered setters and getters will be returned as map.
-         * @param allGettersSetters collection of all getter and setters
-         * @param index index from upper loo
-         * @return Map with setter AST as key and getter AST as value.
+         * Collects positions of setters in the list of getters and setters by the names of
+         * their fields.
+         * @param allGettersSetters getters and setters sorted by line numbers.
+         * @return Map with field name as key and ascending setter positions as value.
+         */
+        private static Map<String, List<Integer>> getSetterIndexesByField(
+                List<DetailAST> allGettersSetters) {
+            final Map<String, List<Integer>> result = new HashMap<>();
+            for (int i = 0; i < allGettersSetters.size(); i++) {
+                final String setterName = getIdentifier(allGettersSetters.get(i));
+                if (isSetterName(setterName)) {
+                    result.computeIfAbsent(getNameWithoutPrefix(setterName, SETTER_PREFIX),
+                        field -> new ArrayList<>()).add(i);
+                }
+            }
+            return result;
+        }
+
+        /**
+         * Get name of the field of the getter.
+         * @param getterAst DetailAST of getter or setter.
+         * @return name of the field or null if it is not a getter.
          */
-        private static Map<DetailAST, DetailAST> getWrongOrderedGettersSetters(
-                List<DetailAST> allGettersSetters, int index) {
-            final DetailAST getterAst = allGettersSetters.get(index);
+        private static String getGetterField(DetailAST getterAst) {
             final String getterName = getIdentifier(getterAst);
             String getterField = null;
             if (isGetterName(getterName)) {
-                getterField = getNameWithoutPrefix(getIdentifier(getterAst), GETTER_PREFIX);
+                getterField = getNameWithoutPrefix(getterName, GETTER_PREFIX);
             }
             else if (isBooleanGetterName(getterName)) {
-                getterField = getNameWithoutPrefix(getIdentifier(getterAst),
-                        BOOLEAN_GETTER_PREFIX);
-            }
-            final Map<DetailAST, DetailAST> result = new LinkedHashMap<>();
-
-            if (getterField != null) {
-                // review rest of the list to find a proper setter
-                for (int j = 0; j < allGettersSetters.size(); j++) {
-                    if (index != j) {
-                        // method is NOT getter
-                        final DetailAST setterAst = allGettersSetters.get(j);
-                        final String setterName = getIdentifier(setterAst);
-                        if (isSetterName(setterName)) {
-                            final String setterField = getNameWithoutPrefix(
-                                    getIdentifier(setterAst), SETTER_PREFIX);
-
-                            // if fields are same and setter is sibling with getter
-                            if (j != index + 1
-                                    && getterField.equals(setterField)) {
-                                result.put(setterAst, getterAst);
-                                break;
-                            }
-                        }
-                    }
-                }
+                getterField = getNameWithoutPrefix(getterName, BOOLEAN_GETTER_PREFIX);
             }
-            return result;
+            return getterField;
         }
 
         /**
@@ -1382,14 +1510,7 @@ public class CustomDeclarationOrderCheck extends AbstractCheck {
          * @return true if specified method was saved as getter.
          */
         private boolean containsGetter(String methodName) {
-            boolean result = false;
-            for (DetailAST methodAst: getters) {
-                final String name = getIdentifier(methodAst);
-                if (name.equals(methodName)) {
-                    result = true;
-                }
-            }
-            return result;
+            return getterNames.contains(methodName);
         }
 
         /**
@@ -1398,14 +1519,7 @@ public class CustomDeclarationOrderCheck extends AbstractCheck {
          * @return true if specified method was saved as setter.
          */
         private boolean containsSetter(String methodName) {
-            boolean result = false;
-            for (DetailAST methodAst: setters) {
-                final String name = getIdentifier(methodAst);
-                if (name.equals(methodName)) {
-                    result = true;
-                }
-            }
-            return result;
+            return setterNames.contains(methodName);
         }
 
     }
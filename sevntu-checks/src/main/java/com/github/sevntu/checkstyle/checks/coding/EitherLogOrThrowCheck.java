@@ -19,11 +19,11 @@
 
 package com.github.sevntu.checkstyle.checks.coding;
 
-import java.util.ArrayList;
+import java.util.ArrayDeque;
 import java.util.Arrays;
-import java.util.LinkedList;
-import java.util.List;
-import java.util.regex.Pattern;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Set;
 
 import com.github.sevntu.checkstyle.SevntuUtil;
 import com.puppycrawl.tools.checkstyle.api.AbstractCheck;
@@ -128,21 +128,21 @@ public class EitherLogOrThrowCheck extends AbstractCheck {
     public static final String MSG_KEY = "either.log.or.throw";
 
     /**
-     * Regexp of printStackTrace method.
+     * Suffix of printStackTrace method call.
      */
-    private static final Pattern PRINT_STACK_TRACE_METHOD_PATTERN = Pattern
-            .compile(".+\\.printStackTrace");
+    private static final String PRINT_STACK_TRACE_METHOD_SUFFIX = ".printStackTrace";
 
     /**
-     * Variables names of logger variables.
+     * Variables names of logger fields of the current class.
      */
-    private final List<String> loggerFieldNames = new LinkedList<>();
+    private final Set<String> loggerFieldNames = new HashSet<>();
 
     /**
-     * Current local variable names of logger type. It can be method's parameter
-     * or method's local variable.
+     * Stack of local variable names of logger type. The bottom scope holds
+     * method's parameters and method's local variables, the upper scopes hold
+     * local variables of the enclosing <code>catch</code> blocks.
      */
-    private final List<String> currentLocalLoggerVariableNames = new ArrayList<>();
+    private final Deque<Set<String>> localLoggerVariableNames = new ArrayDeque<>();
 
     /**
      * Logger fully qualified class name.
@@ -157,8 +157,8 @@ public class EitherLogOrThrowCheck extends AbstractCheck {
     /**
      * Logger method names.
      */
-    private List<String> loggingMethodNames =
-            Arrays.asList("error", "warn", "info", "debug");
+    private Set<String> loggingMethodNames =
+            new HashSet<>(Arrays.asList("error", "warn", "info", "debug"));
 
     /**
      * Logger class is in imports.
@@ -197,7 +197,7 @@ public class EitherLogOrThrowCheck extends AbstractCheck {
      * @param loggingMethodNames Logger method names.
      */
     public void setLoggingMethodNames(String... loggingMethodNames) {
-        this.loggingMethodNames = Arrays.asList(loggingMethodNames);
+        this.loggingMethodNames = new HashSet<>(Arrays.asList(loggingMethodNames));
     }
 
     @Override
@@ -220,6 +220,15 @@ public class EitherLogOrThrowCheck extends AbstractCheck {
         return getDefaultTokens();
     }
 
+    @Override
+    public void beginTree(DetailAST rootAST) {
+        hasLoggerClassInImports = false;
+        currentClassDefAst = null;
+        currentMethodDefAst = null;
+        loggerFieldNames.clear();
+        localLoggerVariableNames.clear();
+    }
+
     @Override
     public void visitToken(final DetailAST ast) {
         switch (ast.getType()) {
@@ -232,13 +241,14 @@ public class EitherLogOrThrowCheck extends AbstractCheck {
             case TokenTypes.CLASS_DEF:
                 if (!isInnerClass(ast)) {
                     currentClassDefAst = ast;
+                    loggerFieldNames.clear();
                     collectLoggerFieldNames(ast);
                 }
                 break;
             case TokenTypes.METHOD_DEF:
                 if (isMethodOfCurrentClass(ast)) {
                     currentMethodDefAst = ast;
-                    currentLocalLoggerVariableNames.clear();
+                    localLoggerVariableNames.push(new HashSet<>());
                     final DetailAST parametersAst = currentMethodDefAst
                         .findFirstToken(TokenTypes.PARAMETERS);
                     collectLoggersFromParameters(parametersAst);
@@ -249,10 +259,11 @@ public class EitherLogOrThrowCheck extends AbstractCheck {
                 if (methodDefAst == currentMethodDefAst
                     && methodDefAst.getType() == TokenTypes.METHOD_DEF
                     && isLoggerVariableDefinition(ast)) {
-                    currentLocalLoggerVariableNames.add(getIdentifier(ast));
+                    localLoggerVariableNames.peek().add(getIdentifier(ast));
                 }
                 break;
             case TokenTypes.LITERAL_CATCH:
+                localLoggerVariableNames.push(new HashSet<>());
                 processCatchNode(ast);
                 break;
             default:
@@ -261,6 +272,24 @@ public class EitherLogOrThrowCheck extends AbstractCheck {
         }
     }
 
+    @Override
+    public void leaveToken(DetailAST ast) {
+        switch (ast.getType()) {
+            case TokenTypes.METHOD_DEF:
+                if (ast == currentMethodDefAst) {
+                    currentMethodDefAst = null;
+                    localLoggerVariableNames.pop();
+                }
+                break;
+            case TokenTypes.LITERAL_CATCH:
+                localLoggerVariableNames.pop();
+                break;
+            default:
+                // rest tokens have no scope
+                break;
+        }
+    }
+
     /**
      * Checks if AST object is logger import.
      * @param importAst
@@ -305,7 +334,7 @@ public class EitherLogOrThrowCheck extends AbstractCheck {
                     .findFirstToken(TokenTypes.TYPE);
             final String className = getIdentifier(parameterTypeAst);
             if (className != null && isLoggerClassName(className)) {
-                currentLocalLoggerVariableNames
+                localLoggerVariableNames.peek()
                         .add(getIdentifier(currentParameterAst));
             }
             currentParameterAst = currentParameterAst.getNextSibling();
@@ -349,10 +378,10 @@ public class EitherLogOrThrowCheck extends AbstractCheck {
      *        DetailAST of catch block.
      */
     private void processCatchNode(final DetailAST catchAst) {
-        boolean isLoggingExceptionFound = false;
         DetailAST loggingExceptionAst = null;
-        final List<String> exceptionVariableNames = new LinkedList<>();
+        final Set<String> exceptionVariableNames = new HashSet<>();
         final String catchParameterName = getCatchParameterName(catchAst);
+        exceptionVariableNames.add(catchParameterName);
         final DetailAST statementsAst =
                 catchAst.findFirstToken(TokenTypes.SLIST);
         DetailAST currentStatementAst = statementsAst.getFirstChild();
@@ -361,7 +390,7 @@ public class EitherLogOrThrowCheck extends AbstractCheck {
                 // local logger or exception variable definition
                 case TokenTypes.VARIABLE_DEF:
                     if (isLoggerVariableDefinition(currentStatementAst)) {
-                        currentLocalLoggerVariableNames
+                        localLoggerVariableNames.peek()
                             .add(getIdentifier(currentStatementAst));
                     }
                     else {
@@ -378,24 +407,21 @@ public class EitherLogOrThrowCheck extends AbstractCheck {
                     break;
                     // logging exception or printStackTrace
                 case TokenTypes.EXPR:
-                    if (!isLoggingExceptionFound
-                        && (isLoggingExceptionArgument(currentStatementAst, catchParameterName)
-                        || isPrintStackTrace(currentStatementAst, catchParameterName))) {
-                        isLoggingExceptionFound = true;
+                    if (loggingExceptionAst == null
+                        && isLoggingException(currentStatementAst, catchParameterName)) {
                         loggingExceptionAst = currentStatementAst;
                     }
                     break;
                     // throw exception
                 case TokenTypes.LITERAL_THROW:
-                    if (isLoggingExceptionFound) {
-                        exceptionVariableNames.add(catchParameterName);
+                    if (loggingExceptionAst != null) {
                         final DetailAST thrownExceptionAst = currentStatementAst
                             .getFirstChild();
                         if (exceptionVariableNames.contains(getIdentifier(thrownExceptionAst))
                             || isInstanceCreationBasedOnException(
                                 thrownExceptionAst, catchParameterName)) {
                             log(loggingExceptionAst, MSG_KEY);
-                            break;
+                            currentStatementAst = null;
                         }
                     }
                     break;
@@ -403,7 +429,9 @@ public class EitherLogOrThrowCheck extends AbstractCheck {
                     // rest tokens shall be skipped
                     break;
             }
-            currentStatementAst = currentStatementAst.getNextSibling();
+            if (currentStatementAst != null) {
+                currentStatementAst = currentStatementAst.getNextSibling();
+            }
         }
     }
 
@@ -489,46 +517,49 @@ public class EitherLogOrThrowCheck extends AbstractCheck {
     }
 
     /**
-     * Verify that expression is logging exception.
+     * Verify that expression is logging exception or is call of exception's
+     * printStackTrace method.
      * @param expressionAst DetailAST of expression(EXPR).
      * @param exceptionVariableName name of exception variable.
-     * @return true if expression is logging exception.
+     * @return true if expression is logging exception or printing its stack trace.
      */
-    private boolean isLoggingExceptionArgument(
+    private boolean isLoggingException(
             final DetailAST expressionAst, final String exceptionVariableName) {
         boolean result = false;
-        if (isLoggingExpression(expressionAst)) {
-            final DetailAST loggingMethodCallAst =
-                    expressionAst.getFirstChild();
-            final DetailAST loggerParametersAst =
-                    loggingMethodCallAst.findFirstToken(TokenTypes.ELIST);
-            result = containsExceptionParameter(
-                    loggerParametersAst, exceptionVariableName);
+        final DetailAST methodCallAst = expressionAst.getFirstChild();
+        if (methodCallAst.getType() == TokenTypes.METHOD_CALL
+                && methodCallAst.getFirstChild().getType() == TokenTypes.DOT) {
+            final DetailAST loggerObjectAst = methodCallAst.getFirstChild().getFirstChild();
+            final String invokedMethodIdentifier = loggerObjectAst.getNextSibling().getText();
+            if (loggingMethodNames.contains(invokedMethodIdentifier)
+                    && isLoggerName(FullIdent.createFullIdent(loggerObjectAst).getText())) {
+                result = containsExceptionParameter(
+                        methodCallAst.findFirstToken(TokenTypes.ELIST), exceptionVariableName);
+            }
+            if (!result) {
+                final String methodCallIdent =
+                        FullIdent.createFullIdentBelow(methodCallAst).getText();
+                result = methodCallIdent.endsWith(PRINT_STACK_TRACE_METHOD_SUFFIX)
+                        && isInstanceMethodCall(exceptionVariableName, methodCallIdent);
+            }
         }
         return result;
     }
 
     /**
-     * Verify that aExpressionAst is a logging expression.
-     * @param expressionAst
-     *        DetailAST of expression.
-     * @return true if aExpressionAst is a logging expression.
+     * Verify that variable name is the name of logger field or local logger variable.
+     * @param variableName name of variable.
+     * @return true if variable is logger.
      */
-    private boolean isLoggingExpression(final DetailAST expressionAst) {
-        boolean result = false;
-        final DetailAST methodCallAst = expressionAst.getFirstChild();
-        if (methodCallAst.getType() == TokenTypes.METHOD_CALL
-                && hasChildToken(methodCallAst, TokenTypes.DOT)) {
-            final DetailAST dotAst = methodCallAst.getFirstChild();
-            final DetailAST loggerObjectAst = dotAst.getFirstChild();
-            final DetailAST invokedMethodAst = loggerObjectAst.getNextSibling();
-            final String loggerObjectIdentifier =
-                    FullIdent.createFullIdent(loggerObjectAst).getText();
-            final String invokedMethodIdentifier = invokedMethodAst.getText();
-            result = (currentLocalLoggerVariableNames
-                    .contains(loggerObjectIdentifier)
-                    || loggerFieldNames.contains(loggerObjectIdentifier))
-                    && loggingMethodNames.contains(invokedMethodIdentifier);
+    private boolean isLoggerName(final String variableName) {
+        boolean result = loggerFieldNames.contains(variableName);
+        if (!result) {
+            for (Set<String> scope : localLoggerVariableNames) {
+                if (scope.contains(variableName)) {
+                    result = true;
+                    break;
+                }
+            }
         }
         return result;
     }
@@ -560,28 +591,6 @@ public class EitherLogOrThrowCheck extends AbstractCheck {
         return result;
     }
 
-    /**
-     * Verify that expression is call of exception's printStackTrace method.
-     * @param expressionAst
-     *        DetailAST of expression.
-     * @param exceptionVariableName
-     *        name of exception variable.
-     * @return true if expression is call of exception's printStackTrace method.
-     */
-    private static boolean isPrintStackTrace(final DetailAST expressionAst,
-            final String exceptionVariableName) {
-        boolean result = false;
-        final DetailAST methodCallAst = expressionAst.getFirstChild();
-        if (isInstanceMethodCall(exceptionVariableName, methodCallAst)) {
-            final String methodCallStr =
-                    FullIdent.createFullIdentBelow(methodCallAst).getText();
-            if (PRINT_STACK_TRACE_METHOD_PATTERN.matcher(methodCallStr).matches()) {
-                result = true;
-            }
-        }
-        return result;
-    }
-
     /**
      * Verify that method is invoked on aUsedInstanceName.
      * @param usedInstanceName name of instance.
@@ -590,33 +599,23 @@ public class EitherLogOrThrowCheck extends AbstractCheck {
      */
     private static boolean isInstanceMethodCall(final String usedInstanceName,
             final DetailAST methodCallAst) {
-        boolean result = false;
-        if (methodCallAst != null
-                && methodCallAst.getType() == TokenTypes.METHOD_CALL) {
-            final String methodCallIdent =
-                    FullIdent.createFullIdentBelow(methodCallAst).getText();
-            final int firstDotIndex = methodCallIdent.indexOf('.');
-            if (firstDotIndex != -1) {
-                final String usedObjectName =
-                        methodCallIdent.substring(0, firstDotIndex);
-                if (usedObjectName.equals(usedInstanceName)) {
-                    result = true;
-                }
-            }
-        }
-        return result;
+        return methodCallAst != null
+                && methodCallAst.getType() == TokenTypes.METHOD_CALL
+                && isInstanceMethodCall(usedInstanceName,
+                        FullIdent.createFullIdentBelow(methodCallAst).getText());
     }
 
     /**
-     * Return true if aAST has token of aTokenType type.
-     * @param ast
-     *        DetailAST instance.
-     * @param tokenType
-     *        one of TokenTypes
-     * @return true if aAST has token of given type, or false otherwise.
+     * Verify that method is invoked on aUsedInstanceName.
+     * @param usedInstanceName name of instance.
+     * @param methodCallIdent full identifier of the invoked method.
+     * @return true if method is invoked on aUsedInstanceName.
      */
-    private static boolean hasChildToken(final DetailAST ast, int tokenType) {
-        return ast.findFirstToken(tokenType) != null;
+    private static boolean isInstanceMethodCall(final String usedInstanceName,
+            final String methodCallIdent) {
+        final int firstDotIndex = methodCallIdent.indexOf('.');
+        return firstDotIndex != -1
+                && methodCallIdent.substring(0, firstDotIndex).equals(usedInstanceName);
     }
 
 }
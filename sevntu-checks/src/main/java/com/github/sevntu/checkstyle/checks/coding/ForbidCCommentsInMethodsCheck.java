@@ -20,10 +20,14 @@
 package com.github.sevntu.checkstyle.checks.coding;
 
 import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.Deque;
+import java.util.List;
 
 import com.puppycrawl.tools.checkstyle.api.AbstractCheck;
 import com.puppycrawl.tools.checkstyle.api.DetailAST;
+import com.puppycrawl.tools.checkstyle.api.TextBlock;
 import com.puppycrawl.tools.checkstyle.api.TokenTypes;
 
 /**
@@ -31,6 +35,13 @@ import com.puppycrawl.tools.checkstyle.api.TokenTypes;
  * This check forbid to use C style comments into the method body. If you use
  * class declaration into the method body you will get an error.
  * </p>
+ * <p>
+ * By default comments are found as nodes of the syntax tree, which requires an
+ * additional pass of the tree walker with comment nodes. When
+ * <b>useCommentNodes</b> is set to false, comments are taken from the file
+ * contents and matched against method bodies by their positions instead, so
+ * the additional pass is not needed.
+ * </p>
  * @author <a href="mailto:IliaDubinin91@gmail.com">Ilia Dubinin</a>
  * @since 1.6.0
  */
@@ -47,13 +58,41 @@ public class ForbidCCommentsInMethodsCheck extends AbstractCheck {
     /** Reference to current token being tracked. */
     private DetailAST methodAst;
 
+    /** Whether comments are found as nodes of the syntax tree. */
+    private boolean useCommentNodes = true;
+
+    /** Block comments of the file in order of their positions. */
+    private final List<TextBlock> comments = new ArrayList<>();
+
+    /** Index of the first comment which is not checked yet. */
+    private int nextComment;
+
+    /**
+     * Sets whether comments are found as nodes of the syntax tree or taken
+     * from the file contents.
+     * @param useCommentNodes true to find comments as nodes of the syntax tree.
+     */
+    public void setUseCommentNodes(boolean useCommentNodes) {
+        this.useCommentNodes = useCommentNodes;
+    }
+
     @Override
     public int[] getDefaultTokens() {
-        return new int[] {
-            TokenTypes.METHOD_DEF,
-            TokenTypes.OBJBLOCK,
-            TokenTypes.BLOCK_COMMENT_BEGIN,
-        };
+        final int[] result;
+        if (useCommentNodes) {
+            result = new int[] {
+                TokenTypes.METHOD_DEF,
+                TokenTypes.OBJBLOCK,
+                TokenTypes.BLOCK_COMMENT_BEGIN,
+            };
+        }
+        else {
+            result = new int[] {
+                TokenTypes.METHOD_DEF,
+                TokenTypes.OBJBLOCK,
+            };
+        }
+        return result;
     }
 
     @Override
@@ -66,18 +105,32 @@ public class ForbidCCommentsInMethodsCheck extends AbstractCheck {
         return getDefaultTokens();
     }
 
+    // -@cs[SimpleAccessorNameNotation] Overrides method from the base class.
+    // Issue: https://github.com/sevntu-checkstyle/sevntu.checkstyle/issues/166
     @Override
     public boolean isCommentNodesRequired() {
-        return true;
+        return useCommentNodes;
     }
 
     @Override
     public void beginTree(DetailAST rootAST) {
         methodAst = rootAST;
+        comments.clear();
+        nextComment = 0;
+        if (!useCommentNodes) {
+            for (List<TextBlock> lineComments : getFileContents().getBlockComments().values()) {
+                comments.addAll(lineComments);
+            }
+            comments.sort(Comparator.comparingInt(TextBlock::getStartLineNo)
+                    .thenComparingInt(TextBlock::getStartColNo));
+        }
     }
 
     @Override
     public void visitToken(DetailAST ast) {
+        if (!useCommentNodes) {
+            checkComments(getScopeStart(ast));
+        }
         scopeStack.push(methodAst);
 
         switch (ast.getType()) {
@@ -101,7 +154,74 @@ public class ForbidCCommentsInMethodsCheck extends AbstractCheck {
 
     @Override
     public void leaveToken(DetailAST ast) {
+        if (!useCommentNodes) {
+            checkComments(getScopeEnd(ast));
+        }
         methodAst = scopeStack.pop();
     }
 
+    /**
+     * Checks the comments placed before the given token, they belong to the
+     * current scope. Comments are forbidden if the scope is a method body.
+     * @param limit the token which ends the checked comments.
+     */
+    private void checkComments(DetailAST limit) {
+        while (nextComment < comments.size()
+                && isBefore(comments.get(nextComment), limit)) {
+            if (methodAst.getType() == TokenTypes.METHOD_DEF) {
+                final TextBlock comment = comments.get(nextComment);
+                log(comment.getStartLineNo(), comment.getStartColNo(), MSG_KEY);
+            }
+            nextComment++;
+        }
+    }
+
+    /**
+     * Gets the token before which comments don't belong to the given scope.
+     * Comments of a method before its body are not checked, so they are left
+     * to the enclosing scope. Comments between the previous token and the
+     * opening brace of a class body belong to the class body.
+     * @param ast the METHOD_DEF or OBJBLOCK token.
+     * @return the token which starts the scope.
+     */
+    private static DetailAST getScopeStart(DetailAST ast) {
+        DetailAST result;
+        if (ast.getType() == TokenTypes.METHOD_DEF) {
+            result = ast.getLastChild();
+        }
+        else {
+            result = ast.getPreviousSibling();
+            while (result.getLastChild() != null) {
+                result = result.getLastChild();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Gets the token before which comments belong to the given scope, it is
+     * the closing brace of the body or the semicolon of a method without body.
+     * @param ast the METHOD_DEF or OBJBLOCK token.
+     * @return the last token of the scope.
+     */
+    private static DetailAST getScopeEnd(DetailAST ast) {
+        DetailAST result = ast.getLastChild();
+        if (result.getType() == TokenTypes.SLIST) {
+            result = result.getLastChild();
+        }
+        return result;
+    }
+
+    /**
+     * Checks that the comment starts before the given token.
+     * @param comment the comment.
+     * @param ast the token.
+     * @return true, if the comment starts before the token.
+     */
+    private static boolean isBefore(TextBlock comment, DetailAST ast) {
+        return comment.getStartLineNo() < ast.getLineNo()
+                || comment.getStartLineNo() == ast.getLineNo()
+                    && comment.getStartColNo() < ast.getColumnNo();
+    }
+
 }
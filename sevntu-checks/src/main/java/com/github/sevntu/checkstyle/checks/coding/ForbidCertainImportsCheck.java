@@ -21,6 +21,7 @@ package com.github.sevntu.checkstyle.checks.coding;
 
 import java.util.regex.Pattern;
 
+import com.github.sevntu.checkstyle.RegexpMatchCache;
 import com.github.sevntu.checkstyle.SevntuUtil;
 import com.puppycrawl.tools.checkstyle.api.AbstractCheck;
 import com.puppycrawl.tools.checkstyle.api.DetailAST;
@@ -88,6 +89,11 @@ public class ForbidCertainImportsCheck extends AbstractCheck {
      */
     private boolean packageMatches;
 
+    /**
+     * Results of matching package names and imports against the patterns.
+     */
+    private final RegexpMatchCache matchCache = new RegexpMatchCache();
+
     /**
      * Sets the regexp for matching package fully qualified name.
      * @param packageNameRegexp
@@ -161,8 +167,8 @@ public class ForbidCertainImportsCheck extends AbstractCheck {
             case TokenTypes.PACKAGE_DEF:
                 if (packageNamesRegexp != null) {
                     final String packageQualifiedName = getText(ast);
-                    packageMatches = packageNamesRegexp.matcher(packageQualifiedName)
-                        .matches();
+                    packageMatches = matchCache.matches(packageNamesRegexp,
+                        packageQualifiedName);
                 }
                 break;
             case TokenTypes.IMPORT:
@@ -194,9 +200,9 @@ public class ForbidCertainImportsCheck extends AbstractCheck {
     private boolean isImportForbidden(String importText) {
         return packageMatches
                 && forbiddenImportsRegexp != null
-                && forbiddenImportsRegexp.matcher(importText).matches()
+                && matchCache.matches(forbiddenImportsRegexp, importText)
                 && (forbiddenImportsExcludesRegexp == null
-                    || !forbiddenImportsExcludesRegexp.matcher(importText).matches());
+                    || !matchCache.matches(forbiddenImportsExcludesRegexp, importText));
     }
 
     /**
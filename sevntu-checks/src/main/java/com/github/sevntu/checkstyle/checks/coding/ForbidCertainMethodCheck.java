@@ -21,10 +21,13 @@ package com.github.sevntu.checkstyle.checks.coding;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import com.github.sevntu.checkstyle.RegexpMatchCache;
 import com.github.sevntu.checkstyle.SevntuUtil;
 import com.puppycrawl.tools.checkstyle.api.AbstractCheck;
 import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
@@ -47,6 +50,11 @@ import com.puppycrawl.tools.checkstyle.utils.CommonUtil;
  * When blank or unspecified, all the methods are allowed.</li>
  * <li><b>argumentCount</b> - Number or range to match number of arguments the method takes.
  * Multiple numbers/ranges must be comma separated. When unspecified, defaults to "0-".
+ * <li><b>methodRules</b> - Table of forbidden methods, separated by "###". Each rule has the
+ * form <code>methodName:argumentCount</code>, where both parts have the same meaning as the
+ * properties above. The argument count part is optional and defaults to "0-", it is required
+ * when the method name regex itself contains ':'. When this property is set,
+ * <b>methodName</b> and <b>argumentCount</b> are ignored.</li>
  * </ul>
  *
  * <p>An example configuration:
@@ -76,6 +84,17 @@ import com.puppycrawl.tools.checkstyle.utils.CommonUtil;
  * </pre>
  *
  * <p>
+ * Many methods are better forbidden by a single instance of the check, which finds the rules
+ * for a method name by a single lookup instead of matching every rule in turn:
+ * </p>
+ * <pre>
+ * &lt;module name="ForbidCertainMethodCheck"&gt;
+ *    &lt;property name="methodRules"
+ *        value="exit ### assert(True|False):1 ### assertEquals:2 ### asList:-3, 5-7, 9-"/&gt;
+ * &lt;/module&gt;
+ * </pre>
+ *
+ * <p>
  * Note: The check only matches method name. Matching on class/object of the
  * method is not done. For e.g. there is no way to forbid only "System.exit()". You can match
  * by methodName="exit", but beware that it will violate "System.exit()" and "MySystem.exit()",
@@ -91,16 +110,46 @@ public class ForbidCertainMethodCheck extends AbstractCheck {
     public static final String MSG_KEY = "forbid.certain.method";
     /** Regex for splitting string on comma. */
     private static final Pattern COMMA_REGEX = Pattern.compile(",");
+    /** Range for any number of arguments. */
+    private static final String ANY_ARGUMENT_COUNT = "0-";
+    /** Regex for splitting the table of rules. */
+    private static final Pattern RULE_SEPARATOR_REGEX = Pattern.compile("\\s*###\\s*");
+    /** Regex for method names which are matched literally. */
+    private static final Pattern LITERAL_NAME_REGEX = Pattern.compile("\\w+");
+    /**
+     * Regex for method name regexes with backreferences or named groups, which would refer to
+     * other groups or clash with the groups of other regexes in an alternation.
+     */
+    private static final Pattern BACKREFERENCE_REGEX =
+        Pattern.compile("\\\\(?:[1-9]|k<)|\\(\\?<[a-zA-Z]");
 
     /** Name of the method. */
     private Pattern methodName = CommonUtil.createPattern("^$");
 
     /** Range for number of arguments. */
-    private String argumentCount = "0-";
+    private String argumentCount = ANY_ARGUMENT_COUNT;
     /** Range objects for matching number of arguments. */
     private final List<IntRange> argumentCountRanges = new ArrayList<>(
         Collections.singletonList(new IntRange(0, Integer.MAX_VALUE)));
 
+    /** Rules from the table of forbidden methods. */
+    private final List<Rule> methodRules = new ArrayList<>();
+
+    /** Rules with literal method names, by the method name. */
+    private final Map<String, List<Rule>> literalRules = new HashMap<>();
+
+    /** Rules with method name regexes which are combined into one alternation. */
+    private final List<Rule> regexpRules = new ArrayList<>();
+
+    /** Rules with method name regexes with backreferences or named groups. */
+    private final List<Rule> backreferenceRules = new ArrayList<>();
+
+    /** Alternation of the combined method name regexes, null if there are none. */
+    private Pattern regexpRulesMethodName;
+
+    /** Results of matching method names against the method name regexes. */
+    private final RegexpMatchCache matchCache = new RegexpMatchCache();
+
     /**
      * Set method name regex for the forbidden method.
      * @param methodName regex for the method name
@@ -122,10 +171,71 @@ public class ForbidCertainMethodCheck extends AbstractCheck {
                 "argumentCount must be non-empty, found: " + argumentCount);
         }
 
-        final String[] rangeTokens = COMMA_REGEX.split(argumentCount);
         argumentCountRanges.clear();
-        for (String oneToken : rangeTokens) {
-            argumentCountRanges.add(IntRange.from(oneToken));
+        argumentCountRanges.addAll(parseArgumentCount(argumentCount));
+    }
+
+    /**
+     * Set the table of forbidden methods, separated by "###".
+     * @param methodRulesTable rules of the form <code>methodName:argumentCount</code>
+     * @throws CheckstyleException when a rule is not valid
+     */
+    public void setMethodRules(String methodRulesTable) throws CheckstyleException {
+        methodRules.clear();
+        for (String rule : RULE_SEPARATOR_REGEX.split(methodRulesTable.trim())) {
+            final int separatorIndex = rule.lastIndexOf(':');
+            final String ruleMethodName;
+            String ruleArgumentCount = ANY_ARGUMENT_COUNT;
+            if (separatorIndex == -1) {
+                ruleMethodName = rule;
+            }
+            else {
+                ruleMethodName = rule.substring(0, separatorIndex).trim();
+                ruleArgumentCount = rule.substring(separatorIndex + 1).trim();
+            }
+            if (ruleMethodName.isEmpty() || ruleArgumentCount.isEmpty()) {
+                throw new CheckstyleException("Unable to parse method rule: " + rule);
+            }
+            methodRules.add(new Rule(CommonUtil.createPattern(ruleMethodName),
+                ruleArgumentCount, parseArgumentCount(ruleArgumentCount)));
+        }
+    }
+
+    @Override
+    public void init() {
+        final List<Rule> rules;
+        if (methodRules.isEmpty()) {
+            rules = Collections.singletonList(
+                new Rule(methodName, argumentCount, argumentCountRanges));
+        }
+        else {
+            rules = methodRules;
+        }
+        literalRules.clear();
+        regexpRules.clear();
+        backreferenceRules.clear();
+        final StringBuilder alternation = new StringBuilder();
+        for (Rule rule : rules) {
+            final String regexp = rule.methodName.pattern();
+            if (LITERAL_NAME_REGEX.matcher(regexp).matches()) {
+                literalRules.computeIfAbsent(regexp, key -> new ArrayList<>()).add(rule);
+            }
+            else if (BACKREFERENCE_REGEX.matcher(regexp).find()) {
+                backreferenceRules.add(rule);
+            }
+            else {
+                if (!regexpRules.isEmpty()) {
+                    alternation.append('|');
+                }
+                alternation.append("(?:").append(regexp).append(')');
+                regexpRules.add(rule);
+            }
+        }
+        if (regexpRules.isEmpty()) {
+            regexpRulesMethodName = null;
+        }
+        else {
+            regexpRulesMethodName = Pattern.compile(alternation.toString());
         }
     }
 
@@ -160,9 +270,24 @@ public class ForbidCertainMethodCheck extends AbstractCheck {
                 methodNameInCode = dot.getLastChild().getText();
             }
             final int numArgsInCode = getMethodCallParameterCount(ast);
-            if (isForbiddenMethod(methodNameInCode, numArgsInCode)) {
-                log(ast, MSG_KEY, methodNameInCode, methodName,
-                    numArgsInCode, argumentCount);
+            final List<Rule> rules = literalRules.get(methodNameInCode);
+            if (rules != null) {
+                for (Rule rule : rules) {
+                    logIfArgumentCountMatches(ast, rule, methodNameInCode, numArgsInCode);
+                }
+            }
+            if (regexpRulesMethodName != null
+                    && matchCache.matches(regexpRulesMethodName, methodNameInCode)) {
+                for (Rule rule : regexpRules) {
+                    if (matchCache.matches(rule.methodName, methodNameInCode)) {
+                        logIfArgumentCountMatches(ast, rule, methodNameInCode, numArgsInCode);
+                    }
+                }
+            }
+            for (Rule rule : backreferenceRules) {
+                if (matchCache.matches(rule.methodName, methodNameInCode)) {
+                    logIfArgumentCountMatches(ast, rule, methodNameInCode, numArgsInCode);
+                }
             }
         }
         else {
@@ -189,22 +314,60 @@ public class ForbidCertainMethodCheck extends AbstractCheck {
     }
 
     /**
-     * Check if the method/constructor call against defined rules.
-     * @param name ruleName of the the method
+     * Logs the method call if the number of its arguments matches the rule.
+     * @param ast the method call AST
+     * @param rule the rule whose method name matches
+     * @param name name of the method
      * @param argCount number of arguments of the method
-     * @return true if method name and argument matches, false otherwise.
      */
-    private boolean isForbiddenMethod(String name, int argCount) {
-        boolean matched = false;
-        if (methodName.matcher(name).matches()) {
-            for (IntRange intRange : argumentCountRanges) {
-                if (intRange.contains(argCount)) {
-                    matched = true;
-                    break;
-                }
+    private void logIfArgumentCountMatches(DetailAST ast, Rule rule, String name,
+            int argCount) {
+        for (IntRange intRange : rule.argumentCountRanges) {
+            if (intRange.contains(argCount)) {
+                log(ast, MSG_KEY, name, rule.methodName, argCount, rule.argumentCount);
+                break;
             }
         }
-        return matched;
+    }
+
+    /**
+     * Parse number or range to match number of arguments.
+     * @param argumentCount comma separated numbers or ranges
+     * @return range objects for matching number of arguments
+     * @throws CheckstyleException when argumentCount is not a valid range
+     */
+    private static List<IntRange> parseArgumentCount(String argumentCount)
+            throws CheckstyleException {
+        final List<IntRange> ranges = new ArrayList<>();
+        for (String oneToken : COMMA_REGEX.split(argumentCount)) {
+            ranges.add(IntRange.from(oneToken));
+        }
+        return ranges;
+    }
+
+    /**
+     * Forbidden method name with the matching numbers of arguments.
+     */
+    private static final class Rule {
+        /** Name of the method. */
+        private final Pattern methodName;
+        /** Range for number of arguments. */
+        private final String argumentCount;
+        /** Range objects for matching number of arguments. */
+        private final List<IntRange> argumentCountRanges;
+
+        /**
+         * Creates a new rule.
+         * @param methodName regex for the method name
+         * @param argumentCount range for matching number of arguments
+         * @param argumentCountRanges range objects for matching number of arguments
+         */
+        /* package */ Rule(Pattern methodName, String argumentCount,
+                List<IntRange> argumentCountRanges) {
+            this.methodName = methodName;
+            this.argumentCount = argumentCount;
+            this.argumentCountRanges = argumentCountRanges;
+        }
     }
 
     /**
@@ -19,9 +19,9 @@
 
 package com.github.sevntu.checkstyle.checks.coding;
 
+import java.util.HashMap;
 import java.util.HashSet;
-import java.util.LinkedList;
-import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import com.github.sevntu.checkstyle.SevntuUtil;
@@ -40,6 +40,11 @@ import com.puppycrawl.tools.checkstyle.api.TokenTypes;
  * Note: className should to be full: use "java.lang.NullPointerException"
  * instead of "NullpointerException".
  * </p>
+ * <p>
+ * Any number of classes can be forbidden by a single instance of the check, each
+ * instantiation is checked by hash lookups of its class name, not against every
+ * forbidden class in turn.
+ * </p>
  * @author <a href="mailto:Daniil.Yaroslavtsev@gmail.com"> Daniil
  *         Yaroslavtsev</a>
  * @since 1.8.0
@@ -55,6 +60,9 @@ public class ForbidInstantiationCheck extends AbstractCheck {
     /** Path string to separate layers of packages. */
     private static final String PATH_SEPARATOR = ".";
 
+    /** Package which classes are visible without imports. */
+    private static final String JAVA_LANG_PACKAGE = "java.lang.";
+
     /**
      * Set which contains classNames for objects that are forbidden to
      * instantiate.
@@ -62,16 +70,28 @@ public class ForbidInstantiationCheck extends AbstractCheck {
     private final Set<String> forbiddenClasses = new HashSet<>();
 
     /**
-     * List which contains String representation of imports for class is
-     * currently being processed.
+     * Names of the forbidden classes from "java.lang" package, which are
+     * forbidden without imports.
+     */
+    private final Set<String> forbiddenJavaLangClassNames = new HashSet<>();
+
+    /**
+     * Map which contains names of the forbidden classes by the package they
+     * are in.
      */
-    private final List<String> importsList = new LinkedList<>();
+    private final Map<String, Set<String>> forbiddenClassNamesByPackage = new HashMap<>();
+
+    /**
+     * Set which contains names of the forbidden classes imported by the file
+     * is currently being processed.
+     */
+    private final Set<String> importedForbiddenClassNames = new HashSet<>();
 
     /**
      * Creates the check instance.
      */
     public ForbidInstantiationCheck() {
-        forbiddenClasses.add("java.lang.NullPointerException");
+        addForbiddenClass("java.lang.NullPointerException");
     }
 
     /**
@@ -83,16 +103,34 @@ public class ForbidInstantiationCheck extends AbstractCheck {
      */
     public void setForbiddenClasses(final String... classNames) {
         forbiddenClasses.clear();
+        forbiddenJavaLangClassNames.clear();
+        forbiddenClassNamesByPackage.clear();
         if (classNames != null) {
             for (String name : classNames) {
-                forbiddenClasses.add(name);
+                addForbiddenClass(name);
             }
         }
     }
 
+    /**
+     * Adds the class to the forbidden ones.
+     * @param classNameAndPath
+     *        - full name&amp;path of the forbidden class.
+     */
+    private void addForbiddenClass(String classNameAndPath) {
+        final String className = getClassName(classNameAndPath);
+        forbiddenClasses.add(classNameAndPath);
+        if (classNameAndPath.startsWith(JAVA_LANG_PACKAGE)) {
+            forbiddenJavaLangClassNames.add(className);
+        }
+        forbiddenClassNamesByPackage.computeIfAbsent(classNameAndPath.substring(0,
+            classNameAndPath.length() - className.length()), key -> new HashSet<>())
+            .add(className);
+    }
+
     @Override
     public void beginTree(final DetailAST rootAST) {
-        importsList.clear();
+        importedForbiddenClassNames.clear();
     }
 
     @Override
@@ -114,7 +152,7 @@ public class ForbidInstantiationCheck extends AbstractCheck {
     public void visitToken(DetailAST ast) {
         switch (ast.getType()) {
             case TokenTypes.IMPORT:
-                importsList.add(getText(ast));
+                addImport(getText(ast));
                 break;
 
             case TokenTypes.LITERAL_NEW:
@@ -126,24 +164,8 @@ public class ForbidInstantiationCheck extends AbstractCheck {
 
                     final String instanceClassName = getClassName(instanceClass);
 
-                    for (String forbiddenClass : forbiddenClasses) {
-                        if (forbiddenClass.startsWith("java.lang.")
-                            && forbiddenClass.endsWith(instanceClassName)) {
-                            log(ast, MSG_KEY, instanceClassName);
-                        }
-                        else if (instanceClass.contains(PATH_SEPARATOR)) {
-                            // className is full
-
-                            if (instanceClass.equals(forbiddenClass)) {
-                                // the full path is forbidden
-                                log(ast, MSG_KEY, instanceClassName);
-                            }
-                        }
-                        else if (addedUsingForbiddenImport(instanceClass,
-                            forbiddenClass)) {
-                            // className is short and exists in imports
-                            log(ast, MSG_KEY, instanceClass);
-                        }
+                    if (isForbiddenClass(instanceClass, instanceClassName)) {
+                        log(ast, MSG_KEY, instanceClassName);
                     }
                 }
                 break;
@@ -155,70 +177,45 @@ public class ForbidInstantiationCheck extends AbstractCheck {
     }
 
     /**
-     * Checks that the class with given className is visible because of the
-     * forbidden import.
-     * @param className
-     *        - the name of the class to check.
-     * @param forbiddenClassNameAndPath
-     *        - full name&path of the given forbidden class.
-     * @return true if the class with given className is imported with the
-     *         forbidden import and false otherwise.
+     * Checks that the instantiated class is forbidden.
+     * @param instanceClass
+     *        - the name of the class as it is written in the code.
+     * @param instanceClassName
+     *        - the name of the class without the path.
+     * @return true if the class is forbidden to instantiate.
      */
-    private boolean addedUsingForbiddenImport(final String className,
-            String forbiddenClassNameAndPath) {
-        boolean result = false;
-
-        for (String importText : importsList) {
-            if (isWildcardForbiddenImported(importText, forbiddenClassNameAndPath, className)
-                    || isForbiddenImported(importText, forbiddenClassNameAndPath, className)) {
-                result = true;
-                break;
-            }
+    private boolean isForbiddenClass(String instanceClass, String instanceClassName) {
+        final boolean result;
+        if (forbiddenJavaLangClassNames.contains(instanceClassName)) {
+            result = true;
+        }
+        else if (instanceClass.contains(PATH_SEPARATOR)) {
+            // className is full
+            result = forbiddenClasses.contains(instanceClass);
+        }
+        else {
+            // className is short and may exist in imports
+            result = importedForbiddenClassNames.contains(instanceClass);
         }
-
         return result;
     }
 
     /**
-     * Tests if the class with given className is imported with the forbidden
-     * import and false otherwise.
-     *
-     * @param importText
-     *        - String representation of imports from the processed class.
-     * @param className
-     *        - the name of the class to check.
-     * @param forbiddenClassNameAndPath
-     *        - full name&path of the given forbidden class.
-     * @return true if the class with given className is imported with the
-     *         forbidden import and false otherwise.
-     */
-    private static boolean isWildcardForbiddenImported(String importText,
-            String forbiddenClassNameAndPath, String className) {
-        final String importTextWithoutAsterisk =
-                importText.substring(0, importText.length() - 1);
-
-        // -@cs[EqualsAvoidNull] need parenthesis around '+' otherwise PMD will complain
-        return importText.endsWith("*")
-                && forbiddenClassNameAndPath.equals(importTextWithoutAsterisk + className);
-    }
-
-    /**
-     * Tests if the class with given className is imported with the forbidden
-     * import and false otherwise.
-     *
+     * Remembers the forbidden classes which are visible because of the import.
      * @param importText
-     *        - String representation of imports from the processed class.
-     * @param className
-     *        - the name of the class to check.
-     * @param forbiddenClassNameAndPath
-     *        - full name&path of the given forbidden class.
-     * @return true if the class with given className is imported with the
-     *         forbidden import and false otherwise.
+     *        - String representation of the import from the processed class.
      */
-    private static boolean isForbiddenImported(String importText, String forbiddenClassNameAndPath,
-            String className) {
-        return importText.equals(forbiddenClassNameAndPath)
-                && importText.endsWith(className);
+    private void addImport(String importText) {
+        if (importText.endsWith("*")) {
+            final Set<String> classNames = forbiddenClassNamesByPackage
+                    .get(importText.substring(0, importText.length() - 1));
+            if (classNames != null) {
+                importedForbiddenClassNames.addAll(classNames);
+            }
+        }
+        else if (forbiddenClasses.contains(importText)) {
+            importedForbiddenClassNames.add(getClassName(importText));
+        }
     }
 
     /**
@@ -228,7 +225,7 @@ public class ForbidInstantiationCheck extends AbstractCheck {
      * @return the name of the class is specified by the current full name&path.
      */
     private static String getClassName(final String classNameAndPath) {
-        return classNameAndPath.replaceAll(".+\\.", "");
+        return classNameAndPath.substring(classNameAndPath.lastIndexOf('.') + 1);
     }
 
     /**
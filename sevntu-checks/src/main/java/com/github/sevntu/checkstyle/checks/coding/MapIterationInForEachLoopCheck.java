@@ -19,9 +19,13 @@
 
 package com.github.sevntu.checkstyle.checks.coding;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import com.github.sevntu.checkstyle.SevntuUtil;
@@ -192,14 +196,20 @@ public class MapIterationInForEachLoopCheck extends AbstractCheck {
     private boolean proposeEntrySetUsage;
 
     /**
-     * This list contains Map object's names.
+     * Names of Map objects which are in scope, with the number of their
+     * visible declarations.
      */
-    private final List<String> mapNamesList = new ArrayList<>();
+    private final Map<String, Integer> mapNames = new HashMap<>();
 
     /**
-     * This list contains all qualified imports.
+     * Map objects which are in scope, the innermost declaration first.
      */
-    private final List<String> qualifiedImportList = new ArrayList<>();
+    private final Deque<MapVariable> mapVariables = new ArrayDeque<>();
+
+    /**
+     * This set contains all qualified imports.
+     */
+    private final Set<String> qualifiedImportList = new HashSet<>();
 
     /**
      * Set of allowable map implementations. You can set your own map
@@ -289,7 +299,8 @@ public class MapIterationInForEachLoopCheck extends AbstractCheck {
     @Override
     public void beginTree(DetailAST ast) {
         qualifiedImportList.clear();
-        mapNamesList.clear();
+        mapNames.clear();
+        mapVariables.clear();
     }
 
     @Override
@@ -304,18 +315,16 @@ public class MapIterationInForEachLoopCheck extends AbstractCheck {
 
             case TokenTypes.VARIABLE_DEF:
                 if (!qualifiedImportList.isEmpty() && isMapVariable(ast)) {
-                    final DetailAST mapIdentNode = ast.findFirstToken(TokenTypes.TYPE)
-                            .getNextSibling();
-                    final String mapName = mapIdentNode.getText();
-                    //If Map name is contains into mMapNamesList, it doesn't need second inclusion
-                    if (!mapNamesList.contains(mapName)) {
-                        mapNamesList.add(mapIdentNode.getText());
-                    }
+                    leaveEndedScopes(ast);
+                    final String mapName = ast.findFirstToken(TokenTypes.IDENT).getText();
+                    mapVariables.push(new MapVariable(mapName, getScopeEnd(ast)));
+                    mapNames.merge(mapName, 1, Integer::sum);
                 }
                 break;
 
             case TokenTypes.LITERAL_FOR:
                 if (!qualifiedImportList.isEmpty() && isForEach(ast)) {
+                    leaveEndedScopes(ast);
                     final String warningMessageKey = validate(ast);
                     if (warningMessageKey != null) {
                         log(ast, warningMessageKey);
@@ -356,28 +365,82 @@ public class MapIterationInForEachLoopCheck extends AbstractCheck {
             else {
                 currentMapVariableName = keySetOrEntrySetNode.getPreviousSibling().getText();
             }
-            final DetailAST forEachOpeningBrace = forLiteralNode.getLastChild();
-
-            if (!isMapPassedIntoAnyMethod(forEachOpeningBrace)) {
-                final DetailAST variableDefNode = forEachNode.getFirstChild();
-                final String keyOrEntryVariableName = variableDefNode.getLastChild().getText();
+            final DetailAST variableDefNode = forEachNode.getFirstChild();
+            final String keyOrEntryVariableName = variableDefNode.getLastChild().getText();
+            final LoopBodyUsage usage = new LoopBodyUsage(keyOrEntryVariableName,
+                    currentMapVariableName, isMapClassField);
+            usage.collect(forLiteralNode);
 
+            if (!usage.mapPassedIntoMethod) {
                 if (proposeKeySetUsage
                         && KEY_SET_METHOD_NAME.equals(
                                 keySetOrEntrySetNode.getText())) {
-                    warningMessageKey =
-                            checkForWrongKeySetUsage(forEachOpeningBrace,
-                            keyOrEntryVariableName, currentMapVariableName, isMapClassField);
+                    warningMessageKey = checkForWrongKeySetUsage(usage);
                 }
                 else if (proposeEntrySetUsage) {
-                    warningMessageKey = checkForWrongEntrySetUsage(forEachOpeningBrace,
-                            keyOrEntryVariableName);
+                    warningMessageKey = checkForWrongEntrySetUsage(usage);
                 }
             }
         }
         return warningMessageKey;
     }
 
+    /**
+     * Forgets Map objects whose scopes end before the given node.
+     * @param ast
+     *        The node being visited.
+     */
+    private void leaveEndedScopes(DetailAST ast) {
+        while (!mapVariables.isEmpty() && isBefore(mapVariables.peek().scopeEnd, ast)) {
+            final String mapName = mapVariables.pop().name;
+            final int count = mapNames.get(mapName);
+            if (count == 1) {
+                mapNames.remove(mapName);
+            }
+            else {
+                mapNames.put(mapName, count - 1);
+            }
+        }
+    }
+
+    /**
+     * Returns the last node of the scope of a variable. Variables declared
+     * inside a switch case are visible till the end of the switch, and
+     * variables declared in the initializer of a for loop are visible till
+     * the end of the loop.
+     * @param variableDefNode
+     *        DetailAST node of Variable Definition.
+     * @return the last node of the variable scope.
+     */
+    private static DetailAST getScopeEnd(DetailAST variableDefNode) {
+        DetailAST scope = variableDefNode.getParent();
+        if (scope.getType() == TokenTypes.FOR_INIT) {
+            scope = scope.getParent();
+        }
+        else if (scope.getParent().getType() == TokenTypes.CASE_GROUP) {
+            scope = scope.getParent().getParent();
+        }
+        DetailAST result = scope;
+        while (result.getLastChild() != null) {
+            result = result.getLastChild();
+        }
+        return result;
+    }
+
+    /**
+     * Checks whether the first node starts before the second one.
+     * @param first
+     *        The first node.
+     * @param second
+     *        The second node.
+     * @return true, if the first node starts before the second one.
+     */
+    private static boolean isBefore(DetailAST first, DetailAST second) {
+        return first.getLineNo() < second.getLineNo()
+                || first.getLineNo() == second.getLineNo()
+                    && first.getColumnNo() < second.getColumnNo();
+    }
+
     /**
      * Checks if the not is a for each.
      * @param forNode The token to examine.
@@ -427,7 +490,7 @@ public class MapIterationInForEachLoopCheck extends AbstractCheck {
                         mapClassName = previousSibling.getText();
                     }
                 }
-                if (mapNamesList.contains(mapClassName)) {
+                if (mapNames.containsKey(mapClassName)) {
                     keySetOrEntrySetNode = identNode;
                     break;
                 }
@@ -436,159 +499,41 @@ public class MapIterationInForEachLoopCheck extends AbstractCheck {
         return keySetOrEntrySetNode;
     }
 
-    /**
-     * Returns true, if any method call inside for loop contains map
-     * object as parameter.
-     * @param forEachOpeningBraceNode
-     *        List with subtree IDENT nodes.
-     * @return true, if any Method Call contains Map Parameter.
-     */
-    private boolean isMapPassedIntoAnyMethod(DetailAST forEachOpeningBraceNode) {
-        boolean result = false;
-        final List<DetailAST> methodCallNodeList = getSubTreeNodesOfType(
-                forEachOpeningBraceNode, TokenTypes.METHOD_CALL);
-        for (DetailAST methodCallNode : methodCallNodeList) {
-            if (hasMapAsParameter(methodCallNode)) {
-                result = true;
-                break;
-            }
-        }
-        return result;
-    }
-
-    /**
-     * Checks is map instance passed into method call, or not.
-     * @param methodCallNode
-     *        DetailAST node of Method Call.
-     * @return return true, if method call contain map as parameter.
-     */
-    private boolean hasMapAsParameter(DetailAST methodCallNode) {
-        boolean result = false;
-        final List<DetailAST> identNodesList = getSubTreeNodesOfType(methodCallNode,
-                TokenTypes.IDENT);
-        for (String mapName : mapNamesList) {
-            for (DetailAST identNode : identNodesList) {
-                if (mapName.equals(identNode.getText())
-                        && identNode.getParent().getType() == TokenTypes.EXPR) {
-                    result = true;
-                }
-            }
-        }
-        return result;
-    }
-
     /**
      * Searches for wrong ketSet() usage into for cycles.
-     * @param forEachOpeningBraceNode
-     *        For-each opening brace.
-     * @param keyName
-     *        Map's key name.
-     * @param mapName
-     *        Current map name.
-     * @param isMapClassField if the map is a class field.
+     * @param usage
+     *        Usages collected over the loop body.
      * @return keySet warning message key.
      */
-    private String checkForWrongKeySetUsage(DetailAST forEachOpeningBraceNode, String keyName,
-            String mapName, boolean isMapClassField) {
+    private String checkForWrongKeySetUsage(LoopBodyUsage usage) {
         String result = null;
 
-        final List<DetailAST> identAndLiteralIfNodesList =
-                getSubTreeNodesOfType(forEachOpeningBraceNode,
-                        TokenTypes.IDENT, TokenTypes.LITERAL_IF);
-        int methodGetCallCount = 0;
-        int keyIdentCount = 0;
-        for (DetailAST identOrLiteralIfNode : identAndLiteralIfNodesList) {
-            DetailAST mapIdentNode = identOrLiteralIfNode.getPreviousSibling();
-            if (isMapClassField && mapIdentNode != null) {
-                mapIdentNode = mapIdentNode.getLastChild();
-            }
-            if (mapIdentNode != null && GET_NODE_NAME.equals(identOrLiteralIfNode.getText())
-                    && mapName.equals(mapIdentNode.getText())) {
-                methodGetCallCount++;
-            }
-
-            if (keyName.equals(identOrLiteralIfNode.getText())) {
-                keyIdentCount++;
-            }
-        }
-
-        if (methodGetCallCount != 0 && keyIdentCount != 0) {
-            if (proposeValuesUsage && methodGetCallCount == keyIdentCount) {
+        if (usage.methodGetCallCount != 0 && usage.keyIdentCount != 0) {
+            if (proposeValuesUsage && usage.methodGetCallCount == usage.keyIdentCount) {
                 result = MSG_KEY_VALUES;
             }
-            else if (methodGetCallCount < keyIdentCount
-                    && methodGetCallCount > 0
-                    && getMethodGetCallInsideIfCount(identAndLiteralIfNodesList, mapName,
-                            isMapClassField) != methodGetCallCount) {
+            else if (usage.methodGetCallCount < usage.keyIdentCount
+                    && usage.methodGetCallInsideIfCount != usage.methodGetCallCount) {
                 result = MSG_KEY_ENTRYSET;
             }
         }
         return result;
     }
 
-    /**
-     * Counts the getter methods called inside the if statement.
-     * @param identAndLiteralIfNodesList the nodes to examine.
-     * @param mapName Current map name.
-     * @param isMapClassField if the map is a class field.
-     * @return The number of methods.
-     */
-    private static int getMethodGetCallInsideIfCount(List<DetailAST> identAndLiteralIfNodesList,
-            String mapName, boolean isMapClassField) {
-        final DetailAST literalIfNode =
-                getFirstNodeOfType(identAndLiteralIfNodesList,
-                        TokenTypes.LITERAL_IF);
-        int result = 0;
-        if (literalIfNode != null) {
-            for (DetailAST node : getSubTreeNodesOfType(literalIfNode, TokenTypes.IDENT)) {
-                DetailAST mapIdentNode = node.getPreviousSibling();
-                if (isMapClassField && mapIdentNode != null) {
-                    mapIdentNode = mapIdentNode.getLastChild();
-                }
-
-                if (mapIdentNode != null && GET_NODE_NAME.equals(node.getText())
-                        && mapName.equals(mapIdentNode.getText())) {
-                    result++;
-                }
-            }
-        }
-        return result;
-    }
-
     /**
      * Searches for wrong entrySet() usage inside for cycles.
      *
-     * @param forEachOpeningBraceNode For-each opening brace.
-     * @param entryName This variable contains Map.Entry name.
+     * @param usage Usages collected over the loop body.
      * @return entrySet warning message key.
      */
-    private String checkForWrongEntrySetUsage(DetailAST forEachOpeningBraceNode,
-            String entryName) {
+    private String checkForWrongEntrySetUsage(LoopBodyUsage usage) {
         String result = null;
 
-        final List<DetailAST> identNodesList = getSubTreeNodesOfType(
-                forEachOpeningBraceNode, TokenTypes.IDENT);
-        int methodGetKeyCallCount = 0;
-        int methodGetValueCallCount = 0;
-        for (DetailAST identNode : identNodesList) {
-            final DetailAST entryNode = identNode.getPreviousSibling();
-
-            if (entryNode != null && GET_KEY_NODE_NAME.equals(identNode.getText())
-                    && entryName.equals(entryNode.getText())) {
-                methodGetKeyCallCount++;
-            }
-
-            if (entryNode != null && GET_VALUE_NODE_NAME.equals(identNode.getText())
-                    && entryName.equals(entryNode.getText())) {
-                methodGetValueCallCount++;
-            }
-        }
-
         if (proposeValuesUsage
-                && methodGetKeyCallCount == 0 && methodGetValueCallCount > 0) {
+                && usage.methodGetKeyCallCount == 0 && usage.methodGetValueCallCount > 0) {
             result = MSG_KEY_VALUES;
         }
-        else if (methodGetKeyCallCount > 0 && methodGetValueCallCount == 0) {
+        else if (usage.methodGetKeyCallCount > 0 && usage.methodGetValueCallCount == 0) {
             result = MSG_KEY_KEYSET;
         }
         return result;
@@ -716,11 +661,8 @@ public class MapIterationInForEachLoopCheck extends AbstractCheck {
         String result = null;
         final String mapClassQualifiedName = FullIdent.createFullIdent(
                 importNode.getFirstChild()).getText();
-        for (String qualifiedName : supportedMapImplQualifiedNames) {
-            if (mapClassQualifiedName.equals(qualifiedName)) {
-                result = mapClassQualifiedName;
-                break;
-            }
+        if (supportedMapImplQualifiedNames.contains(mapClassQualifiedName)) {
+            result = mapClassQualifiedName;
         }
         return result;
     }
@@ -762,4 +704,188 @@ public class MapIterationInForEachLoopCheck extends AbstractCheck {
         return result;
     }
 
+    /**
+     * Map object declaration which is in scope.
+     */
+    private static final class MapVariable {
+
+        /** Name of the Map object. */
+        private final String name;
+
+        /** The last node of the Map object scope. */
+        private final DetailAST scopeEnd;
+
+        /**
+         * Creates new instance.
+         * @param name
+         *        Name of the Map object.
+         * @param scopeEnd
+         *        The last node of the Map object scope.
+         */
+        /* package */ MapVariable(String name, DetailAST scopeEnd) {
+            this.name = name;
+            this.scopeEnd = scopeEnd;
+        }
+
+    }
+
+    /**
+     * Usages of the iterated map, its key or entry inside a for-each loop
+     * body, collected in a single pass over the body.
+     */
+    private final class LoopBodyUsage {
+
+        /** Name of the key or entry variable of the loop. */
+        private final String keyOrEntryName;
+
+        /** Name of the iterated map. */
+        private final String mapName;
+
+        /** Whether the map is referenced as a class field. */
+        private final boolean isMapClassField;
+
+        /** Whether any Map object is passed into a method call. */
+        private boolean mapPassedIntoMethod;
+
+        /** Number of get() calls on the iterated map. */
+        private int methodGetCallCount;
+
+        /** Number of get() calls on the iterated map inside the first if statement. */
+        private int methodGetCallInsideIfCount;
+
+        /** Number of key variable usages. */
+        private int keyIdentCount;
+
+        /** Number of getKey() calls on the entry variable. */
+        private int methodGetKeyCallCount;
+
+        /** Number of getValue() calls on the entry variable. */
+        private int methodGetValueCallCount;
+
+        /** Number of method calls enclosing the current node. */
+        private int methodCallDepth;
+
+        /** The first if statement of the loop body. */
+        private DetailAST firstLiteralIfNode;
+
+        /** Whether the current node is inside the first if statement. */
+        private boolean insideFirstIf;
+
+        /**
+         * Creates new instance.
+         * @param keyOrEntryName
+         *        Name of the key or entry variable of the loop.
+         * @param mapName
+         *        Name of the iterated map.
+         * @param isMapClassField
+         *        Whether the map is referenced as a class field.
+         */
+        /* package */ LoopBodyUsage(String keyOrEntryName, String mapName,
+                boolean isMapClassField) {
+            this.keyOrEntryName = keyOrEntryName;
+            this.mapName = mapName;
+            this.isMapClassField = isMapClassField;
+        }
+
+        /**
+         * Walks over all nodes of the loop body.
+         * @param forLiteralNode
+         *        DetailAST of literal for.
+         */
+        public void collect(DetailAST forLiteralNode) {
+            DetailAST node = forLiteralNode.findFirstToken(TokenTypes.RPAREN).getNextSibling();
+            while (node != null) {
+                visitNode(node);
+                DetailAST toVisit = node.getFirstChild();
+                while (toVisit == null && node != forLiteralNode) {
+                    leaveNode(node);
+                    toVisit = node.getNextSibling();
+                    if (toVisit == null) {
+                        node = node.getParent();
+                    }
+                }
+                node = toVisit;
+            }
+        }
+
+        /**
+         * Updates the counters when a node is entered.
+         * @param node
+         *        The entered node.
+         */
+        private void visitNode(DetailAST node) {
+            switch (node.getType()) {
+                case TokenTypes.METHOD_CALL:
+                    methodCallDepth++;
+                    break;
+                case TokenTypes.LITERAL_IF:
+                    if (firstLiteralIfNode == null) {
+                        firstLiteralIfNode = node;
+                        insideFirstIf = true;
+                    }
+                    break;
+                case TokenTypes.IDENT:
+                    visitIdent(node);
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        /**
+         * Updates the counters when a node is left.
+         * @param node
+         *        The left node.
+         */
+        private void leaveNode(DetailAST node) {
+            if (node.getType() == TokenTypes.METHOD_CALL) {
+                methodCallDepth--;
+            }
+            else if (node == firstLiteralIfNode) {
+                insideFirstIf = false;
+            }
+        }
+
+        /**
+         * Updates the counters with an identifier.
+         * @param identNode
+         *        The identifier.
+         */
+        private void visitIdent(DetailAST identNode) {
+            final String text = identNode.getText();
+            if (methodCallDepth > 0 && mapNames.containsKey(text)
+                    && identNode.getParent().getType() == TokenTypes.EXPR) {
+                mapPassedIntoMethod = true;
+            }
+            if (keyOrEntryName.equals(text)) {
+                keyIdentCount++;
+            }
+
+            final DetailAST previousSibling = identNode.getPreviousSibling();
+            if (previousSibling != null) {
+                DetailAST mapIdentNode = previousSibling;
+                if (isMapClassField) {
+                    mapIdentNode = previousSibling.getLastChild();
+                }
+                if (mapIdentNode != null && GET_NODE_NAME.equals(text)
+                        && mapName.equals(mapIdentNode.getText())) {
+                    methodGetCallCount++;
+                    if (insideFirstIf) {
+                        methodGetCallInsideIfCount++;
+                    }
+                }
+
+                if (keyOrEntryName.equals(previousSibling.getText())) {
+                    if (GET_KEY_NODE_NAME.equals(text)) {
+                        methodGetKeyCallCount++;
+                    }
+                    else if (GET_VALUE_NODE_NAME.equals(text)) {
+                        methodGetValueCallCount++;
+                    }
+                }
+            }
+        }
+
+    }
+
 }
@@ -19,6 +19,13 @@
 
 package com.github.sevntu.checkstyle.checks.coding;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
 import com.puppycrawl.tools.checkstyle.api.AbstractCheck;
 import com.puppycrawl.tools.checkstyle.api.DetailAST;
 import com.puppycrawl.tools.checkstyle.api.TokenTypes;
@@ -122,6 +129,9 @@ public class MoveVariableInsideIfCheck extends AbstractCheck {
      */
     public static final String MSG_KEY = "move.variable.inside";
 
+    /** The usage indexes of the blocks with local variables in the current file. */
+    private final Map<DetailAST, BlockIndex> blockIndexes = new HashMap<>();
+
     @Override
     public int[] getDefaultTokens() {
         return new int[] {TokenTypes.VARIABLE_DEF};
@@ -137,6 +147,11 @@ public class MoveVariableInsideIfCheck extends AbstractCheck {
         return getDefaultTokens();
     }
 
+    @Override
+    public void beginTree(DetailAST rootAST) {
+        blockIndexes.clear();
+    }
+
     @Override
     public void visitToken(DetailAST ast) {
         if (ScopeUtil.isLocalVariableDef(ast)) {
@@ -146,217 +161,198 @@ public class MoveVariableInsideIfCheck extends AbstractCheck {
 
     /**
      * Examines the local variable for violations to be moved inside an nest if
-     * statement.
+     * statement. The variable can be moved only if its only usage after the
+     * declaration is inside a single block of an if statement.
      *
      * @param ast The local variable to examine.
      */
     private void validateLocalVariable(DetailAST ast) {
-        final Holder holder = new Holder(ast);
-
-        for (DetailAST child = ast.getNextSibling(); !holder.exit && child != null;
-                child = child.getNextSibling()) {
-            if (child.getType() == TokenTypes.LITERAL_IF) {
-                validateIf(holder, child);
-            }
-            else {
-                validateOther(holder, child);
+        final BlockIndex index = blockIndexes.computeIfAbsent(ast.getParent(),
+                BlockIndex::new);
+        final String variableName = ast.findFirstToken(TokenTypes.IDENT).getText();
+        final List<Usage> usages = index.usages.get(variableName);
+
+        if (usages != null) {
+            // the declaration itself is the usage preceding all the usages after it
+            final int size = usages.size();
+            final Usage lastUsage = usages.get(size - 1);
+
+            if (lastUsage.blockNode != null && usages.get(size - 2).statement == ast) {
+                log(ast, MSG_KEY, variableName, lastUsage.blockNode.getLineNo());
             }
         }
-
-        if (holder.blockNode != null) {
-            log(ast, MSG_KEY, holder.variableName, holder.blockNode.getLineNo());
-        }
     }
 
     /**
-     * Examines an if statement to see how many times the specified variable
-     * identifier was used inside it.
+     * Collects names of all the identifiers between the given start and end
+     * nodes.
      *
-     * @param holder The object holder with the specified variable to check and
-     *        it's current state.
-     * @param ifNodeGiven The current if node to examine.
+     * @param start The node to start examining from.
+     * @param end The last node to stop examining once reached. If null,
+     *        then the last node is when we leave the start node.
+     * @return names of the identifiers.
      */
-    private static void validateIf(Holder holder, DetailAST ifNodeGiven) {
-        DetailAST ifNode = ifNodeGiven;
+    private static Set<String> collectIdents(DetailAST start, DetailAST end) {
+        final Set<String> result = new HashSet<>();
+        DetailAST curNode = start;
 
         // -@cs[SingleBreakOrContinue] Too complex to break apart
-        while (true) {
-            // check condition
-            final DetailAST rparen = ifNode.findFirstToken(TokenTypes.RPAREN);
-            final boolean usedInCondition = holder.hasIdent(
-                    ifNode.findFirstToken(TokenTypes.LPAREN), rparen);
-
-            if (usedInCondition) {
-                holder.setExit();
-                break;
+        while (curNode != null) {
+            if (curNode.getType() == TokenTypes.IDENT) {
+                result.add(curNode.getText());
             }
 
-            final DetailAST elseNode = ifNode.getLastChild();
-
-            // check body of if
-            final DetailAST body = rparen.getNextSibling();
-            final DetailAST bodyEnd;
-
-            if (body.getType() == TokenTypes.SLIST) {
-                bodyEnd = body.getLastChild();
-            }
-            else {
-                bodyEnd = elseNode;
+            if (curNode == end) {
+                break;
             }
 
-            final boolean used = holder.hasIdent(body, bodyEnd);
+            DetailAST toVisit = curNode.getFirstChild();
 
-            if (used) {
-                holder.setBlockNode(ifNode);
+            while (toVisit == null) {
+                toVisit = curNode.getNextSibling();
 
-                if (holder.exit) {
-                    break;
-                }
-            }
+                if (toVisit == null) {
+                    if (end == null) {
+                        break;
+                    }
 
-            if (elseNode.getType() != TokenTypes.LITERAL_ELSE) {
-                break;
+                    curNode = curNode.getParent();
+                }
             }
 
-            ifNode = elseNode.getFirstChild();
-
-            if (ifNode.getType() != TokenTypes.LITERAL_IF) {
-                // check body of else
-
-                validateElseOfIf(holder, ifNode, elseNode);
-                break;
-            }
+            curNode = toVisit;
         }
+
+        return result;
     }
 
     /**
-     * Examines the else of an if statement to see how many times the specified
-     * variable identifier was used inside it.
-     *
-     * @param holder The object holder with the specified variable to check and
-     *        it's current state.
-     * @param ifNode The if node of the specified else.
-     * @param elseNode The current else node to examine.
+     * The usage of identifiers in a single statement of a block.
      */
-    private static void validateElseOfIf(Holder holder, DetailAST ifNode, DetailAST elseNode) {
-        final boolean used;
+    private static final class Usage {
 
-        if (ifNode.getType() == TokenTypes.SLIST) {
-            used = holder.hasIdent(ifNode.getFirstChild(), ifNode.getLastChild());
-        }
-        else {
-            used = holder.hasIdent(ifNode, elseNode.getLastChild());
-        }
+        /** The statement of the block. */
+        private final DetailAST statement;
+        /** The if or else node whose block contains the usage, or null if outside of it. */
+        private final DetailAST blockNode;
 
-        if (used) {
-            holder.setBlockNode(elseNode);
+        /**
+         * Default constructor for the class.
+         *
+         * @param statement The statement of the block.
+         * @param blockNode The if or else node whose block contains the usage.
+         */
+        /* package */ Usage(DetailAST statement, DetailAST blockNode) {
+            this.statement = statement;
+            this.blockNode = blockNode;
         }
-    }
 
-    /**
-     * Examines other nodes to see how many times a variable was used inside it.
-     * If the variable is used, no violations are reported for it.
-     *
-     * @param holder The object holder with the specified variable to check and
-     *        it's current state.
-     * @param child The current node to examine.
-     */
-    private static void validateOther(Holder holder, DetailAST child) {
-        final boolean used = holder.hasIdent(child, child.getNextSibling());
-
-        if (used) {
-            holder.setExit();
-        }
     }
 
     /**
-     * The holder of information for the specified variable.
-     *
-     * @author Richard Veach
+     * The index of identifier usages in the statements of a block, built once
+     * for all the local variables of the block.
      */
-    private static class Holder {
+    private static final class BlockIndex {
 
-        /** The name of the variable being examined. */
-        private final String variableName;
-        /** Switch to trigger ending examining more nodes. */
-        private boolean exit;
-        /** The node to report violations on. */
-        private DetailAST blockNode;
+        /** The ordered usages of each identifier name in the block. */
+        private final Map<String, List<Usage>> usages = new HashMap<>();
 
         /**
          * Default constructor for the class.
          *
-         * @param ast The variable the holder is for.
-         */
-        /* package */ Holder(DetailAST ast) {
-            variableName = ast.findFirstToken(TokenTypes.IDENT).getText();
-        }
-
-        /**
-         * Sets the specified node that is to be reported for the violation for
-         * the block. If there is already a node being reported, then no nodes
-         * are reported.
-         *
-         * @param blockNode The given block node to report for.
+         * @param block The block to index.
          */
-        public void setBlockNode(DetailAST blockNode) {
-            if (this.blockNode == null) {
-                this.blockNode = blockNode;
-            }
-            else {
-                setExit();
+        /* package */ BlockIndex(DetailAST block) {
+            for (DetailAST child = block.getFirstChild(); child != null;
+                    child = child.getNextSibling()) {
+                if (child.getType() == TokenTypes.LITERAL_IF) {
+                    indexIf(child);
+                }
+                else {
+                    addUsages(collectIdents(child, child.getNextSibling()), child, null);
+                }
             }
         }
 
-        /** Sets the state to exit examining further nodes. */
-        public void setExit() {
-            blockNode = null;
-            exit = true;
-        }
-
         /**
-         * Checks if any of the nodes between the given start and end are an
-         * identifier with the name of the variable.
+         * Indexes the usages in the conditions and blocks of an if statement
+         * and all its else statements.
          *
-         * @param start The node to start examining from.
-         * @param end The last node to stop examining once reached. If null,
-         *        then the last node is when we leave the start node.
-         * @return true if the identifier has been found, otherwise false.
+         * @param ifNodeGiven The if node to index.
          */
-        public boolean hasIdent(DetailAST start, DetailAST end) {
-            boolean found = false;
-            DetailAST curNode = start;
+        private void indexIf(DetailAST ifNodeGiven) {
+            DetailAST ifNode = ifNodeGiven;
 
             // -@cs[SingleBreakOrContinue] Too complex to break apart
-            while (curNode != null) {
-                if (curNode.getType() == TokenTypes.IDENT
-                        && variableName.equals(curNode.getText())) {
-                    found = true;
+            while (true) {
+                // condition
+                final DetailAST rparen = ifNode.findFirstToken(TokenTypes.RPAREN);
+                addUsages(collectIdents(ifNode.findFirstToken(TokenTypes.LPAREN), rparen),
+                        ifNodeGiven, null);
+
+                final DetailAST elseNode = ifNode.getLastChild();
+
+                // body of if
+                final DetailAST body = rparen.getNextSibling();
+                final DetailAST bodyEnd;
+
+                if (body.getType() == TokenTypes.SLIST) {
+                    bodyEnd = body.getLastChild();
+                }
+                else {
+                    bodyEnd = elseNode;
+                }
+
+                addUsages(collectIdents(body, bodyEnd), ifNodeGiven, ifNode);
+
+                if (elseNode.getType() != TokenTypes.LITERAL_ELSE) {
                     break;
                 }
 
-                if (curNode == end) {
+                ifNode = elseNode.getFirstChild();
+
+                if (ifNode.getType() != TokenTypes.LITERAL_IF) {
+                    indexElseOfIf(ifNodeGiven, ifNode, elseNode);
                     break;
                 }
+            }
+        }
 
-                DetailAST toVisit = curNode.getFirstChild();
+        /**
+         * Indexes the usages in the block of an else statement.
+         *
+         * @param statement The if statement of the block.
+         * @param ifNode The if node of the specified else.
+         * @param elseNode The else node to index.
+         */
+        private void indexElseOfIf(DetailAST statement, DetailAST ifNode, DetailAST elseNode) {
+            final Set<String> idents;
 
-                while (toVisit == null) {
-                    toVisit = curNode.getNextSibling();
+            if (ifNode.getType() == TokenTypes.SLIST) {
+                idents = collectIdents(ifNode.getFirstChild(), ifNode.getLastChild());
+            }
+            else {
+                idents = collectIdents(ifNode, elseNode.getLastChild());
+            }
 
-                    if (toVisit == null) {
-                        if (end == null) {
-                            break;
-                        }
+            addUsages(idents, statement, elseNode);
+        }
 
-                        curNode = curNode.getParent();
-                    }
-                }
+        /**
+         * Adds the usage of each of the given identifier names.
+         *
+         * @param idents The names of the used identifiers.
+         * @param statement The statement of the block.
+         * @param blockNode The if or else node whose block contains the usage,
+         *        or null if outside of it.
+         */
+        private void addUsages(Set<String> idents, DetailAST statement, DetailAST blockNode) {
+            final Usage usage = new Usage(statement, blockNode);
 
-                curNode = toVisit;
+            for (String ident : idents) {
+                usages.computeIfAbsent(ident, key -> new ArrayList<>()).add(usage);
             }
-
-            return found;
         }
 
     }
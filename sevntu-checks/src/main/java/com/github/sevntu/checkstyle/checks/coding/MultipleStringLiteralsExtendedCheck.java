@@ -20,9 +20,9 @@
 package com.github.sevntu.checkstyle.checks.coding;
 
 import java.util.BitSet;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 import java.util.regex.Pattern;
 
 import com.google.common.collect.Lists;
@@ -47,16 +47,20 @@ public class MultipleStringLiteralsExtendedCheck extends AbstractCheck {
     public static final String MSG_KEY = "multiple.string.literal";
 
     /**
-     * The found strings and their positions. &lt;String, ArrayList&gt;, with
-     * the ArrayList containing StringInfo objects.
+     * The found strings and their occurrences.
      */
-    private final Map<String, List<DetailAST>> stringMap = Maps.newHashMap();
+    private final Map<String, Occurrences> stringMap = Maps.newHashMap();
 
     /**
      * Marks the TokenTypes where duplicate strings should be ignored.
      */
     private final BitSet ignoreOccurrenceContext = new BitSet();
 
+    /**
+     * Number of entered and not yet left tokens from {@link #ignoreOccurrenceContext}.
+     */
+    private int ignoreOccurrenceContextDepth;
+
     /**
      * The allowed number of string duplicates in a file before an error is generated.
      */
@@ -133,82 +137,127 @@ public class MultipleStringLiteralsExtendedCheck extends AbstractCheck {
 
     @Override
     public int[] getDefaultTokens() {
-        return new int[] {
-            TokenTypes.STRING_LITERAL,
-        };
+        return getRequiredTokens();
     }
 
     @Override
     public int[] getAcceptableTokens() {
-        return getDefaultTokens();
+        return getRequiredTokens();
     }
 
     @Override
     public int[] getRequiredTokens() {
-        return getDefaultTokens();
+        // tokens of the ignore context are visited only to know the current context
+        final BitSet tokens = (BitSet) ignoreOccurrenceContext.clone();
+        tokens.set(TokenTypes.STRING_LITERAL);
+        return tokens.stream().toArray();
     }
 
     @Override
     public void visitToken(DetailAST ast) {
-        if (!isInIgnoreOccurrenceContext(ast)) {
-            final String currentString = ast.getText();
-            if (pattern == null || !pattern.matcher(currentString).find()) {
-                List<DetailAST> hitList = stringMap.get(currentString);
-                if (hitList == null) {
-                    hitList = Lists.newArrayList();
-                    stringMap.put(currentString, hitList);
+        if (ast.getType() == TokenTypes.STRING_LITERAL) {
+            if (ignoreOccurrenceContextDepth == 0) {
+                final String currentString = ast.getText();
+                if (pattern == null || !pattern.matcher(currentString).find()) {
+                    final Occurrences occurrences = stringMap.get(currentString);
+                    if (occurrences == null) {
+                        stringMap.put(currentString,
+                                new Occurrences(ast, highlightAllDuplicates));
+                    }
+                    else {
+                        occurrences.add(ast);
+                    }
                 }
-                hitList.add(ast);
             }
         }
+        else {
+            ignoreOccurrenceContextDepth++;
+        }
     }
 
-    /**
-     * Analyses the path from the AST root to a given AST for occurrences of the token types in
-     * {@link #ignoreOccurrenceContext}.
-     *
-     * @param ast
-     *            the node from where to start searching towards the root node
-     * @return whether the path from the root node to aAST contains one of the token type in
-     *         {@link #ignoreOccurrenceContext}.
-     */
-    private boolean isInIgnoreOccurrenceContext(DetailAST ast) {
-        boolean result = false;
-        DetailAST token = ast.getParent();
-        while (token != null) {
-            final int type = token.getType();
-            if (ignoreOccurrenceContext.get(type)) {
-                result = true;
-                break;
-            }
-            token = token.getParent();
+    @Override
+    public void leaveToken(DetailAST ast) {
+        if (ast.getType() != TokenTypes.STRING_LITERAL) {
+            ignoreOccurrenceContextDepth--;
         }
-        return result;
     }
 
     @Override
     public void beginTree(DetailAST rootAST) {
         super.beginTree(rootAST);
         stringMap.clear();
+        ignoreOccurrenceContextDepth = 0;
     }
 
     @Override
     public void finishTree(DetailAST rootAST) {
-        final Set<String> keys = stringMap.keySet();
-        for (String key : keys) {
-            final List<DetailAST> hits = stringMap.get(key);
-            if (hits.size() > allowedDuplicates) {
-                int hitsSize = 1;
-                if (highlightAllDuplicates) {
-                    hitsSize = hits.size();
-                }
-                for (int index = 0; index < hitsSize; index++) {
-                    final DetailAST firstFinding = hits.get(index);
-                    log(firstFinding,
-                            MSG_KEY, key, hits.size());
+        for (Map.Entry<String, Occurrences> entry : stringMap.entrySet()) {
+            final Occurrences occurrences = entry.getValue();
+            if (occurrences.count > allowedDuplicates) {
+                for (DetailAST finding : occurrences.getHighlighted()) {
+                    log(finding,
+                            MSG_KEY, entry.getKey(), occurrences.count);
                 }
             }
         }
     }
 
+    /**
+     * Occurrences of one string: their number and the first of them, or all of them if all
+     * duplicates should be highlighted.
+     */
+    private static final class Occurrences {
+
+        /** The first occurrence. */
+        private final DetailAST first;
+
+        /** All occurrences, or null if only the first one is kept. */
+        private final List<DetailAST> all;
+
+        /** Number of occurrences. */
+        private int count = 1;
+
+        /**
+         * Creates a new instance.
+         * @param first the first occurrence.
+         * @param keepAll whether all occurrences should be kept.
+         */
+        Occurrences(DetailAST first, boolean keepAll) {
+            this.first = first;
+            if (keepAll) {
+                all = Lists.newArrayList(first);
+            }
+            else {
+                all = null;
+            }
+        }
+
+        /**
+         * Adds an occurrence.
+         * @param ast the occurrence.
+         */
+        public void add(DetailAST ast) {
+            count++;
+            if (all != null) {
+                all.add(ast);
+            }
+        }
+
+        /**
+         * Gets the occurrences to log.
+         * @return all occurrences if they are kept, otherwise the first one.
+         */
+        public List<DetailAST> getHighlighted() {
+            final List<DetailAST> result;
+            if (all == null) {
+                result = Collections.singletonList(first);
+            }
+            else {
+                result = all;
+            }
+            return result;
+        }
+
+    }
+
 }
@@ -19,9 +19,13 @@
 
 package com.github.sevntu.checkstyle.checks.coding;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import com.github.sevntu.checkstyle.SevntuUtil;
@@ -83,10 +87,10 @@ public class NoNullForCollectionReturnCheck extends AbstractCheck {
 
     /**
      * <p>
-     * List of the method definition tokens, that returns collection.
+     * Stack of the method definitions, that enclose the current token.
      * </p>
      */
-    private final List<DetailAST> methodDefs = new LinkedList<>();
+    private final Deque<MethodDetails> methodDefs = new ArrayDeque<>();
 
     /** Default constructor. */
     public NoNullForCollectionReturnCheck() {
@@ -145,20 +149,17 @@ public class NoNullForCollectionReturnCheck extends AbstractCheck {
     public void visitToken(DetailAST detailAST) {
         switch (detailAST.getType()) {
             case TokenTypes.METHOD_DEF:
-                if (isReturnCollection(detailAST)) {
-                    methodDefs.add(detailAST);
-                }
+                methodDefs.push(new MethodDetails(detailAST, isReturnCollection(detailAST)));
                 break;
 
             case TokenTypes.LITERAL_RETURN:
-                if (!methodDefs.isEmpty()) {
-                    final DetailAST currentMethodDef = getMethodDef(detailAST);
-                    if (methodDefs.contains(currentMethodDef)
+                final MethodDetails currentMethod = methodDefs.peek();
+                if (currentMethod != null
+                        && currentMethod.returnCollection
                         && (hasNullLiteralInReturn(detailAST)
                             || searchThroughMethodBody
-                                && isReturnedValueBeNull(detailAST))) {
-                        log(detailAST, MSG_KEY);
-                    }
+                                && isReturnedValueBeNull(currentMethod, detailAST))) {
+                    log(detailAST, MSG_KEY);
                 }
                 break;
 
@@ -168,6 +169,13 @@ public class NoNullForCollectionReturnCheck extends AbstractCheck {
         }
     }
 
+    @Override
+    public void leaveToken(DetailAST detailAST) {
+        if (detailAST.getType() == TokenTypes.METHOD_DEF) {
+            methodDefs.pop();
+        }
+    }
+
     /**
      * <p>
      * Returns true, when method type is a collection or an array.
@@ -208,41 +216,68 @@ public class NoNullForCollectionReturnCheck extends AbstractCheck {
      * <p>
      * Returns true, when variable in return may be null.
      * </p>
+     * @param method
+     *        - details of the method, that contains the LITERAL_RETURN
      * @param returnLit
      *        - DetailAST contains LITERAL_RETURN
      * @return true, when variable may be null.
      */
-    private static boolean isReturnedValueBeNull(DetailAST returnLit) {
+    private static boolean isReturnedValueBeNull(MethodDetails method, DetailAST returnLit) {
         boolean result = false;
         final DetailAST returnedExpression = returnLit.getFirstChild();
         if (returnedExpression.getType() != TokenTypes.SEMI) {
             final DetailAST variable = returnedExpression.findFirstToken(TokenTypes.IDENT);
             if (variable != null) {
-                final String variableName = variable.getText();
-                final DetailAST methodDef = getMethodDef(returnLit);
-                final List<DetailAST> subblocks = getAllSubblocks(methodDef);
-                subblocks.add(0, methodDef);
-
-                result = hasNullInDefinition(subblocks, variableName);
-
-                //searching for not a null value into variable assignment
-                if (result) {
-                    for (DetailAST subblock : subblocks) {
-                        final List<DetailAST> expressions =
-                                getChildren(getBlockBody(subblock), TokenTypes.EXPR);
-                        for (DetailAST expression : expressions) {
-                            final DetailAST assign = expression.findFirstToken(TokenTypes.ASSIGN);
-                            if (assign != null
-                                    && variableName.equals(assign.findFirstToken(TokenTypes.IDENT)
-                                            .getText())
-                                    && !assign.branchContains(TokenTypes.LITERAL_NULL)) {
-                                result = false;
-                                break;
-                            }
-                        }
-                        if (!result) {
-                            break;
-                        }
+                if (method.nullableVariables == null) {
+                    method.nullableVariables = getNullableVariables(method.methodDef);
+                }
+                result = method.nullableVariables.contains(variable.getText());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * <p>
+     * Returns names of the variables, that are null into the variable definition and are
+     * never assigned a not null value in the method and its subblocks.
+     * </p>
+     * @param methodDef
+     *        - DetailAST contains METHOD_DEF.
+     * @return names of the variables, that may be null.
+     */
+    private static Set<String> getNullableVariables(DetailAST methodDef) {
+        final List<DetailAST> subblocks = getAllSubblocks(methodDef);
+        subblocks.add(0, methodDef);
+
+        // the first definition of a variable name is taken
+        final Map<String, Boolean> nullInDefinition = new HashMap<>();
+        for (DetailAST subblock : subblocks) {
+            for (DetailAST variableDef
+                    : getChildren(getBlockBody(subblock), TokenTypes.VARIABLE_DEF)) {
+                nullInDefinition.putIfAbsent(
+                        variableDef.findFirstToken(TokenTypes.IDENT).getText(),
+                        hasNullInDefinition(variableDef));
+            }
+        }
+
+        final Set<String> result = new HashSet<>();
+        for (Map.Entry<String, Boolean> entry : nullInDefinition.entrySet()) {
+            if (entry.getValue()) {
+                result.add(entry.getKey());
+            }
+        }
+
+        //searching for not a null value into variable assignment
+        for (DetailAST subblock : subblocks) {
+            for (DetailAST expression
+                    : getChildren(getBlockBody(subblock), TokenTypes.EXPR)) {
+                final DetailAST assign = expression.findFirstToken(TokenTypes.ASSIGN);
+                if (assign != null
+                        && !assign.branchContains(TokenTypes.LITERAL_NULL)) {
+                    final DetailAST variable = assign.findFirstToken(TokenTypes.IDENT);
+                    if (variable != null) {
+                        result.remove(variable.getText());
                     }
                 }
             }
@@ -289,38 +324,20 @@ public class NoNullForCollectionReturnCheck extends AbstractCheck {
      * <p>
      * Return true when variable is null into the variable definition.
      * </p>
-     * @param subBlocks
-     *        - list contains subblocks.
-     * @param variableName
-     *        - name of returned variable.
+     * @param variableDef
+     *        - DetailAST contains VARIABLE_DEF.
      * @return true when variable is null into the variable definition.
      */
-    private static boolean hasNullInDefinition(List<DetailAST> subBlocks, String variableName) {
-        boolean result = false;
-        for (DetailAST subblock : subBlocks) {
-            final List<DetailAST> variableDefs =
-                    getChildren(getBlockBody(subblock), TokenTypes.VARIABLE_DEF);
-            boolean isFinded = false;
-            for (DetailAST currentDef : variableDefs) {
-                final DetailAST variable = currentDef.findFirstToken(TokenTypes.IDENT);
-
-                if (variableName.equals(variable.getText())) {
-                    final DetailAST variableDef = currentDef;
-                    DetailAST variableValue = variableDef.findFirstToken(TokenTypes.ASSIGN);
-                    if (variableValue == null) {
-                        result = true;
-                    }
-                    else {
-                        variableValue = variableValue.findFirstToken(TokenTypes.EXPR);
-                        result = variableValue.getFirstChild().getType() == TokenTypes.LITERAL_NULL;
-                    }
-                    isFinded = true;
-                    break;
-                }
-            }
-            if (isFinded) {
-                break;
-            }
+    private static boolean hasNullInDefinition(DetailAST variableDef) {
+        final boolean result;
+        final DetailAST variableValue = variableDef.findFirstToken(TokenTypes.ASSIGN);
+        if (variableValue == null) {
+            result = true;
+        }
+        else {
+            final DetailAST expression = variableValue.findFirstToken(TokenTypes.EXPR);
+            result = expression != null
+                    && expression.getFirstChild().getType() == TokenTypes.LITERAL_NULL;
         }
         return result;
     }
@@ -350,22 +367,6 @@ public class NoNullForCollectionReturnCheck extends AbstractCheck {
         return children;
     }
 
-    /**
-     * <p>
-     * Return DetailAST that contained method definition.
-     * </p>
-     * @param returnLit
-     *        - DetailAST contains LITERAL_RETURN.
-     * @return DetailAST contains METHOD_DEF
-     */
-    private static DetailAST getMethodDef(DetailAST returnLit) {
-        DetailAST methodDef = returnLit;
-        while (methodDef != null && methodDef.getType() != TokenTypes.METHOD_DEF) {
-            methodDef = methodDef.getParent();
-        }
-        return methodDef;
-    }
-
     /**
      * <p>
      * Return body of the block.
@@ -382,4 +383,34 @@ public class NoNullForCollectionReturnCheck extends AbstractCheck {
         return blockBody;
     }
 
+    /**
+     * <p>
+     * Details of the method definition.
+     * </p>
+     */
+    private static final class MethodDetails {
+
+        /** DetailAST contains METHOD_DEF. */
+        private final DetailAST methodDef;
+
+        /** Whether the method returns collection or array. */
+        private final boolean returnCollection;
+
+        /** Names of the variables, that may be null, or null if not collected yet. */
+        private Set<String> nullableVariables;
+
+        /**
+         * Creates new instance.
+         * @param methodDef
+         *        - DetailAST contains METHOD_DEF.
+         * @param returnCollection
+         *        - whether the method returns collection or array.
+         */
+        /* package */ MethodDetails(DetailAST methodDef, boolean returnCollection) {
+            this.methodDef = methodDef;
+            this.returnCollection = returnCollection;
+        }
+
+    }
+
 }
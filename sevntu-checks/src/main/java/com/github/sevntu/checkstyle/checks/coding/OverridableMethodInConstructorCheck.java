@@ -20,8 +20,14 @@
 package com.github.sevntu.checkstyle.checks.coding;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import com.github.sevntu.checkstyle.SevntuUtil;
 import com.puppycrawl.tools.checkstyle.api.AbstractCheck;
@@ -169,20 +175,23 @@ public class OverridableMethodInConstructorCheck extends AbstractCheck {
     private static final String PATH_SEPARATOR = ".";
 
     /**
-     * A list contains all METHOD_CALL DetailAST nodes that have been already
+     * A set contains all METHOD_CALL DetailAST nodes that have been already
      * visited by check.
      * */
-    private final List<DetailAST> visitedMethodCalls = new LinkedList<>();
+    private final Set<DetailAST> visitedMethodCalls = new HashSet<>();
 
     /**
-     * A current MethodDef AST is being processed by check.
+     * Index of the current file: the first CLASS_DEF node found for each class
+     * name.
      * */
-    private DetailAST curMethodDef;
+    private final Map<String, DetailAST> classDefsByName = new HashMap<>();
 
     /**
-     * A current root of the syntax tree is being processed.
+     * Index of the current file: METHOD_DEF nodes of each CLASS_DEF node grouped
+     * by method name, in order of their appearance.
      * */
-    private DetailAST treeRootAST;
+    private final Map<DetailAST, Map<String, List<DetailAST>>> methodDefsByClass =
+            new HashMap<>();
 
     /**
      * A boolean check box that enables the searching of calls to overridable
@@ -209,11 +218,6 @@ public class OverridableMethodInConstructorCheck extends AbstractCheck {
      */
     private String curOverridableMetName;
 
-    /**
-     * Method definitions counter for class is currently being processed.
-     */
-    private int curMethodDefCount;
-
     /**
      * Enable|Disable searching of calls to overridable methods from body of any
      * clone() method is implemented from Cloneable interface.
@@ -268,7 +272,57 @@ public class OverridableMethodInConstructorCheck extends AbstractCheck {
 
     @Override
     public void beginTree(DetailAST rootAST) {
-        treeRootAST = rootAST;
+        classDefsByName.clear();
+        methodDefsByClass.clear();
+        indexDefinitions(rootAST, null);
+    }
+
+    /**
+     * Walks the syntax tree once and fills the class and method definition
+     * indexes. Methods are attributed to a class in the same way as they were
+     * found by searching the class body: methods of nested classes, methods
+     * declared inside of other methods and constructors are not counted, but
+     * methods of anonymous classes in field initializers and of nested
+     * interfaces and enums are.
+     *
+     * @param firstNode
+     *            The first node of the siblings to index.
+     * @param classMethods
+     *            The methods map of the class the siblings belong to, or null
+     *            if they are out of any class body.
+     */
+    private void indexDefinitions(DetailAST firstNode,
+            Map<String, List<DetailAST>> classMethods) {
+        for (DetailAST curNode = firstNode; curNode != null;
+                curNode = curNode.getNextSibling()) {
+            Map<String, List<DetailAST>> childMethods = classMethods;
+
+            switch (curNode.getType()) {
+                case TokenTypes.CLASS_DEF:
+                    classDefsByName.putIfAbsent(
+                            curNode.findFirstToken(TokenTypes.IDENT).getText(), curNode);
+                    childMethods = new HashMap<>();
+                    methodDefsByClass.put(curNode, childMethods);
+                    break;
+                case TokenTypes.METHOD_DEF:
+                    if (classMethods != null) {
+                        classMethods.computeIfAbsent(
+                                curNode.findFirstToken(TokenTypes.IDENT).getText(),
+                                name -> new ArrayList<>()).add(curNode);
+                    }
+                    childMethods = null;
+                    break;
+                case TokenTypes.CTOR_DEF:
+                case TokenTypes.MODIFIERS:
+                case TokenTypes.IMPLEMENTS_CLAUSE:
+                    childMethods = null;
+                    break;
+                default:
+                    break;
+            }
+
+            indexDefinitions(curNode.getFirstChild(), childMethods);
+        }
     }
 
     @Override
@@ -412,20 +466,34 @@ public class OverridableMethodInConstructorCheck extends AbstractCheck {
      * @return List contains all METHOD_CALL nodes which are below on the
      *         current parent node.
      */
-    private List<DetailAST> getMethodCallsList(final DetailAST parentAST) {
-        final List<DetailAST> result = new LinkedList<>();
+    private static List<DetailAST> getMethodCallsList(final DetailAST parentAST) {
+        final List<DetailAST> result = new ArrayList<>();
+        collectMethodCalls(parentAST, result);
+        return result;
+    }
 
-        for (DetailAST curNode : getChildren(parentAST)) {
+    /**
+     * Collects all METHOD_CALL nodes which are below on the current parent
+     * node, without descending into the found method calls.
+     *
+     * @param parentAST
+     *            The current parent node.
+     * @param result
+     *            List to add the found METHOD_CALL nodes to.
+     */
+    private static void collectMethodCalls(final DetailAST parentAST,
+            final List<DetailAST> result) {
+        for (DetailAST curNode = parentAST.getFirstChild(); curNode != null;
+                curNode = curNode.getNextSibling()) {
             if (curNode.getNumberOfChildren() > 0) {
                 if (curNode.getType() == TokenTypes.METHOD_CALL) {
                     result.add(curNode);
                 }
                 else {
-                    result.addAll(getMethodCallsList(curNode));
+                    collectMethodCalls(curNode, result);
                 }
             }
         }
-        return result;
     }
 
     /**
@@ -457,8 +525,7 @@ public class OverridableMethodInConstructorCheck extends AbstractCheck {
                     final String curClassName = getClassDef(methodCallAST)
                             .findFirstToken(TokenTypes.IDENT).getText();
                     if (firstChild.getText().equals(curClassName)
-                            || getClassDef(treeRootAST,
-                                    firstChild.getText()) != null) {
+                            || classDefsByName.containsKey(firstChild.getText())) {
                         result = lastChild.getText();
                     }
                 }
@@ -482,44 +549,41 @@ public class OverridableMethodInConstructorCheck extends AbstractCheck {
     private DetailAST getMethodDef(final DetailAST methodCallAST) {
         DetailAST result = null;
 
-        curMethodDef = null;
-        curMethodDefCount = 0;
-
         final String methodName = getMethodName(methodCallAST);
         if (methodName != null) {
             final DetailAST curClassAST = getClassDef(methodCallAST);
             final DetailAST callsChild = methodCallAST.getFirstChild();
             final String variableTypeName = getVariableType(methodCallAST);
+            List<DetailAST> definitions = Collections.emptyList();
 
             if (variableTypeName == null
                     || callsChild.getType() != TokenTypes.DOT
                     || isItTypeOfCurrentClass(variableTypeName, curClassAST)
                     || isItCallMethodViaKeywordThis(variableTypeName, curClassAST)) {
-                getMethodDef(curClassAST, methodName);
+                definitions = getMethodDefs(curClassAST, methodName);
             }
 
-            if (curMethodDefCount == 0) {
+            if (definitions.isEmpty()) {
                 final List<DetailAST> baseClasses = getBaseClasses(curClassAST);
 
                 for (DetailAST curBaseClass : baseClasses) {
-                    curMethodDef = null;
-                    curMethodDefCount = 0;
-                    getMethodDef(curBaseClass, methodName);
-                    if (curMethodDefCount == 1) {
-                        result = curMethodDef;
+                    final List<DetailAST> baseDefinitions =
+                            getMethodDefs(curBaseClass, methodName);
+                    if (baseDefinitions.size() == 1) {
+                        result = baseDefinitions.get(0);
                         break;
                     }
                 }
             }
-            else if (curMethodDefCount == 1) {
-                result = curMethodDef;
+            else if (definitions.size() == 1) {
+                result = definitions.get(0);
             }
             else {
                 if (matchMethodsByArgCount) {
                     int sameDefinitionCounter = 0;
                     final int curMethodParamCount =
                             getMethodParamsCount(methodCallAST);
-                    for (DetailAST currentDefinition : getMethodDef(curClassAST, methodName)) {
+                    for (DetailAST currentDefinition : definitions) {
                         if (getMethodParamsCount(currentDefinition) == curMethodParamCount) {
                             result = currentDefinition;
                             sameDefinitionCounter++;
@@ -537,45 +601,28 @@ public class OverridableMethodInConstructorCheck extends AbstractCheck {
     }
 
     /**
-     * Gets the method definition is related to the current METHOD_CALL
-     * DetailAST using the name of method to be searched. Ignores overloaded
-     * methods (retrieves only one METHOD_DEF node).
+     * Gets all method definitions with the given name from the class body
+     * using the index of the current file.
      *
-     * @param parentAST
-     *            A parent CLASS_DEF DetailAST node which uses as a start point
-     *            when searching.
+     * @param classDefAST
+     *            A CLASS_DEF DetailAST node to search methods in.
      * @param methodName
      *            String containing the name of method is currently being
      *            searched.
-     * @return a List of method definition
+     * @return a List of method definitions, empty if none is found.
      */
-    private List<DetailAST> getMethodDef(final DetailAST parentAST,
+    private List<DetailAST> getMethodDefs(final DetailAST classDefAST,
             final String methodName) {
-        List<DetailAST> definitionsList = new LinkedList<>();
-
-        for (DetailAST curNode : getChildren(parentAST)) {
-            if (curNode.getNumberOfChildren() > 0) {
-                if (curNode.getType() == TokenTypes.METHOD_DEF) {
-                    final String curMethodName = curNode.findFirstToken(
-                            TokenTypes.IDENT).getText();
-                    if (methodName.equals(curMethodName)) {
-                        curMethodDef = curNode;
-                        definitionsList.add(0, curNode);
-                        curMethodDefCount++;
-                    }
-                }
-
-                final int type = curNode.getType();
+        final Map<String, List<DetailAST>> classMethods = methodDefsByClass.get(classDefAST);
+        List<DetailAST> result = null;
 
-                if (type != TokenTypes.CLASS_DEF && type != TokenTypes.CTOR_DEF
-                        && type != TokenTypes.MODIFIERS
-                        && type != TokenTypes.IMPLEMENTS_CLAUSE
-                        && type != TokenTypes.METHOD_DEF) {
-                    definitionsList = getMethodDef(curNode, methodName);
-                }
-            }
+        if (classMethods != null) {
+            result = classMethods.get(methodName);
         }
-        return definitionsList;
+        if (result == null) {
+            result = Collections.emptyList();
+        }
+        return result;
     }
 
     /**
@@ -727,40 +774,6 @@ public class OverridableMethodInConstructorCheck extends AbstractCheck {
         return curNode;
     }
 
-    /**
-     * Gets the CLASS_DEF DetailAST node for the class is named "aClassName".
-     *
-     * @param rootNode
-     *            A root node of syntax tree is being processed.
-     * @param className
-     *            The name of class to search.
-     * @return The CLASS_DEF DetailAST node which is related to the class is
-     *         named "aClassName".
-     */
-    private static DetailAST getClassDef(DetailAST rootNode, String className) {
-        DetailAST curNode = rootNode;
-
-        while (curNode != null) {
-            DetailAST toVisit = curNode.getFirstChild();
-            while (curNode != null && toVisit == null) {
-                toVisit = curNode.getNextSibling();
-                if (toVisit == null) {
-                    curNode = curNode.getParent();
-                }
-            }
-
-            curNode = toVisit;
-
-            if (curNode != null
-                    && curNode.getType() == TokenTypes.CLASS_DEF
-                    && curNode.findFirstToken(TokenTypes.IDENT).getText()
-                            .equals(className)) {
-                break;
-            }
-        }
-        return curNode;
-    }
-
     /**
      * Checks that class realizes "anInterfaceName" interface (checks that class
      * implements this interface or has at least one parent class which
@@ -833,7 +846,7 @@ public class OverridableMethodInConstructorCheck extends AbstractCheck {
         String baseClassName = getBaseClassName(classDefNode);
 
         if (baseClassName != null) {
-            DetailAST curClass = getClassDef(treeRootAST, baseClassName);
+            DetailAST curClass = classDefsByName.get(baseClassName);
             while (curClass != null) {
                 result.add(curClass);
                 baseClassName = getBaseClassName(curClass);
@@ -841,7 +854,7 @@ public class OverridableMethodInConstructorCheck extends AbstractCheck {
                     break;
                 }
 
-                final DetailAST nextClass = getClassDef(treeRootAST, baseClassName);
+                final DetailAST nextClass = classDefsByName.get(baseClassName);
 
                 // prevent infinite loop with similar named classes
                 if (nextClass == curClass) {
@@ -19,7 +19,9 @@
 
 package com.github.sevntu.checkstyle.checks.coding;
 
+import java.util.ArrayDeque;
 import java.util.Collection;
+import java.util.Deque;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -147,6 +149,12 @@ public class ReturnCountExtendedCheck extends AbstractCheck {
      */
     private int topLinesToIgnoreCount = DEFAULT_TOP_LINES_TO_IGNORE_COUNT;
 
+    /**
+     * Stack of the methods/ctors/lambdas which enclose the current node, the
+     * innermost one on the top.
+     */
+    private final Deque<DefinitionDetails> definitions = new ArrayDeque<>();
+
     /**
      * Creates the new check instance.
      */
@@ -227,6 +235,13 @@ public class ReturnCountExtendedCheck extends AbstractCheck {
             TokenTypes.METHOD_DEF,
             TokenTypes.CTOR_DEF,
             TokenTypes.LAMBDA,
+            TokenTypes.LITERAL_RETURN,
+            TokenTypes.LITERAL_IF,
+            TokenTypes.LITERAL_SWITCH,
+            TokenTypes.LITERAL_FOR,
+            TokenTypes.LITERAL_DO,
+            TokenTypes.LITERAL_WHILE,
+            TokenTypes.LITERAL_TRY,
         };
     }
 
@@ -240,10 +255,64 @@ public class ReturnCountExtendedCheck extends AbstractCheck {
         return getDefaultTokens();
     }
 
+    @Override
+    public void beginTree(DetailAST rootAST) {
+        definitions.clear();
+    }
+
     @Override
     public void visitToken(final DetailAST node) {
-        final DetailAST openingBrace = node
-                .findFirstToken(TokenTypes.SLIST);
+        switch (node.getType()) {
+            case TokenTypes.METHOD_DEF:
+            case TokenTypes.CTOR_DEF:
+            case TokenTypes.LAMBDA:
+                definitions.push(new DefinitionDetails(node));
+                break;
+            case TokenTypes.LITERAL_RETURN:
+                final DefinitionDetails definition = definitions.peek();
+                // "return" outside of methods, ctors and lambdas is not compilable
+                if (definition != null
+                        && definition.depth < minIgnoreReturnDepth
+                        && shouldEmptyReturnStatementBeCounted(node)
+                        && getLinesCount(definition.openingBrace,
+                                node) > topLinesToIgnoreCount) {
+                    definition.returnCount++;
+                }
+                break;
+            default:
+                if (!definitions.isEmpty()) {
+                    definitions.peek().depth++;
+                }
+                break;
+        }
+    }
+
+    @Override
+    public void leaveToken(final DetailAST node) {
+        switch (node.getType()) {
+            case TokenTypes.METHOD_DEF:
+            case TokenTypes.CTOR_DEF:
+            case TokenTypes.LAMBDA:
+                checkDefinition(definitions.pop());
+                break;
+            case TokenTypes.LITERAL_RETURN:
+                break;
+            default:
+                if (!definitions.isEmpty()) {
+                    definitions.peek().depth--;
+                }
+                break;
+        }
+    }
+
+    /**
+     * Checks the "return" statements count of the method/ctor/lambda which
+     * has been left.
+     * @param definition details of the method/ctor/lambda.
+     */
+    private void checkDefinition(DefinitionDetails definition) {
+        final DetailAST node = definition.node;
+        final DetailAST openingBrace = definition.openingBrace;
         final String nodeName = getMethodName(node);
         if (openingBrace != null
                 && !matches(nodeName, ignoreMethodsNames)) {
@@ -256,13 +325,9 @@ public class ReturnCountExtendedCheck extends AbstractCheck {
                 curMethodLinesCount--;
             }
 
-            if (curMethodLinesCount >= ignoreMethodLinesCount) {
-                final int mCurReturnCount = getReturnCount(node,
-                        openingBrace);
-
-                if (mCurReturnCount > maxReturnCount) {
-                    logViolation(node, nodeName, mCurReturnCount);
-                }
+            if (curMethodLinesCount >= ignoreMethodLinesCount
+                    && definition.returnCount > maxReturnCount) {
+                logViolation(node, nodeName, definition.returnCount);
             }
         }
     }
@@ -296,60 +361,6 @@ public class ReturnCountExtendedCheck extends AbstractCheck {
         }
     }
 
-    /**
-     * Gets the "return" statements count for given method/ctor/lambda and saves the
-     * last "return" statement DetailAST node for given method/ctor/lambda body. Uses
-     * an iterative algorithm.
-     * @param methodOpeningBrace
-     *        a DetailAST node that points to the current method`s opening
-     *        brace.
-     * @param methodDefNode
-     *        DetailAST node is pointing to current method definition is being
-     *        processed.
-     * @return "return" literals count for given method.
-     */
-    private int getReturnCount(final DetailAST methodDefNode,
-            final DetailAST methodOpeningBrace) {
-        int result = 0;
-
-        DetailAST curNode = methodOpeningBrace;
-
-        // stop at closing brace
-        while (curNode.getType() != TokenTypes.RCURLY
-                || curNode.getParent() != methodOpeningBrace) {
-            if (curNode.getType() == TokenTypes.LITERAL_RETURN
-                    && getDepth(methodDefNode, curNode) < minIgnoreReturnDepth
-                    && shouldEmptyReturnStatementBeCounted(curNode)
-                    && getLinesCount(methodOpeningBrace,
-                            curNode) > topLinesToIgnoreCount) {
-                result++;
-            }
-
-            // before node leaving
-            DetailAST nextNode = curNode.getFirstChild();
-
-            final int type = curNode.getType();
-            // skip nested methods (UI listeners, Runnable.run(), etc.)
-            if (type == TokenTypes.METHOD_DEF
-                  // skip anonymous classes
-                  || type == TokenTypes.CLASS_DEF
-                  // skip lambdas which is like an anonymous class/method
-                  || type == TokenTypes.LAMBDA) {
-                nextNode = curNode.getNextSibling();
-            }
-
-            while (nextNode == null) {
-                // leave the visited Node
-                nextNode = curNode.getNextSibling();
-                if (nextNode == null) {
-                    curNode = curNode.getParent();
-                }
-            }
-            curNode = nextNode;
-        }
-        return result;
-    }
-
     /**
      * Checks that the current processed "return" statement is "empty" and
      * should to be counted.
@@ -365,37 +376,6 @@ public class ReturnCountExtendedCheck extends AbstractCheck {
                 || returnChildNode.getType() != TokenTypes.SEMI;
     }
 
-    /**
-     * Gets the depth level of given "return" statement. There are few supported
-     * coding blocks when depth counting: "if-else", "for", "while"/"do-while"
-     * and "switch".
-     * @param methodDefNode
-     *        a DetailAST node that points to the current method`s definition.
-     * @param returnStmtNode
-     *        given "return" statement node.
-     * @return the depth of given
-     */
-    private static int getDepth(DetailAST methodDefNode,
-            DetailAST returnStmtNode) {
-        int result = 0;
-
-        DetailAST curNode = returnStmtNode;
-
-        while (!curNode.equals(methodDefNode)) {
-            curNode = curNode.getParent();
-            final int type = curNode.getType();
-            if (type == TokenTypes.LITERAL_IF
-                    || type == TokenTypes.LITERAL_SWITCH
-                    || type == TokenTypes.LITERAL_FOR
-                    || type == TokenTypes.LITERAL_DO
-                    || type == TokenTypes.LITERAL_WHILE
-                    || type == TokenTypes.LITERAL_TRY) {
-                result++;
-            }
-        }
-        return result;
-    }
-
     /**
      * Gets the name of given method by DetailAST node is pointing to desired
      * method definition.
@@ -456,4 +436,36 @@ public class ReturnCountExtendedCheck extends AbstractCheck {
         return result;
     }
 
+    /**
+     * Keeps the "return" statements count of method/ctor/lambda and the depth
+     * of the current node inside its body.
+     */
+    private static final class DefinitionDetails {
+
+        /** The method/ctor/lambda definition. */
+        private final DetailAST node;
+
+        /** The opening brace of the body or null if there is no body. */
+        private final DetailAST openingBrace;
+
+        /**
+         * The number of "if-else", "for", "while"/"do-while", "switch" and
+         * "try" blocks which enclose the current node.
+         */
+        private int depth;
+
+        /** The "return" statements count. */
+        private int returnCount;
+
+        /**
+         * Creates new instance.
+         * @param node the method/ctor/lambda definition.
+         */
+        /* package */ DefinitionDetails(DetailAST node) {
+            this.node = node;
+            openingBrace = node.findFirstToken(TokenTypes.SLIST);
+        }
+
+    }
+
 }
@@ -19,11 +19,17 @@
 
 package com.github.sevntu.checkstyle.checks.coding;
 
-import java.util.LinkedList;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import com.puppycrawl.tools.checkstyle.api.AbstractCheck;
 import com.puppycrawl.tools.checkstyle.api.DetailAST;
+import com.puppycrawl.tools.checkstyle.api.FileContents;
+import com.puppycrawl.tools.checkstyle.api.TextBlock;
 import com.puppycrawl.tools.checkstyle.api.TokenTypes;
 
 /**
@@ -117,10 +123,20 @@ public class TernaryPerExpressionCountCheck extends AbstractCheck {
      */
     private boolean ignoreIsolatedTernaryOnLine = true;
 
+    /** Expressions enclosing the current token, the innermost expression first. */
+    private final Deque<ExpressionDetails> expressions = new ArrayDeque<>();
+
+    /**
+     * Numbers of '?' characters outside of comments on lines of the file, up
+     * to 2. Index of the array is the line number starting from 0.
+     */
+    private int[] questionsPerLine;
+
     @Override
     public int[] getDefaultTokens() {
         return new int[] {
             TokenTypes.EXPR,
+            TokenTypes.QUESTION,
         };
     }
 
@@ -168,37 +184,45 @@ public class TernaryPerExpressionCountCheck extends AbstractCheck {
     }
 
     @Override
-    public void visitToken(DetailAST expressionNode) {
-        final List<DetailAST> questionNodes = getQuestionNodes(expressionNode);
-
-        if (questionNodes.size() > maxTernaryPerExpressionCount) {
-            final DetailAST firstQuestionNode = questionNodes.get(0);
-            log(firstQuestionNode, MSG_KEY, maxTernaryPerExpressionCount);
+    public void beginTree(DetailAST rootAST) {
+        expressions.clear();
+        if (ignoreIsolatedTernaryOnLine) {
+            questionsPerLine = countQuestionsPerLine(getFileContents());
         }
     }
 
-    /**
-     * Puts question nodes from current expression node into the list.
-     * @param expressionNode
-     *          Globally considering expression node
-     * @return
-     *          List of question nodes
-     */
-    private List<DetailAST> getQuestionNodes(DetailAST expressionNode) {
-        final List<DetailAST> questionNodes = new LinkedList<>();
+    @Override
+    public void visitToken(DetailAST ast) {
+        if (ast.getType() == TokenTypes.EXPR) {
+            expressions.push(new ExpressionDetails());
+        }
+        else if (!isSkipTernaryOperator(ast)) {
+            final ExpressionDetails expression = expressions.peek();
+            if (expression.firstQuestionNode == null) {
+                expression.firstQuestionNode = ast;
+            }
+            expression.questionsCount++;
+        }
+    }
 
-        DetailAST currentNode = expressionNode;
+    @Override
+    public void leaveToken(DetailAST ast) {
+        if (ast.getType() == TokenTypes.EXPR) {
+            final ExpressionDetails expression = expressions.pop();
 
-        do {
-            currentNode = getNextNode(expressionNode, currentNode);
-            if (currentNode != null
-                    && currentNode.getType() == TokenTypes.QUESTION
-                    && !isSkipTernaryOperator(currentNode)) {
-                questionNodes.add(currentNode);
+            if (expression.questionsCount > maxTernaryPerExpressionCount) {
+                log(expression.firstQuestionNode, MSG_KEY, maxTernaryPerExpressionCount);
             }
-        } while (currentNode != null);
 
-        return questionNodes;
+            // nested expressions are part of the enclosing expression
+            final ExpressionDetails enclosingExpression = expressions.peek();
+            if (enclosingExpression != null) {
+                if (enclosingExpression.firstQuestionNode == null) {
+                    enclosingExpression.firstQuestionNode = expression.firstQuestionNode;
+                }
+                enclosingExpression.questionsCount += expression.questionsCount;
+            }
+        }
     }
 
     /**
@@ -230,57 +254,83 @@ public class TernaryPerExpressionCountCheck extends AbstractCheck {
      * @return true if ternary is isolated on line.
      */
     private boolean isIsolatedTernaryOnLine(DetailAST questionAST) {
-        final int lineNo = questionAST.getLineNo() - 1;
-        final String line = getFileContents().getText().get(lineNo);
-
-        return isSingleTernaryLine(line, lineNo);
+        return questionsPerLine[questionAST.getLineNo() - 1] == 1;
     }
 
     /**
-     * Checks line parameter on containing more than 1 ternary operator.
-     * @param line The line to examine.
-     * @param lineNo The line number of the line.
-     * @return true if line is single ternary.
+     * Counts '?' characters which are not in comments on each line of the
+     * file. Counting stops at 2, as more characters don't matter.
+     * @param contents The contents of the file.
+     * @return numbers of '?' characters by line number starting from 0.
      */
-    private boolean isSingleTernaryLine(String line, int lineNo) {
-        int questionsPerLine = 0;
-        final char[] charArrayFromLine = line.toCharArray();
-        for (int i = 0; i < line.length(); i++) {
-            final char currentSymbol = charArrayFromLine[i];
-            if (currentSymbol == '?' && !getFileContents().hasIntersectionWithComment(lineNo + 1,
-                    i, lineNo + 1, i)) {
-                questionsPerLine++;
-            }
-            if (questionsPerLine > 1) {
-                break;
+    private static int[] countQuestionsPerLine(FileContents contents) {
+        final String[] lines = contents.getLines();
+        final Map<Integer, List<TextBlock>> comments = getCommentsPerLine(contents);
+        final int[] result = new int[lines.length];
+        for (int lineNo = 0; lineNo < lines.length; lineNo++) {
+            final List<TextBlock> lineComments = comments.get(lineNo + 1);
+            int column = lines[lineNo].indexOf('?');
+            while (column >= 0 && result[lineNo] < 2) {
+                if (lineComments == null || !intersects(lineComments, lineNo + 1, column)) {
+                    result[lineNo]++;
+                }
+                column = lines[lineNo].indexOf('?', column + 1);
             }
         }
+        return result;
+    }
 
-        return questionsPerLine == 1;
+    /**
+     * Groups comments of the file by the lines they occupy.
+     * @param contents The contents of the file.
+     * @return comments by line numbers starting from 1.
+     */
+    private static Map<Integer, List<TextBlock>> getCommentsPerLine(FileContents contents) {
+        final Map<Integer, List<TextBlock>> result = new HashMap<>();
+        for (List<TextBlock> blockComments : contents.getBlockComments().values()) {
+            for (TextBlock comment : blockComments) {
+                for (int lineNo = comment.getStartLineNo(); lineNo <= comment.getEndLineNo();
+                        lineNo++) {
+                    result.computeIfAbsent(lineNo, key -> new ArrayList<>()).add(comment);
+                }
+            }
+        }
+        for (TextBlock comment : contents.getSingleLineComments().values()) {
+            result.computeIfAbsent(comment.getStartLineNo(), key -> new ArrayList<>())
+                    .add(comment);
+        }
+        return result;
     }
 
     /**
-     * Gets the next node of a syntactical tree (child of a current node or
-     * sibling of a current node, or sibling of a parent of a current node).
-     *
-     * @param expressionNode
-     *            Globally considering expression node
-     * @param node
-     *            Current node of syntactical tree
-     * @return Next node after bypassing
+     * Checks if the given position is inside of one of the comments.
+     * @param comments The comments on the line.
+     * @param lineNo The line number starting from 1.
+     * @param column The column number starting from 0.
+     * @return true if the position is in a comment.
      */
-    private static DetailAST getNextNode(DetailAST expressionNode,
-            DetailAST node) {
-        DetailAST currentNode = node;
-        DetailAST toVisit = currentNode.getFirstChild();
-        while (toVisit == null && currentNode != expressionNode) {
-            toVisit = currentNode.getNextSibling();
-            if (toVisit == null) {
-                currentNode = currentNode.getParent();
+    private static boolean intersects(List<TextBlock> comments, int lineNo, int column) {
+        boolean result = false;
+        for (TextBlock comment : comments) {
+            if (comment.intersects(lineNo, column, lineNo, column)) {
+                result = true;
+                break;
             }
         }
+        return result;
+    }
+
+    /**
+     * Number of ternary operators in the expression with the first of them.
+     */
+    private static final class ExpressionDetails {
+
+        /** The first counted ternary operator of the expression in order of the tree. */
+        private DetailAST firstQuestionNode;
+
+        /** Number of counted ternary operators of the expression. */
+        private int questionsCount;
 
-        return toVisit;
     }
 
 }
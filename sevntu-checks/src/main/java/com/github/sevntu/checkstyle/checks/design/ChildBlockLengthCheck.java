@@ -19,11 +19,11 @@
 
 package com.github.sevntu.checkstyle.checks.design;
 
+import java.util.ArrayDeque;
 import java.util.Arrays;
-import java.util.LinkedList;
-import java.util.List;
+import java.util.Deque;
+import java.util.Iterator;
 
-import com.google.common.collect.Lists;
 import com.puppycrawl.tools.checkstyle.api.AbstractCheck;
 import com.puppycrawl.tools.checkstyle.api.DetailAST;
 import com.puppycrawl.tools.checkstyle.api.TokenTypes;
@@ -44,6 +44,11 @@ import com.puppycrawl.tools.checkstyle.utils.TokenUtil;
  * to read in case child block is long(few display screens). Such child blocks
  * should be refactored or moved to separate method.
  * </p>
+ * <p>
+ * Each block is compared with all the blocks it is nested into, blocks of
+ * methods of local and anonymous classes are not compared with blocks outside
+ * of these methods.
+ * </p>
  * @author <a href="mailto:Daniil.Yaroslavtsev@gmail.com"> Daniil
  *         Yaroslavtsev</a>
  * @since 1.8.0
@@ -92,6 +97,9 @@ public class ChildBlockLengthCheck extends AbstractCheck {
      */
     private int ignoreBlockLinesCount = DEFAULT_IGNORE_BLOCK_LINESCOUNT;
 
+    /** Blocks enclosing the current token, the innermost block first. */
+    private final Deque<BlockDetails> blocks = new ArrayDeque<>();
+
     /**
      * Sets allowed types of blocks to be checked. Supported block types:
      * LITERAL_IF, LITERAL_SWITCH, LITERAL_FOR, LITERAL_DO, LITERAL_WHILE,
@@ -150,138 +158,106 @@ public class ChildBlockLengthCheck extends AbstractCheck {
         return getDefaultTokens();
     }
 
+    @Override
+    public void beginTree(DetailAST rootAST) {
+        blocks.clear();
+    }
+
     @Override
     public void visitToken(DetailAST ast) {
         final DetailAST aOpeningBrace = openingBrace(ast);
+        int blockSize = 0;
+        BlockDetails parentBlock = null;
 
         // if the block has braces at all
         if (aOpeningBrace != null) {
-            final DetailAST aClosingBrace = closingBrace(ast);
-            final int parentBlockSize =
-                    linesCount(aOpeningBrace, aClosingBrace);
-
-            if (parentBlockSize > ignoreBlockLinesCount) {
-                final List<DetailAST> childBlocks = getChildBlocks(
-                        aOpeningBrace, aClosingBrace);
-
-                final List<DetailAST> badChildBlocks = getBadChildBlocks(
-                        childBlocks, parentBlockSize);
-
-                if (badChildBlocks.isEmpty()) {
-                    for (DetailAST childBlock : childBlocks) {
-                        visitToken(childBlock);
-                    }
-                }
-                else {
-                    for (DetailAST badBlock : badChildBlocks) {
-                        final int blockSize = linesCount(badBlock);
+            blockSize = linesCount(aOpeningBrace, closingBrace(ast));
+            parentBlock = findParentBlock(ast);
+            if (parentBlock != null && parentBlock.size <= ignoreBlockLinesCount) {
+                parentBlock = parentBlock.parent;
+            }
 
-                        final double allowedBlockSize = (int) (parentBlockSize
-                                * maxChildBlockPercentage / PERCENTS_FACTOR);
+            // enclosing blocks grow outwards, so the first block which is
+            // large enough for the child ends the search
+            BlockDetails enclosingBlock = parentBlock;
+            while (enclosingBlock != null
+                    && getPercentage(enclosingBlock.size, blockSize)) {
+                final double allowedBlockSize = (int) (enclosingBlock.size
+                        * maxChildBlockPercentage / PERCENTS_FACTOR);
 
-                        log(badBlock, MSG_KEY, blockSize, allowedBlockSize);
-                    }
-                }
+                log(ast, MSG_KEY, blockSize, allowedBlockSize);
+                enclosingBlock = enclosingBlock.parent;
             }
         }
+        blocks.push(new BlockDetails(ast, blockSize, parentBlock));
     }
 
-    /**
-     * Gets all the child blocks for given parent block. Uses an iterative
-     * algorithm.
-     * @param blockOpeningBrace
-     *        a DetailAST node that points to the current method`s opening
-     *        brace.
-     * @param blockClosingBrace
-     *        the a block closing brace
-     * @return all child blocks that have braces.
-     */
-    private List<DetailAST> getChildBlocks(DetailAST blockOpeningBrace,
-            DetailAST blockClosingBrace) {
-        final List<DetailAST> childBlocks = Lists.newLinkedList();
-
-        DetailAST curNode = blockOpeningBrace;
-
-        while (curNode != blockClosingBrace) {
-            if (isAllowedBlockType(curNode.getType())) {
-                childBlocks.add(curNode);
-            }
-            // before node leaving
-            DetailAST nextNode = curNode.getFirstChild();
-
-            final int type = curNode.getType();
-            // skip anonymous classes and nested methods
-            if (type == TokenTypes.METHOD_DEF
-                    || type == TokenTypes.CLASS_DEF) {
-                nextNode = curNode.getNextSibling();
-            }
-
-            while (nextNode == null) {
-                // leave the visited node
-                nextNode = curNode.getNextSibling();
-                if (nextNode == null) {
-                    curNode = curNode.getParent();
-                }
-            }
-            curNode = nextNode;
-        }
-        return childBlocks;
+    @Override
+    public void leaveToken(DetailAST ast) {
+        blocks.pop();
     }
 
     /**
-     * Checks that given child block type is allowed.
-     * @param blockType
-     *        the token type ID for the given block.
-     * @return true, if the given child block type is allowed.
+     * Finds the innermost block which has the given block between its braces.
+     * Only the tokens between the given block and that parent are visited.
+     * @param ast
+     *        the DetailAST node is related to the given block.
+     * @return details of the parent block or null if the block is not nested
+     *         into other blocks of the same method.
      */
-    private boolean isAllowedBlockType(int blockType) {
-        boolean result = false;
-        for (int type : blockTypes) {
-            if (type == blockType) {
-                result = true;
-                break;
+    private BlockDetails findParentBlock(DetailAST ast) {
+        final Iterator<BlockDetails> enclosingBlocks = blocks.iterator();
+        BlockDetails candidate = nextBlock(enclosingBlocks);
+        BlockDetails result = null;
+        DetailAST child = ast;
+        DetailAST node = ast.getParent();
+
+        // skip anonymous classes and nested methods
+        while (result == null && candidate != null
+                && node.getType() != TokenTypes.METHOD_DEF
+                && node.getType() != TokenTypes.CLASS_DEF) {
+            if (node == candidate.block) {
+                if (isBetweenBraces(node, child)) {
+                    result = candidate;
+                }
+                candidate = nextBlock(enclosingBlocks);
             }
+            child = node;
+            node = node.getParent();
         }
         return result;
     }
 
     /**
-     * Gets the child blocks which occupies too much size (in percentage) of
-     * given parent block size.
-     * @param blocksList
-     *        the blocks
-     * @param parentBlockSize
-     *        the a parent block size
-     * @return the wrong child blocks
+     * Gets the next block from the given iterator.
+     * @param iterator
+     *        the iterator over blocks.
+     * @return the next block or null if there are no more blocks.
      */
-    private List<DetailAST> getBadChildBlocks(List<DetailAST> blocksList,
-            int parentBlockSize) {
-        final List<DetailAST> result = new LinkedList<>();
-        for (DetailAST block : blocksList) {
-            if (isChildBlockBad(block, parentBlockSize)) {
-                result.add(block);
-            }
+    private static BlockDetails nextBlock(Iterator<BlockDetails> iterator) {
+        BlockDetails result = null;
+        if (iterator.hasNext()) {
+            result = iterator.next();
         }
         return result;
     }
 
     /**
-     * Checks if the child block size percentage from parent block is greater
-     * than.
-     * @param childBlock
-     *        the a child block node
-     * @param parentBlockSize
-     *        the a parent block size
-     * @return true, if is child block wrong
+     * Checks that the given child node of a block is placed between braces of
+     * the block, e.g. it is not the condition or the "else" part of "if".
+     * @param block
+     *        the DetailAST node is related to the given block.
+     * @param child
+     *        the child node of the block.
+     * @return true, if the child node is between braces of the block.
      */
-    private boolean isChildBlockBad(DetailAST childBlock,
-            int parentBlockSize) {
-        boolean result = false;
-        final DetailAST openingBrace = openingBrace(childBlock);
-        if (openingBrace != null) {
-            final DetailAST closingBrace = closingBrace(childBlock);
-            final int childBlockSize = linesCount(openingBrace, closingBrace);
-            result = getPercentage(parentBlockSize, childBlockSize);
+    private static boolean isBetweenBraces(DetailAST block, DetailAST child) {
+        final boolean result;
+        if (block.getType() == TokenTypes.LITERAL_SWITCH) {
+            result = child.getType() == TokenTypes.CASE_GROUP;
+        }
+        else {
+            result = child == openingBrace(block);
         }
         return result;
     }
@@ -337,17 +313,6 @@ public class ChildBlockLengthCheck extends AbstractCheck {
         return result;
     }
 
-    /**
-     * Gets the lines count between braces of the given block.
-     * @param blockAst
-     *        - the DetailAST node is related to the given block (the block
-     *        should have braces!).
-     * @return the lines count between the given block braces.
-     */
-    private static int linesCount(DetailAST blockAst) {
-        return linesCount(openingBrace(blockAst), closingBrace(blockAst));
-    }
-
     /**
      * Gets the lines count between the given block opening and closing braces.
      * @param openingBrace
@@ -365,4 +330,35 @@ public class ChildBlockLengthCheck extends AbstractCheck {
         return result;
     }
 
+    /**
+     * Details of a block with the sizes of its enclosing blocks.
+     */
+    private static final class BlockDetails {
+
+        /** The DetailAST node is related to the block. */
+        private final DetailAST block;
+
+        /** The lines count between braces of the block. */
+        private final int size;
+
+        /**
+         * The innermost enclosing block which is larger than the ignored block
+         * size, or null.
+         */
+        private final BlockDetails parent;
+
+        /**
+         * Creates the block details.
+         * @param block the DetailAST node is related to the block.
+         * @param size the lines count between braces of the block.
+         * @param parent the innermost enclosing block which is checked.
+         */
+        BlockDetails(DetailAST block, int size, BlockDetails parent) {
+            this.block = block;
+            this.size = size;
+            this.parent = parent;
+        }
+
+    }
+
 }
@@ -19,6 +19,11 @@
 
 package com.github.sevntu.checkstyle.checks.design;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import com.github.sevntu.checkstyle.SemanticModel;
+import com.github.sevntu.checkstyle.SemanticModel.TypeDetails;
 import com.puppycrawl.tools.checkstyle.api.AbstractCheck;
 import com.puppycrawl.tools.checkstyle.api.DetailAST;
 import com.puppycrawl.tools.checkstyle.api.TokenTypes;
@@ -42,6 +47,9 @@ public class HideUtilityClassConstructorCheck extends AbstractCheck {
      */
     public static final String MSG_KEY = "hide.utility.class";
 
+    /** Model of the file being checked. */
+    private SemanticModel semanticModel;
+
     @Override
     public int[] getDefaultTokens() {
         return new int[] {
@@ -59,50 +67,51 @@ public class HideUtilityClassConstructorCheck extends AbstractCheck {
         return getDefaultTokens();
     }
 
+    @Override
+    public void beginTree(DetailAST rootAST) {
+        semanticModel = SemanticModel.of(rootAST);
+    }
+
+    @Override
+    public void finishTree(DetailAST rootAST) {
+        semanticModel = null;
+    }
+
     @Override
     public void visitToken(DetailAST ast) {
+        final TypeDetails type = semanticModel.getType(ast);
         // abstract class could not have private constructor
-        if (!isAbstract(ast)) {
-            final DetailAST objBlock = ast.findFirstToken(TokenTypes.OBJBLOCK);
-            DetailAST child = objBlock.getFirstChild();
-            final boolean hasStaticModifier = isStatic(ast);
-            boolean hasMethodOrField = false;
+        if (!type.hasModifier(TokenTypes.ABSTRACT)) {
+            final boolean hasStaticModifier = type.hasModifier(TokenTypes.LITERAL_STATIC);
             boolean hasNonStaticMethodOrField = false;
             boolean hasNonPrivateStaticMethodOrField = false;
-            boolean hasDefaultCtor = true;
+            final boolean hasDefaultCtor = type.getCtors().isEmpty();
             boolean hasPublicCtor = false;
 
-            while (child != null) {
-                final int type = child.getType();
-                if (type == TokenTypes.METHOD_DEF
-                        || type == TokenTypes.VARIABLE_DEF) {
-                    hasMethodOrField = true;
-                    final DetailAST modifiers =
-                        child.findFirstToken(TokenTypes.MODIFIERS);
-                    final boolean isStatic =
-                        modifiers.findFirstToken(TokenTypes.LITERAL_STATIC) != null;
-                    final boolean isPrivate =
-                        modifiers.findFirstToken(TokenTypes.LITERAL_PRIVATE) != null;
-
-                    if (!isStatic && !isPrivate) {
-                        hasNonStaticMethodOrField = true;
-                    }
-                    if (isStatic && !isPrivate) {
-                        hasNonPrivateStaticMethodOrField = true;
-                    }
+            for (DetailAST member : getMethodsAndFields(type)) {
+                final DetailAST modifiers =
+                    member.findFirstToken(TokenTypes.MODIFIERS);
+                final boolean isStatic =
+                    modifiers.findFirstToken(TokenTypes.LITERAL_STATIC) != null;
+                final boolean isPrivate =
+                    modifiers.findFirstToken(TokenTypes.LITERAL_PRIVATE) != null;
+
+                if (!isStatic && !isPrivate) {
+                    hasNonStaticMethodOrField = true;
                 }
-                if (type == TokenTypes.CTOR_DEF) {
-                    hasDefaultCtor = false;
-                    final DetailAST modifiers =
-                        child.findFirstToken(TokenTypes.MODIFIERS);
-                    if (modifiers.findFirstToken(TokenTypes.LITERAL_PRIVATE) == null
-                        && modifiers.findFirstToken(TokenTypes.LITERAL_PROTECTED) == null) {
-                        // treat package visible as public
-                        // for the purpose of this Check
-                        hasPublicCtor = true;
-                    }
+                if (isStatic && !isPrivate) {
+                    hasNonPrivateStaticMethodOrField = true;
+                }
+            }
+            for (DetailAST ctor : type.getCtors()) {
+                final DetailAST modifiers =
+                    ctor.findFirstToken(TokenTypes.MODIFIERS);
+                if (modifiers.findFirstToken(TokenTypes.LITERAL_PRIVATE) == null
+                    && modifiers.findFirstToken(TokenTypes.LITERAL_PROTECTED) == null) {
+                    // treat package visible as public
+                    // for the purpose of this Check
+                    hasPublicCtor = true;
                 }
-                child = child.getNextSibling();
             }
 
             final boolean hasAccessibleCtor = hasDefaultCtor || hasPublicCtor;
@@ -115,7 +124,7 @@ public class HideUtilityClassConstructorCheck extends AbstractCheck {
                 // J.Lo even made it into in our sources :-)
                 ast.findFirstToken(TokenTypes.EXTENDS_CLAUSE) == null;
 
-            final boolean isUtilClass = extendsJlo && hasMethodOrField
+            final boolean isUtilClass = extendsJlo
                 && !hasNonStaticMethodOrField
                 && hasNonPrivateStaticMethodOrField;
 
@@ -126,27 +135,14 @@ public class HideUtilityClassConstructorCheck extends AbstractCheck {
     }
 
     /**
-     * Test is AST object has abstract modifier.
-     * @param ast class definition for check.
-     * @return true if a given class declared as abstract.
-     */
-    private static boolean isAbstract(DetailAST ast) {
-        final DetailAST abstractAST = ast.findFirstToken(TokenTypes.MODIFIERS)
-            .findFirstToken(TokenTypes.ABSTRACT);
-
-        return abstractAST != null;
-    }
-
-    /**
-     * Test is AST object has static modifier.
-     * @param ast class definition for check.
-     * @return true if a given class declared as static.
+     * Gets all methods and fields declared in the body of the type.
+     * @param type the type.
+     * @return METHOD_DEF and VARIABLE_DEF nodes.
      */
-    private static boolean isStatic(DetailAST ast) {
-        final DetailAST staticAST = ast.findFirstToken(TokenTypes.MODIFIERS)
-            .findFirstToken(TokenTypes.LITERAL_STATIC);
-
-        return staticAST != null;
+    private static List<DetailAST> getMethodsAndFields(TypeDetails type) {
+        final List<DetailAST> result = new ArrayList<>(type.getMethods());
+        result.addAll(type.getFields());
+        return result;
     }
 
 }
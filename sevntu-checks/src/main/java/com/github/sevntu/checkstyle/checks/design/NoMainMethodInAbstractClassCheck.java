@@ -19,9 +19,8 @@
 
 package com.github.sevntu.checkstyle.checks.design;
 
-import java.util.Deque;
-import java.util.LinkedList;
-
+import com.github.sevntu.checkstyle.SemanticModel;
+import com.github.sevntu.checkstyle.SemanticModel.TypeDetails;
 import com.puppycrawl.tools.checkstyle.api.AbstractCheck;
 import com.puppycrawl.tools.checkstyle.api.DetailAST;
 import com.puppycrawl.tools.checkstyle.api.TokenTypes;
@@ -42,23 +41,23 @@ public class NoMainMethodInAbstractClassCheck extends AbstractCheck {
     /** String representation of string class. */
     private static final String STRING_CLASS = "String";
 
-    /**
-     * Keep OBJBLOCKs of classes that are under validation.
-     */
-    private final Deque<DetailAST> objBlockTokensStack =
-            new LinkedList<>();
+    /** Model of the file being checked. */
+    private SemanticModel semanticModel;
 
     @Override
     public final int[] getDefaultTokens() {
         return new int[] {
             TokenTypes.CLASS_DEF,
-            TokenTypes.METHOD_DEF,
         };
     }
 
     @Override
     public int[] getAcceptableTokens() {
-        return getDefaultTokens();
+        // METHOD_DEF is accepted for compatibility with older configurations, it is ignored
+        return new int[] {
+            TokenTypes.CLASS_DEF,
+            TokenTypes.METHOD_DEF,
+        };
     }
 
     @Override
@@ -67,84 +66,39 @@ public class NoMainMethodInAbstractClassCheck extends AbstractCheck {
     }
 
     @Override
-    public final void visitToken(final DetailAST ast) {
-        if (ast.getType() == TokenTypes.CLASS_DEF) {
-            if (isNotInnerClass(ast)) {
-                // remove all tokens from stack
-                objBlockTokensStack.clear();
-            }
-            if (hasAbstractModifier(ast)) {
-                objBlockTokensStack.push(
-                        ast.findFirstToken(TokenTypes.OBJBLOCK));
-            }
-        }
-        // type of token is METHOD_DEF
-        else if (isChildOfCurrentObjBlockToken(ast) && isMainMethod(ast)) {
-            log(ast, MSG_KEY);
-            // remove current objblock
-            objBlockTokensStack.pop();
-        }
+    public void beginTree(DetailAST rootAST) {
+        semanticModel = SemanticModel.of(rootAST);
     }
 
-    /**
-     * Verify that class is not inner.
-     * @param classDefAST
-     *        DetailAST of class definition.
-     * @return true if class is not inner, false otherwise.
-     */
-    private boolean isNotInnerClass(final DetailAST classDefAST) {
-        boolean result = true;
-        final DetailAST objBlockAST = classDefAST.getParent();
-        for (DetailAST currentObjBlock : objBlockTokensStack) {
-            if (objBlockAST == currentObjBlock) {
-                result = false;
-                break;
-            }
-        }
-        return result;
-    }
-
-    /**
-     * Verify that aMethodDefAST is child token of considered objblock.
-     * @param methodDefAST DetailAST of method definition.
-     * @return true if aMethodDefAST is child of of considered objblock.
-     */
-    private boolean isChildOfCurrentObjBlockToken(final DetailAST methodDefAST) {
-        final DetailAST objBlockAST = objBlockTokensStack.peek();
-        return objBlockAST != null
-                && methodDefAST.getParent() == objBlockAST;
+    @Override
+    public void finishTree(DetailAST rootAST) {
+        semanticModel = null;
     }
 
-    /**
-     * Return true if AST has abstract modifier.
-     * @param classDefAST
-     *        AST which has modifier
-     * @return true if AST has abstract modifier, false otherwise.
-     */
-    private static boolean hasAbstractModifier(final DetailAST classDefAST) {
-        final DetailAST modifiers =
-                classDefAST.findFirstToken(TokenTypes.MODIFIERS);
-        return hasChildToken(modifiers, TokenTypes.ABSTRACT);
+    @Override
+    public final void visitToken(final DetailAST ast) {
+        if (ast.getType() == TokenTypes.CLASS_DEF) {
+            final TypeDetails type = semanticModel.getType(ast);
+            if (type.hasModifier(TokenTypes.ABSTRACT)) {
+                for (DetailAST method : type.getMethods("main")) {
+                    if (isMainMethod(method)) {
+                        log(method, MSG_KEY);
+                    }
+                }
+            }
+        }
     }
 
     /**
-     * Verifies that the given DetailAST is a main method.
+     * Verifies that the given DetailAST of a method named 'main' is a main method.
      * @param methodAST
      *        DetailAST instance.
      * @return true if aMethodAST is a main method, false otherwise.
      */
     private static boolean isMainMethod(final DetailAST methodAST) {
-        boolean result = true;
-        final String methodName = getIdentifier(methodAST);
-        if ("main".equals(methodName)) {
-            result = isVoidType(methodAST)
-                    && isMainMethodModifiers(methodAST)
-                    && isMainMethodParameters(methodAST);
-        }
-        else {
-            result = false;
-        }
-        return result;
+        return isVoidType(methodAST)
+                && isMainMethodModifiers(methodAST)
+                && isMainMethodParameters(methodAST);
     }
 
     /**
@@ -21,8 +21,10 @@ package com.github.sevntu.checkstyle.checks.design;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.LinkedList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import com.google.common.base.Optional;
@@ -160,6 +162,14 @@ public class StaticMethodCandidateCheck extends AbstractCheck {
     @Override
     public void beginTree(DetailAST rootAST) {
         currentFrame = new Frame(null);
+        // top-level types are checked and released one by one, so they are registered
+        // in advance to be found by the types declared before them
+        for (DetailAST ast = rootAST; ast != null; ast = ast.getNextSibling()) {
+            if (ast.getType() == TokenTypes.CLASS_DEF
+                    || ast.getType() == TokenTypes.ENUM_DEF) {
+                currentFrame.addClassOrEnum(createFrame(currentFrame, ast));
+            }
+        }
 
         Arrays.sort(FRAME_TOKENS);
     }
@@ -228,14 +238,18 @@ public class StaticMethodCandidateCheck extends AbstractCheck {
         if (isFrame(ast)
                 || isAnonymousClass(ast)) {
             currentFrame = currentFrame.parent;
+            if (currentFrame.parent == null) {
+                // result of checkFrame() is only used while checking methods and not needed
+                // here as we start from the root of the Frame tree
+                checkFrame(currentFrame);
+                currentFrame.children.clear();
+            }
         }
     }
 
     @Override
     public void finishTree(DetailAST ast) {
-        // result of checkFrame() is only used while checking methods and not needed here
-        // as we start from the root of the Frame tree
-        checkFrame(currentFrame);
+        currentFrame = null;
     }
 
     /**
@@ -447,13 +461,7 @@ public class StaticMethodCandidateCheck extends AbstractCheck {
         Optional<Frame> result = Optional.absent();
         Optional<Frame> parentFrame = Optional.of(frame.parent);
         while (parentFrame.isPresent() && !result.isPresent()) {
-            for (Frame child: parentFrame.get().children) {
-                if (child.isClassOrEnum
-                        && frameName.equals(child.frameName)) {
-                    result = Optional.of(child);
-                    break;
-                }
-            }
+            result = parentFrame.get().findClassOrEnumInFrame(frameName);
             parentFrame = Optional.fromNullable(parentFrame.get().parent);
         }
         return result;
@@ -636,12 +644,11 @@ public class StaticMethodCandidateCheck extends AbstractCheck {
         boolean hasStaticMethod = false;
         while (!hasNonStaticMethod
                 && frame.isPresent()) {
-            for (DetailAST method: frame.get().methods) {
+            for (DetailAST method: frame.get().findMethodsInFrame(checkedMethodName)) {
                 final DetailAST parametersAst = method.findFirstToken(TokenTypes.PARAMETERS);
 
-                if (checkedMethodName.equals(getIdentText(method))
-                        && (parametersAst.getChildCount() == argsNumber
-                            || parametersAst.branchContains(TokenTypes.ELLIPSIS))) {
+                if (parametersAst.getChildCount() == argsNumber
+                        || parametersAst.branchContains(TokenTypes.ELLIPSIS)) {
                     final DetailAST modifiersAst = method.findFirstToken(TokenTypes.MODIFIERS);
 
                     if (modifiersAst.findFirstToken(TokenTypes.LITERAL_STATIC) == null) {
@@ -704,16 +711,19 @@ public class StaticMethodCandidateCheck extends AbstractCheck {
         private final Frame parent;
 
         /** List of frame's children. */
-        private final List<Frame> children = new LinkedList<>();
+        private final List<Frame> children = new ArrayList<>();
+
+        /** Frames of child classes and enums by their names. */
+        private final Map<String, Frame> classesAndEnums = new HashMap<>();
 
-        /** List of fields. */
-        private final List<DetailAST> fields = new LinkedList<>();
+        /** Fields by their names. */
+        private final Map<String, DetailAST> fields = new HashMap<>();
 
-        /** List of methods. */
-        private final List<DetailAST> methods = new LinkedList<>();
+        /** Methods by their names. */
+        private final Map<String, List<DetailAST>> methods = new HashMap<>();
 
-        /** List of typeVariables. */
-        private final List<String> typeVariables = new LinkedList<>();
+        /** Set of typeVariables. */
+        private final Set<String> typeVariables = Sets.newHashSet();
 
         /** List of method calls. */
         private final List<DetailAST> expressions = new ArrayList<>();
@@ -721,8 +731,8 @@ public class StaticMethodCandidateCheck extends AbstractCheck {
         /** List of types. */
         private final Set<String> types = Sets.newHashSet();
 
-        /** Set of enumConstants. */
-        private final Set<DetailAST> enumConstants = Sets.newHashSet();
+        /** Enum constants by their names. */
+        private final Map<String, DetailAST> enumConstants = new HashMap<>();
 
         /** Whether the frame is CLASS_DEF or ENUM_DEF. */
         private boolean isClassOrEnum;
@@ -766,14 +776,26 @@ public class StaticMethodCandidateCheck extends AbstractCheck {
          */
         public void addChild(Frame child) {
             children.add(child);
+            if (child.isClassOrEnum) {
+                addClassOrEnum(child);
+            }
+        }
+
+        /**
+         * Add frame of a class or enum to be found by its name in this frame.
+         * The first frame with the name is kept.
+         * @param classOrEnum frame to add.
+         */
+        public void addClassOrEnum(Frame classOrEnum) {
+            classesAndEnums.putIfAbsent(classOrEnum.frameName, classOrEnum);
         }
 
         /**
-         * Add field to this Frame.
+         * Add field to this Frame. The first field with the name is kept.
          * @param field the ast of the field.
          */
         public void addField(DetailAST field) {
-            fields.add(field);
+            fields.putIfAbsent(getIdentText(field), field);
         }
 
         /**
@@ -781,7 +803,7 @@ public class StaticMethodCandidateCheck extends AbstractCheck {
          * @param method METHOD_DEF ast.
          */
         public void addMethod(DetailAST method) {
-            methods.add(method);
+            methods.computeIfAbsent(getIdentText(method), name -> new ArrayList<>()).add(method);
         }
 
         /**
@@ -789,7 +811,7 @@ public class StaticMethodCandidateCheck extends AbstractCheck {
          * @param enumConst ENUM_CONST_DEF ast.
          */
         public void addEnumConst(DetailAST enumConst) {
-            enumConstants.add(enumConst);
+            enumConstants.put(getIdentText(enumConst), enumConst);
         }
 
         /**
@@ -813,14 +835,8 @@ public class StaticMethodCandidateCheck extends AbstractCheck {
          * @param name the name of the field to check.
          * @return search result.
          */
-        public Optional<DetailAST> findFieldInFrame(final String name) {
-            final Predicate<DetailAST> predicate = new Predicate<DetailAST>() {
-                @Override
-                public boolean apply(DetailAST field) {
-                    return getIdentText(field).equals(name);
-                }
-            };
-            return Iterables.tryFind(fields, predicate);
+        public Optional<DetailAST> findFieldInFrame(String name) {
+            return Optional.fromNullable(fields.get(name));
         }
 
         /**
@@ -828,14 +844,26 @@ public class StaticMethodCandidateCheck extends AbstractCheck {
          * @param name the name of the enum constant to check.
          * @return search result.
          */
-        public Optional<DetailAST> findEnumConstInFrame(final String name) {
-            final Predicate<DetailAST> predicate = new Predicate<DetailAST>() {
-                @Override
-                public boolean apply(DetailAST enumConstant) {
-                    return getIdentText(enumConstant).equals(name);
-                }
-            };
-            return Iterables.tryFind(enumConstants, predicate);
+        public Optional<DetailAST> findEnumConstInFrame(String name) {
+            return Optional.fromNullable(enumConstants.get(name));
+        }
+
+        /**
+         * Find the child class or enum of this Frame.
+         * @param name the name of the class or enum.
+         * @return search result.
+         */
+        public Optional<Frame> findClassOrEnumInFrame(String name) {
+            return Optional.fromNullable(classesAndEnums.get(name));
+        }
+
+        /**
+         * Find method definitions of this Frame.
+         * @param name the name of the methods.
+         * @return METHOD_DEF asts with the name.
+         */
+        public List<DetailAST> findMethodsInFrame(String name) {
+            return methods.getOrDefault(name, Collections.emptyList());
         }
 
     }
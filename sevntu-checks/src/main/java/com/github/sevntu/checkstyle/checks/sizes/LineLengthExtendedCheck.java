@@ -20,6 +20,7 @@
 package com.github.sevntu.checkstyle.checks.sizes;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
@@ -102,8 +103,8 @@ public class LineLengthExtendedCheck extends AbstractCheck {
     /** The regexp when long lines are ignored. */
     private Pattern ignorePattern;
 
-    /** Array of strings in source file. */
-    private String[] lines;
+    /** Indexes of the lines that belong to ignored declarations. */
+    private final BitSet ignoredLines = new BitSet();
 
     /** Check field declaration length. */
     private boolean ignoreField;
@@ -213,33 +214,26 @@ public class LineLengthExtendedCheck extends AbstractCheck {
             final DetailAST endOfIgnoreLine = ast.findFirstToken(TokenTypes.SLIST);
 
             if (endOfIgnoreLine == null) {
-                lines[mNumberOfLine - 1] = null;
+                ignoredLines.set(mNumberOfLine - 1);
             }
             else {
-                int mEndNumberOfLine = endOfIgnoreLine.getLineNo();
-                while (mEndNumberOfLine >= mNumberOfLine) {
-                    lines[mEndNumberOfLine - 1] = null;
-                    mEndNumberOfLine--;
-                }
+                ignoredLines.set(mNumberOfLine - 1, endOfIgnoreLine.getLineNo());
             }
         }
     }
 
     @Override
     public void beginTree(DetailAST rootAST) {
-        lines = getLines();
+        ignoredLines.clear();
     }
 
     @Override
     public void finishTree(DetailAST rootAST) {
-        for (int i = 0; i < lines.length; i++) {
-            if (lines[i] == null) {
-                continue;
-            }
-
-            final String line = lines[i];
-            final int realLength = CommonUtil.lengthExpandedTabs(line,
-                    line.length(), getTabWidth());
+        final int linesCount = getFileContents().getText().size();
+        for (int i = ignoredLines.nextClearBit(0); i < linesCount;
+                i = ignoredLines.nextClearBit(i + 1)) {
+            final String line = getLine(i);
+            final int realLength = getLengthExpandedTabs(line);
 
             if (realLength > max && !ignorePattern.matcher(line).find()) {
                 log(i + 1, MSG_KEY, max, realLength);
@@ -247,6 +241,22 @@ public class LineLengthExtendedCheck extends AbstractCheck {
         }
     }
 
+    /**
+     * Gets the length of the line with tabs expanded. Lines without tabs are not
+     * expanded, their length is the same.
+     *
+     * @param line
+     *            the line.
+     * @return the length of the line.
+     */
+    private int getLengthExpandedTabs(String line) {
+        int result = line.length();
+        if (line.indexOf('\t') >= 0) {
+            result = CommonUtil.lengthExpandedTabs(line, result, getTabWidth());
+        }
+        return result;
+    }
+
     /**
      * Setter for the field max.
      * @param length
@@ -0,0 +1,375 @@
+////////////////////////////////////////////////////////////////////////////////
+// checkstyle: Checks Java source code for adherence to a set of rules.
+// Copyright (C) 2001-2019 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 2.1 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+////////////////////////////////////////////////////////////////////////////////
+
+package com.github.sevntu.checkstyle.instrumentation;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.SortedSet;
+
+import com.github.sevntu.checkstyle.AbstractCheckGroup;
+import com.puppycrawl.tools.checkstyle.api.AbstractCheck;
+import com.puppycrawl.tools.checkstyle.api.Configuration;
+import com.puppycrawl.tools.checkstyle.api.DetailAST;
+import com.puppycrawl.tools.checkstyle.api.LocalizedMessage;
+
+/**
+ * Runs the checks nested in it and measures how much time each of them spends in
+ * {@code beginTree}, {@code visitToken}, {@code leaveToken} and {@code finishTree}, and how many
+ * times each of these methods is called. The summary is written to a file when the audit ends.
+ * <p>
+ * To instrument checks, move them from TreeWalker inside of this module, their properties and
+ * violations stay the same:
+ * </p>
+ * <pre>
+ * &lt;module name="TreeWalker"&gt;
+ *   &lt;module name="com.github.sevntu.checkstyle.instrumentation.InstrumentedCheckGroup"&gt;
+ *     &lt;property name="reportFile" value="target/sevntu-checks-timing.csv"/&gt;
+ *     &lt;module name="CustomDeclarationOrderCheck"&gt;
+ *       &lt;property name="customDeclarationOrder" value="Field(.*) ### Method(.*)"/&gt;
+ *     &lt;/module&gt;
+ *     &lt;module name="OverridableMethodInConstructorCheck"/&gt;
+ *   &lt;/module&gt;
+ * &lt;/module&gt;
+ * </pre>
+ * <p>
+ * Checks placed directly into TreeWalker are not affected at all, so instrumentation costs
+ * nothing when this module is not used. Nested checks should either all require comment
+ * nodes or all not require them, as they share one walk over the tree.
+ * </p>
+ * <p>
+ * The report is a CSV file with the columns {@code check,method,calls,timeNanos} or, if
+ * {@code reportFormat} is {@code json}, a JSON array of objects with the same fields.
+ * Checks are named by their id when it is set, otherwise by their class name.
+ * </p>
+ */
+public class InstrumentedCheckGroup extends
+    AbstractCheckGroup<InstrumentedCheckGroup.CheckStatistics> {
+
+    /** Line separator used in the report. */
+    private static final String LINE_SEPARATOR = "\n";
+
+    /** Name of the CSV report format. */
+    private static final String FORMAT_CSV = "csv";
+
+    /** Name of the JSON report format. */
+    private static final String FORMAT_JSON = "json";
+
+    /** Supported report format names. */
+    private static final List<String> REPORT_FORMATS = Arrays.asList(FORMAT_CSV, FORMAT_JSON);
+
+    /** File to write the summary to. */
+    private String reportFile = "sevntu-checks-timing.csv";
+
+    /** Format of the summary, 'csv' or 'json'. */
+    private String reportFormat = FORMAT_CSV;
+
+    /**
+     * Sets the file to write the summary to.
+     * @param reportFile path of the file.
+     */
+    public void setReportFile(String reportFile) {
+        this.reportFile = reportFile;
+    }
+
+    /**
+     * Sets the format of the summary.
+     * @param reportFormat 'csv' or 'json'.
+     */
+    public void setReportFormat(String reportFormat) {
+        final String format = reportFormat.toLowerCase(Locale.ENGLISH);
+        if (!REPORT_FORMATS.contains(format)) {
+            throw new IllegalArgumentException("Unknown report format: " + reportFormat);
+        }
+        this.reportFormat = format;
+    }
+
+    @Override
+    protected CheckStatistics createNestedCheck(AbstractCheck check, Configuration configuration) {
+        return new CheckStatistics(check);
+    }
+
+    @Override
+    protected AbstractCheck getCheck(CheckStatistics nestedCheck) {
+        return nestedCheck.check;
+    }
+
+    @Override
+    public void beginTree(DetailAST rootAST) {
+        for (CheckStatistics statistics : getNestedChecks()) {
+            final AbstractCheck check = statistics.check;
+            check.setFileContents(getFileContents());
+            check.clearMessages();
+
+            final long start = System.nanoTime();
+            check.beginTree(rootAST);
+            statistics.record(Method.BEGIN_TREE, start);
+        }
+    }
+
+    @Override
+    public void visitToken(DetailAST ast) {
+        for (CheckStatistics statistics : getNestedChecks(ast.getType())) {
+            final long start = System.nanoTime();
+            statistics.check.visitToken(ast);
+            statistics.record(Method.VISIT_TOKEN, start);
+        }
+    }
+
+    @Override
+    public void leaveToken(DetailAST ast) {
+        for (CheckStatistics statistics : getNestedChecks(ast.getType())) {
+            final long start = System.nanoTime();
+            statistics.check.leaveToken(ast);
+            statistics.record(Method.LEAVE_TOKEN, start);
+        }
+    }
+
+    @Override
+    public void finishTree(DetailAST rootAST) {
+        for (CheckStatistics statistics : getNestedChecks()) {
+            final long start = System.nanoTime();
+            statistics.check.finishTree(rootAST);
+            statistics.record(Method.FINISH_TREE, start);
+        }
+    }
+
+    @Override
+    public SortedSet<LocalizedMessage> getMessages() {
+        final SortedSet<LocalizedMessage> result = super.getMessages();
+        for (CheckStatistics statistics : getNestedChecks()) {
+            result.addAll(statistics.check.getMessages());
+        }
+        return result;
+    }
+
+    @Override
+    public void destroy() {
+        super.destroy();
+        try {
+            writeReport(Paths.get(reportFile));
+        }
+        catch (IOException ex) {
+            throw new IllegalStateException("Unable to write report file " + reportFile, ex);
+        }
+    }
+
+    /**
+     * Writes the summary of all nested checks.
+     * @param path the file to write to.
+     * @throws IOException if the file can't be written.
+     */
+    private void writeReport(Path path) throws IOException {
+        final String report;
+        if (FORMAT_JSON.equals(reportFormat)) {
+            report = getJsonReport();
+        }
+        else {
+            report = getCsvReport();
+        }
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        Files.write(path, report.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Creates the summary in CSV format.
+     * @return the summary.
+     */
+    private String getCsvReport() {
+        final StringBuilder result = new StringBuilder("check,method,calls,timeNanos")
+            .append(LINE_SEPARATOR);
+        for (CheckStatistics statistics : getNestedChecks()) {
+            for (Method method : Method.values()) {
+                result.append(String.format(Locale.ROOT, "%s,%s,%d,%d",
+                    quoteCsv(statistics.getName()), method.getName(),
+                    statistics.calls[method.ordinal()],
+                    statistics.nanos[method.ordinal()]))
+                    .append(LINE_SEPARATOR);
+            }
+        }
+        return result.toString();
+    }
+
+    /**
+     * Creates the summary in JSON format.
+     * @return the summary.
+     */
+    private String getJsonReport() {
+        final StringBuilder result = new StringBuilder("[");
+        String separator = LINE_SEPARATOR;
+        for (CheckStatistics statistics : getNestedChecks()) {
+            for (Method method : Method.values()) {
+                result.append(separator).append(String.format(Locale.ROOT,
+                    "  {\"check\": \"%s\", \"method\": \"%s\", \"calls\": %d, \"timeNanos\": %d}",
+                    escapeJson(statistics.getName()),
+                    method.getName(),
+                    statistics.calls[method.ordinal()],
+                    statistics.nanos[method.ordinal()]));
+                separator = "," + LINE_SEPARATOR;
+            }
+        }
+        return result.append(LINE_SEPARATOR).append(']').append(LINE_SEPARATOR).toString();
+    }
+
+    /**
+     * Quotes a CSV field as described in RFC 4180, if it contains a comma,
+     * a double quote or a line break.
+     * @param field the field value.
+     * @return the field, quoted if needed.
+     */
+    private static String quoteCsv(String field) {
+        final String result;
+        if (field.indexOf(',') >= 0 || field.indexOf('"') >= 0
+                || field.indexOf('\n') >= 0 || field.indexOf('\r') >= 0) {
+            result = '"' + field.replace("\"", "\"\"") + '"';
+        }
+        else {
+            result = field;
+        }
+        return result;
+    }
+
+    /**
+     * Escapes a value for use inside a JSON string.
+     * @param value the value.
+     * @return the escaped value.
+     */
+    private static String escapeJson(String value) {
+        final StringBuilder result = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            final char chr = value.charAt(i);
+            switch (chr) {
+                case '"':
+                    result.append("\\\"");
+                    break;
+                case '\\':
+                    result.append("\\\\");
+                    break;
+                case '\b':
+                    result.append("\\b");
+                    break;
+                case '\f':
+                    result.append("\\f");
+                    break;
+                case '\n':
+                    result.append("\\n");
+                    break;
+                case '\r':
+                    result.append("\\r");
+                    break;
+                case '\t':
+                    result.append("\\t");
+                    break;
+                default:
+                    if (chr < ' ') {
+                        result.append(String.format(Locale.ROOT, "\\u%04x", (int) chr));
+                    }
+                    else {
+                        result.append(chr);
+                    }
+                    break;
+            }
+        }
+        return result.toString();
+    }
+
+    /** Instrumented methods of a check. */
+    private enum Method {
+
+        /** The {@code beginTree} method. */
+        BEGIN_TREE("beginTree"),
+        /** The {@code visitToken} method. */
+        VISIT_TOKEN("visitToken"),
+        /** The {@code leaveToken} method. */
+        LEAVE_TOKEN("leaveToken"),
+        /** The {@code finishTree} method. */
+        FINISH_TREE("finishTree");
+
+        /** Name of the method. */
+        private final String name;
+
+        /**
+         * Creates a new instance.
+         * @param name name of the method.
+         */
+        Method(String name) {
+            this.name = name;
+        }
+
+        /**
+         * Gets the name of the method.
+         * @return the name.
+         */
+        public String getName() {
+            return name;
+        }
+
+    }
+
+    /** A nested check with its cumulative statistics. */
+    static final class CheckStatistics {
+
+        /** The nested check. */
+        private final AbstractCheck check;
+
+        /** Number of calls of each method, indexed by method ordinal. */
+        private final long[] calls = new long[Method.values().length];
+
+        /** Time spent in each method, indexed by method ordinal. */
+        private final long[] nanos = new long[Method.values().length];
+
+        /**
+         * Creates a new instance.
+         * @param check the nested check.
+         */
+        CheckStatistics(AbstractCheck check) {
+            this.check = check;
+        }
+
+        /**
+         * Records a call of the method that started at the given time.
+         * @param method the called method.
+         * @param start value of {@link System#nanoTime()} before the call.
+         */
+        public void record(Method method, long start) {
+            nanos[method.ordinal()] += System.nanoTime() - start;
+            calls[method.ordinal()]++;
+        }
+
+        /**
+         * Gets the name of the check to use in the report.
+         * @return id of the check, or its class name when id is not set.
+         */
+        public String getName() {
+            String result = check.getId();
+            if (result == null) {
+                result = check.getClass().getName();
+            }
+            return result;
+        }
+
+    }
+
+}
@@ -0,0 +1,116 @@
+////////////////////////////////////////////////////////////////////////////////
+// checkstyle: Checks Java source code for adherence to a set of rules.
+// Copyright (C) 2001-2019 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 2.1 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+////////////////////////////////////////////////////////////////////////////////
+
+package com.github.sevntu.checkstyle;
+
+import java.util.regex.Pattern;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class RegexpMatchCacheTest {
+
+    @Test
+    public void testDefaultSize() {
+        final RegexpMatchCache cache = new RegexpMatchCache();
+        final Pattern pattern = Pattern.compile("a");
+
+        for (int i = 0; i <= 1000; i++) {
+            cache.find(pattern, String.valueOf(i));
+        }
+
+        Assert.assertEquals("Invalid cache size", 1000, cache.size());
+        Assert.assertFalse("Eldest result should be evicted",
+            cache.contains(new RegexpMatchCache.Key(pattern, "0", true)));
+    }
+
+    @Test
+    public void testMatchesAndFind() {
+        final RegexpMatchCache cache = new RegexpMatchCache(10);
+        final Pattern pattern = Pattern.compile("java\\.util");
+
+        Assert.assertFalse("Part of input should not match",
+            cache.matches(pattern, "java.util.List"));
+        Assert.assertTrue("Part of input should be found",
+            cache.find(pattern, "java.util.List"));
+        Assert.assertTrue("Entire input should match", cache.matches(pattern, "java.util"));
+        Assert.assertFalse("Input should not be found", cache.find(pattern, "java.io.File"));
+        Assert.assertEquals("Invalid cache size", 4, cache.size());
+    }
+
+    @Test
+    public void testCachedResults() {
+        final RegexpMatchCache cache = new RegexpMatchCache(10);
+
+        Assert.assertTrue("Input should match", cache.matches(Pattern.compile("a+"), "aaa"));
+        Assert.assertTrue("Cached result should be reused",
+            cache.matches(Pattern.compile("a+"), "aaa"));
+        Assert.assertEquals("Equal patterns should share results", 1, cache.size());
+
+        Assert.assertTrue("Input should match",
+            cache.matches(Pattern.compile("a+", Pattern.CASE_INSENSITIVE), "AAA"));
+        Assert.assertEquals("Pattern flags should be part of the key", 2, cache.size());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEviction() {
+        final RegexpMatchCache cache = new RegexpMatchCache(2);
+        final Pattern pattern = Pattern.compile("b");
+
+        cache.matches(pattern, "a");
+        cache.matches(pattern, "b");
+        cache.matches(pattern, "a");
+        cache.matches(pattern, "c");
+
+        Assert.assertEquals("Invalid cache size", 2, cache.size());
+        Assert.assertTrue("Recently used result should be kept",
+            cache.contains(new RegexpMatchCache.Key(pattern, "a", false)));
+        Assert.assertFalse("Least recently used result should be evicted",
+            cache.contains(new RegexpMatchCache.Key(pattern, "b", false)));
+        Assert.assertTrue("Last result should be kept",
+            cache.contains(new RegexpMatchCache.Key(pattern, "c", false)));
+
+        Assert.assertTrue("Evicted result should be matched again", cache.matches(pattern, "b"));
+        Assert.assertFalse("Least recently used result should be evicted",
+            cache.contains(new RegexpMatchCache.Key(pattern, "a", false)));
+    }
+
+    @Test
+    public void testKeyEquality() {
+        final Pattern pattern = Pattern.compile("a");
+        final RegexpMatchCache.Key key = new RegexpMatchCache.Key(pattern, "a", true);
+
+        Assert.assertEquals("Keys should be equal",
+            new RegexpMatchCache.Key(Pattern.compile("a"), "a", true), key);
+        Assert.assertEquals("Hash codes should be equal",
+            new RegexpMatchCache.Key(Pattern.compile("a"), "a", true).hashCode(),
+            key.hashCode());
+        Assert.assertNotEquals("Kind of match should differ",
+            new RegexpMatchCache.Key(pattern, "a", false), key);
+        Assert.assertNotEquals("Flags should differ",
+            new RegexpMatchCache.Key(Pattern.compile("a", Pattern.CASE_INSENSITIVE), "a", true),
+            key);
+        Assert.assertNotEquals("Patterns should differ",
+            new RegexpMatchCache.Key(Pattern.compile("b"), "a", true), key);
+        Assert.assertNotEquals("Inputs should differ",
+            new RegexpMatchCache.Key(pattern, "b", true), key);
+        Assert.assertNotEquals("Key should not be equal to other objects", key, "a");
+    }
+
+}
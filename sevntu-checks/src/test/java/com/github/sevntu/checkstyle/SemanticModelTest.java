@@ -0,0 +1,140 @@
+////////////////////////////////////////////////////////////////////////////////
+// checkstyle: Checks Java source code for adherence to a set of rules.
+// Copyright (C) 2001-2019 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 2.1 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+////////////////////////////////////////////////////////////////////////////////
+
+package com.github.sevntu.checkstyle;
+
+import java.io.File;
+import java.lang.ref.WeakReference;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.github.sevntu.checkstyle.SemanticModel.TypeDetails;
+import com.puppycrawl.tools.checkstyle.JavaParser;
+import com.puppycrawl.tools.checkstyle.api.DetailAST;
+import com.puppycrawl.tools.checkstyle.api.TokenTypes;
+
+public class SemanticModelTest {
+
+    private DetailAST rootAST;
+
+    private SemanticModel model;
+
+    @Before
+    public void setUp() throws Exception {
+        rootAST = JavaParser.parseFile(
+            new File("src/test/resources/com/github/sevntu/checkstyle/InputSemanticModel.java"),
+            JavaParser.Options.WITHOUT_COMMENTS);
+        model = SemanticModel.of(rootAST);
+    }
+
+    @Test
+    public void testSameModelForSameRoot() throws Exception {
+        Assert.assertSame("Model should be shared", model, SemanticModel.of(rootAST));
+
+        final DetailAST otherRootAST = JavaParser.parseFile(
+            new File("src/test/resources/com/github/sevntu/checkstyle/InputSemanticModel.java"),
+            JavaParser.Options.WITHOUT_COMMENTS);
+        final SemanticModel otherModel = SemanticModel.of(otherRootAST);
+        Assert.assertNotSame("Model should not be shared", model, otherModel);
+        Assert.assertSame("Model should be shared", otherModel, SemanticModel.of(otherRootAST));
+    }
+
+    @Test
+    public void testModelNotKeptByThread() {
+        final WeakReference<SemanticModel> reference = new WeakReference<>(model);
+        model = null;
+        for (int attempt = 0; attempt < 100 && reference.get() != null; attempt++) {
+            System.gc();
+        }
+        Assert.assertNull("Model should not be kept when it is not used", reference.get());
+    }
+
+    @Test
+    public void testTypeSharedByNode() {
+        final DetailAST typeDef = findType(rootAST, "Inner");
+        final TypeDetails type = model.getType(typeDef);
+        Assert.assertSame("Invalid type definition", typeDef, type.getTypeDef());
+        Assert.assertSame("Type should be shared", type, model.getType(typeDef));
+
+        DetailAST topLevelInner = rootAST;
+        while (topLevelInner.getNextSibling() != null) {
+            topLevelInner = topLevelInner.getNextSibling();
+        }
+        Assert.assertNotSame("Types with the same name should not be shared", type,
+            model.getType(topLevelInner));
+    }
+
+    @Test
+    public void testModifiers() {
+        final TypeDetails main = model.getType(findType(rootAST, "InputSemanticModel"));
+        Assert.assertTrue("Type should be public", main.hasModifier(TokenTypes.LITERAL_PUBLIC));
+        Assert.assertTrue("Type should be abstract", main.hasModifier(TokenTypes.ABSTRACT));
+        Assert.assertFalse("Type should not be static",
+            main.hasModifier(TokenTypes.LITERAL_STATIC));
+
+        final TypeDetails inner = model.getType(findType(rootAST, "Inner"));
+        Assert.assertTrue("Type should be static", inner.hasModifier(TokenTypes.LITERAL_STATIC));
+    }
+
+    @Test
+    public void testMembers() {
+        final TypeDetails main = model.getType(findType(rootAST, "InputSemanticModel"));
+        Assert.assertEquals("Invalid methods", 2, main.getMethods().size());
+        Assert.assertEquals("Invalid methods by name", 2, main.getMethods("method").size());
+        Assert.assertTrue("Unknown name should have no methods",
+            main.getMethods("run").isEmpty());
+        Assert.assertEquals("Invalid constructors", 1, main.getCtors().size());
+        Assert.assertEquals("Invalid fields", 2, main.getFields().size());
+
+        Assert.assertEquals("Invalid fields", 1,
+            model.getType(findType(rootAST, "Inner")).getFields().size());
+        Assert.assertEquals("Invalid methods", 1,
+            model.getType(findType(rootAST, "Nested")).getMethods().size());
+        Assert.assertEquals("Invalid methods", 1,
+            model.getType(findType(rootAST, "Local")).getMethods("localMethod").size());
+        Assert.assertTrue("Enum constant fields are not fields of the enum",
+            model.getType(findType(rootAST, "Kind")).getFields().isEmpty());
+        Assert.assertTrue("Annotation elements are not methods",
+            model.getType(findType(rootAST, "Marker")).getMethods().isEmpty());
+    }
+
+    /**
+     * Finds the first type definition with the given name in the node, its siblings and all
+     * their children.
+     */
+    private static DetailAST findType(DetailAST firstNode, String name) {
+        DetailAST result = null;
+        for (DetailAST node = firstNode; result == null && node != null;
+                node = node.getNextSibling()) {
+            final int type = node.getType();
+            if ((type == TokenTypes.CLASS_DEF || type == TokenTypes.INTERFACE_DEF
+                    || type == TokenTypes.ENUM_DEF || type == TokenTypes.ANNOTATION_DEF)
+                    && name.equals(node.findFirstToken(TokenTypes.IDENT).getText())) {
+                result = node;
+            }
+            else {
+                result = findType(node.getFirstChild(), name);
+            }
+        }
+        return result;
+    }
+
+}
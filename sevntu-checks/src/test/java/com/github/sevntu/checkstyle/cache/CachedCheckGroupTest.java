@@ -0,0 +1,450 @@
+////////////////////////////////////////////////////////////////////////////////
+// checkstyle: Checks Java source code for adherence to a set of rules.
+// Copyright (C) 2001-2019 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 2.1 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+////////////////////////////////////////////////////////////////////////////////
+
+package com.github.sevntu.checkstyle.cache;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.security.CodeSource;
+import java.security.ProtectionDomain;
+import java.security.cert.Certificate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.github.sevntu.checkstyle.checks.coding.ForbidCCommentsInMethodsCheck;
+import com.github.sevntu.checkstyle.checks.coding.MultipleStringLiteralsExtendedCheck;
+import com.github.sevntu.checkstyle.checks.design.NestedSwitchCheck;
+import com.puppycrawl.tools.checkstyle.AbstractModuleTestSupport;
+import com.puppycrawl.tools.checkstyle.DefaultConfiguration;
+import com.puppycrawl.tools.checkstyle.TreeWalker;
+import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+import com.puppycrawl.tools.checkstyle.api.LocalizedMessage;
+import com.puppycrawl.tools.checkstyle.utils.CommonUtil;
+
+public class CachedCheckGroupTest extends AbstractModuleTestSupport {
+
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Override
+    protected String getPackageLocation() {
+        return "com/github/sevntu/checkstyle/cache";
+    }
+
+    @Test
+    public void testCachedResults() throws Exception {
+        final File cache = new File(temporaryFolder.getRoot(), "cache/results.cache");
+        final DefaultConfiguration checkConfig = createModuleConfig(CachedCheckGroup.class);
+        checkConfig.addAttribute("cacheFile", cache.getPath());
+        checkConfig.addChild(createModuleConfig(NestedSwitchCheck.class));
+        checkConfig.addChild(createModuleConfig(MultipleStringLiteralsExtendedCheck.class));
+        final String[] expected = {
+            "8:17: " + getCheckMessage(NestedSwitchCheck.class, NestedSwitchCheck.MSG_KEY),
+            "10:32: " + getCheckMessage(MultipleStringLiteralsExtendedCheck.class,
+                MultipleStringLiteralsExtendedCheck.MSG_KEY, "\"nested\"", 2),
+        };
+
+        verify(checkConfig, getPath("InputCachedCheckGroup.java"), expected);
+        Assert.assertEquals("Invalid number of cached results", 2, readCache(cache).size());
+
+        getStream().reset();
+        verify(checkConfig, getPath("InputCachedCheckGroup.java"), expected);
+        Assert.assertEquals("Invalid number of cached results", 2, readCache(cache).size());
+
+        clearCachedViolations(cache);
+        getStream().reset();
+        verify(checkConfig, getPath("InputCachedCheckGroup.java"),
+            CommonUtil.EMPTY_STRING_ARRAY);
+    }
+
+    @Test
+    public void testChangedProperty() throws Exception {
+        final File cache = new File(temporaryFolder.getRoot(), "results.cache");
+        final DefaultConfiguration checkConfig = createModuleConfig(CachedCheckGroup.class);
+        checkConfig.addAttribute("cacheFile", cache.getPath());
+        checkConfig.addChild(createModuleConfig(NestedSwitchCheck.class));
+        checkConfig.addChild(createModuleConfig(MultipleStringLiteralsExtendedCheck.class));
+        final String[] expectedBefore = {
+            "8:17: " + getCheckMessage(NestedSwitchCheck.class, NestedSwitchCheck.MSG_KEY),
+            "10:32: " + getCheckMessage(MultipleStringLiteralsExtendedCheck.class,
+                MultipleStringLiteralsExtendedCheck.MSG_KEY, "\"nested\"", 2),
+        };
+        verify(checkConfig, getPath("InputCachedCheckGroup.java"), expectedBefore);
+        clearCachedViolations(cache);
+
+        final DefaultConfiguration changedConfig = createModuleConfig(CachedCheckGroup.class);
+        changedConfig.addAttribute("cacheFile", cache.getPath());
+        final DefaultConfiguration switchConfig = createModuleConfig(NestedSwitchCheck.class);
+        switchConfig.addAttribute("max", "-1");
+        changedConfig.addChild(switchConfig);
+        changedConfig.addChild(createModuleConfig(MultipleStringLiteralsExtendedCheck.class));
+        final String[] expected = {
+            "6:9: " + getCheckMessage(NestedSwitchCheck.class, NestedSwitchCheck.MSG_KEY),
+            "8:17: " + getCheckMessage(NestedSwitchCheck.class, NestedSwitchCheck.MSG_KEY),
+        };
+
+        getStream().reset();
+        verify(changedConfig, getPath("InputCachedCheckGroup.java"), expected);
+        Assert.assertEquals("Only used results should be kept", 2, readCache(cache).size());
+    }
+
+    @Test
+    public void testChangedFile() throws Exception {
+        final File cache = new File(temporaryFolder.getRoot(), "results.cache");
+        final File file = temporaryFolder.newFile("InputCachedCheckGroup.java");
+        Files.write(file.toPath(),
+            Files.readAllBytes(new File(getPath("InputCachedCheckGroup.java")).toPath()));
+        final DefaultConfiguration checkConfig = createModuleConfig(CachedCheckGroup.class);
+        checkConfig.addAttribute("cacheFile", cache.getPath());
+        checkConfig.addChild(createModuleConfig(NestedSwitchCheck.class));
+        final String[] expected = {
+            "8:17: " + getCheckMessage(NestedSwitchCheck.class, NestedSwitchCheck.MSG_KEY),
+        };
+
+        verify(checkConfig, file.getPath(), expected);
+        clearCachedViolations(cache);
+        getStream().reset();
+        verify(checkConfig, file.getPath(), CommonUtil.EMPTY_STRING_ARRAY);
+
+        Files.write(file.toPath(), ("// changed\n" + new String(Files.readAllBytes(
+            file.toPath()), StandardCharsets.UTF_8)).getBytes(StandardCharsets.UTF_8));
+        final String[] expectedChanged = {
+            "9:17: " + getCheckMessage(NestedSwitchCheck.class, NestedSwitchCheck.MSG_KEY),
+        };
+        getStream().reset();
+        verify(checkConfig, file.getPath(), expectedChanged);
+    }
+
+    @Test
+    public void testCustomMessagesAndNestedGroups() throws Exception {
+        final File cache = new File(temporaryFolder.getRoot(), "results.cache");
+        final File nestedCache = new File(temporaryFolder.getRoot(), "nested.cache");
+        final DefaultConfiguration checkConfig = createModuleConfig(CachedCheckGroup.class);
+        checkConfig.addAttribute("cacheFile", cache.getPath());
+        final DefaultConfiguration nestedConfig = createModuleConfig(CachedCheckGroup.class);
+        nestedConfig.addAttribute("cacheFile", nestedCache.getPath());
+        final DefaultConfiguration switchConfig = createModuleConfig(NestedSwitchCheck.class);
+        switchConfig.addMessage(NestedSwitchCheck.MSG_KEY, "Nested switch");
+        nestedConfig.addChild(switchConfig);
+        checkConfig.addChild(nestedConfig);
+        final String[] expected = {
+            "8:17: Nested switch",
+        };
+
+        verify(checkConfig, getPath("InputCachedCheckGroup.java"), expected);
+        getStream().reset();
+        verify(checkConfig, getPath("InputCachedCheckGroup.java"), expected);
+        Assert.assertEquals("Invalid number of cached results", 1, readCache(cache).size());
+    }
+
+    @Test
+    public void testChecksSharingTokens() throws Exception {
+        final File cache = new File(temporaryFolder.getRoot(), "results.cache");
+        final DefaultConfiguration checkConfig = createModuleConfig(CachedCheckGroup.class);
+        checkConfig.addAttribute("cacheFile", cache.getPath());
+        final DefaultConfiguration switchConfig = createModuleConfig(NestedSwitchCheck.class);
+        switchConfig.addAttribute("tokens", "LITERAL_SWITCH");
+        checkConfig.addChild(switchConfig);
+        final DefaultConfiguration strictSwitchConfig =
+            createModuleConfig(NestedSwitchCheck.class);
+        strictSwitchConfig.addAttribute("id", "strictNestedSwitch");
+        strictSwitchConfig.addAttribute("max", "-1");
+        checkConfig.addChild(strictSwitchConfig);
+        final String[] expected = {
+            "6:9: " + getCheckMessage(NestedSwitchCheck.class, NestedSwitchCheck.MSG_KEY),
+            "8:17: " + getCheckMessage(NestedSwitchCheck.class, NestedSwitchCheck.MSG_KEY),
+            "8:17: " + getCheckMessage(NestedSwitchCheck.class, NestedSwitchCheck.MSG_KEY),
+        };
+
+        verify(checkConfig, getPath("InputCachedCheckGroup.java"), expected);
+        getStream().reset();
+        verify(checkConfig, getPath("InputCachedCheckGroup.java"), expected);
+        Assert.assertEquals("Invalid number of cached results", 2, readCache(cache).size());
+    }
+
+    @Test
+    public void testInvalidCacheFile() throws Exception {
+        final File cache = temporaryFolder.newFile("results.cache");
+        Files.write(cache.toPath(), "invalid".getBytes(StandardCharsets.UTF_8));
+        final DefaultConfiguration checkConfig = createModuleConfig(CachedCheckGroup.class);
+        checkConfig.addAttribute("cacheFile", cache.getPath());
+        checkConfig.addChild(createModuleConfig(NestedSwitchCheck.class));
+        checkConfig.addChild(createModuleConfig(MultipleStringLiteralsExtendedCheck.class));
+        final String[] expected = {
+            "8:17: " + getCheckMessage(NestedSwitchCheck.class, NestedSwitchCheck.MSG_KEY),
+            "10:32: " + getCheckMessage(MultipleStringLiteralsExtendedCheck.class,
+                MultipleStringLiteralsExtendedCheck.MSG_KEY, "\"nested\"", 2),
+        };
+
+        verify(checkConfig, getPath("InputCachedCheckGroup.java"), expected);
+        Assert.assertEquals("Invalid number of cached results", 2, readCache(cache).size());
+
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final ObjectOutputStream output = new ObjectOutputStream(bytes);
+        output.writeObject("invalid");
+        output.flush();
+        Files.write(cache.toPath(), bytes.toByteArray());
+
+        getStream().reset();
+        verify(checkConfig, getPath("InputCachedCheckGroup.java"), expected);
+        Assert.assertEquals("Invalid number of cached results", 2, readCache(cache).size());
+    }
+
+    @Test
+    public void testUnexpectedClassInCacheFile() throws Exception {
+        final File cache = temporaryFolder.newFile("results.cache");
+        final DefaultConfiguration checkConfig = createModuleConfig(CachedCheckGroup.class);
+        checkConfig.addAttribute("cacheFile", cache.getPath());
+        checkConfig.addChild(createModuleConfig(NestedSwitchCheck.class));
+        checkConfig.addChild(createModuleConfig(MultipleStringLiteralsExtendedCheck.class));
+        final String[] expected = {
+            "8:17: " + getCheckMessage(NestedSwitchCheck.class, NestedSwitchCheck.MSG_KEY),
+            "10:32: " + getCheckMessage(MultipleStringLiteralsExtendedCheck.class,
+                MultipleStringLiteralsExtendedCheck.MSG_KEY, "\"nested\"", 2),
+        };
+
+        verify(checkConfig, getPath("InputCachedCheckGroup.java"), expected);
+        final Map<String, Object> results = new HashMap<>(readCache(cache));
+        results.put("unexpected", new UnexpectedCacheEntry());
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final ObjectOutputStream output = new ObjectOutputStream(bytes);
+        output.writeObject(results);
+        output.flush();
+        Files.write(cache.toPath(), bytes.toByteArray());
+
+        getStream().reset();
+        UnexpectedCacheEntry.deserialized = false;
+        verify(checkConfig, getPath("InputCachedCheckGroup.java"), expected);
+        Assert.assertFalse("Unexpected class should not be deserialized",
+            UnexpectedCacheEntry.deserialized);
+        Assert.assertEquals("Invalid number of cached results", 2, readCache(cache).size());
+    }
+
+    @Test
+    public void testUnknownCodeLocation() throws Exception {
+        verifyUncachedCheck(null);
+    }
+
+    @Test
+    public void testUnreadableCodeLocation() throws Exception {
+        verifyUncachedCheck(new File(temporaryFolder.getRoot(), "missing.jar").toURI().toURL());
+    }
+
+    @Test
+    public void testTokensWithoutChecks() {
+        final CachedCheckGroup check = new CachedCheckGroup();
+        Assert.assertArrayEquals("Invalid default tokens",
+            CommonUtil.EMPTY_INT_ARRAY, check.getDefaultTokens());
+        Assert.assertArrayEquals("Invalid acceptable tokens",
+            CommonUtil.EMPTY_INT_ARRAY, check.getAcceptableTokens());
+        Assert.assertArrayEquals("Invalid required tokens",
+            CommonUtil.EMPTY_INT_ARRAY, check.getRequiredTokens());
+    }
+
+    @Test
+    public void testWithoutChecks() throws Exception {
+        final File cache = new File(temporaryFolder.getRoot(), "results.cache");
+        final DefaultConfiguration checkConfig = createModuleConfig(CachedCheckGroup.class);
+        checkConfig.addAttribute("cacheFile", cache.getPath());
+
+        verify(checkConfig, getPath("InputCachedCheckGroup.java"),
+            CommonUtil.EMPTY_STRING_ARRAY);
+
+        Assert.assertTrue("Cache should be empty", readCache(cache).isEmpty());
+    }
+
+    @Test
+    public void testCommentNodesRequired() throws Exception {
+        final File cache = new File(temporaryFolder.getRoot(), "results.cache");
+        final DefaultConfiguration checkConfig = createModuleConfig(CachedCheckGroup.class);
+        checkConfig.addAttribute("cacheFile", cache.getPath());
+        checkConfig.addChild(createModuleConfig(ForbidCCommentsInMethodsCheck.class));
+
+        verify(checkConfig, getPath("InputCachedCheckGroup.java"),
+            CommonUtil.EMPTY_STRING_ARRAY);
+
+        Assert.assertEquals("Invalid number of cached results", 1, readCache(cache).size());
+    }
+
+    @Test
+    public void testMixedCommentNodesRequirement() throws Exception {
+        final DefaultConfiguration checkConfig = createModuleConfig(CachedCheckGroup.class);
+        checkConfig.addChild(createModuleConfig(ForbidCCommentsInMethodsCheck.class));
+        checkConfig.addChild(createModuleConfig(NestedSwitchCheck.class));
+
+        try {
+            verify(checkConfig, getPath("InputCachedCheckGroup.java"),
+                CommonUtil.EMPTY_STRING_ARRAY);
+            Assert.fail("Expecting CheckstyleException");
+        }
+        catch (CheckstyleException ex) {
+            Assert.assertTrue("Invalid exception message: " + ex.getMessage(),
+                ex.getMessage().endsWith("Checks nested in CachedCheckGroup should "
+                    + "either all require comment nodes or all not require them: "
+                    + NestedSwitchCheck.class.getName()));
+        }
+    }
+
+    @Test
+    public void testNotCheckChild() throws Exception {
+        final DefaultConfiguration checkConfig = createModuleConfig(CachedCheckGroup.class);
+        checkConfig.addChild(createModuleConfig(TreeWalker.class));
+
+        try {
+            verify(checkConfig, getPath("InputCachedCheckGroup.java"),
+                CommonUtil.EMPTY_STRING_ARRAY);
+            Assert.fail("Expecting CheckstyleException");
+        }
+        catch (CheckstyleException ex) {
+            Assert.assertTrue("Invalid exception message: " + ex.getMessage(),
+                ex.getMessage().endsWith("CachedCheckGroup is not allowed as a parent of "
+                    + TreeWalker.class.getName() + ", only checks can be nested in it"));
+        }
+    }
+
+    @Test
+    public void testUnwritableCache() throws Exception {
+        final File cache = temporaryFolder.getRoot();
+        final DefaultConfiguration checkConfig = createModuleConfig(CachedCheckGroup.class);
+        checkConfig.addAttribute("cacheFile", cache.getPath());
+
+        try {
+            verify(checkConfig, getPath("InputCachedCheckGroup.java"),
+                CommonUtil.EMPTY_STRING_ARRAY);
+            Assert.fail("Expecting IllegalStateException");
+        }
+        catch (IllegalStateException ex) {
+            Assert.assertEquals("Invalid exception message",
+                "Unable to write cache file " + cache.getPath(),
+                ex.getMessage());
+        }
+    }
+
+    private void verifyUncachedCheck(URL location) throws Exception {
+        final File cache = new File(temporaryFolder.getRoot(), "results.cache");
+        final DefaultConfiguration checkConfig = createModuleConfig(CachedCheckGroup.class);
+        checkConfig.addAttribute("cacheFile", cache.getPath());
+        checkConfig.addChild(createModuleConfig(NestedSwitchCheck.class));
+        checkConfig.addChild(createModuleConfig(MultipleStringLiteralsExtendedCheck.class));
+        final String[] expected = {
+            "8:17: " + getCheckMessage(NestedSwitchCheck.class, NestedSwitchCheck.MSG_KEY),
+            "10:32: " + getCheckMessage(MultipleStringLiteralsExtendedCheck.class,
+                MultipleStringLiteralsExtendedCheck.MSG_KEY, "\"nested\"", 2),
+        };
+
+        final Thread thread = Thread.currentThread();
+        final ClassLoader classLoader = thread.getContextClassLoader();
+        thread.setContextClassLoader(new LocationClassLoader(classLoader,
+            NestedSwitchCheck.class.getName(), location));
+        try {
+            verify(checkConfig, getPath("InputCachedCheckGroup.java"), expected);
+        }
+        finally {
+            thread.setContextClassLoader(classLoader);
+        }
+        Assert.assertEquals("Results of checks with unknown code should not be cached",
+            1, readCache(cache).size());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, List<LocalizedMessage>> readCache(File cache) throws Exception {
+        final ObjectInputStream input = new ObjectInputStream(
+            new ByteArrayInputStream(Files.readAllBytes(cache.toPath())));
+        return (Map<String, List<LocalizedMessage>>) input.readObject();
+    }
+
+    private static void clearCachedViolations(File cache) throws Exception {
+        final Map<String, List<LocalizedMessage>> results = readCache(cache);
+        for (Map.Entry<String, List<LocalizedMessage>> entry : results.entrySet()) {
+            entry.setValue(new ArrayList<>());
+        }
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final ObjectOutputStream output = new ObjectOutputStream(bytes);
+        output.writeObject(results);
+        output.flush();
+        Files.write(cache.toPath(), bytes.toByteArray());
+    }
+
+    private static final class LocationClassLoader extends ClassLoader {
+
+        private final String className;
+
+        private final ProtectionDomain protectionDomain;
+
+        LocationClassLoader(ClassLoader parent, String className, URL location) {
+            super(parent);
+            this.className = className;
+            protectionDomain = new ProtectionDomain(
+                new CodeSource(location, (Certificate[]) null), null);
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve)
+                throws ClassNotFoundException {
+            Class<?> result = findLoadedClass(name);
+            if (result == null && className.equals(name)) {
+                try {
+                    final byte[] bytes = Files.readAllBytes(Paths.get(getParent()
+                        .getResource(name.replace('.', '/') + ".class").toURI()));
+                    result = defineClass(name, bytes, 0, bytes.length, protectionDomain);
+                }
+                catch (IOException | URISyntaxException ex) {
+                    throw new ClassNotFoundException(name, ex);
+                }
+            }
+            else if (result == null) {
+                result = super.loadClass(name, resolve);
+            }
+            return result;
+        }
+
+    }
+
+    private static final class UnexpectedCacheEntry implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private static boolean deserialized;
+
+        private void readObject(ObjectInputStream input)
+                throws IOException, ClassNotFoundException {
+            input.defaultReadObject();
+            deserialized = true;
+        }
+
+    }
+
+}
@@ -21,6 +21,7 @@ package com.github.sevntu.checkstyle.checks.annotation;
 
 import static com.github.sevntu.checkstyle.checks.annotation.ForbidAnnotationElementValueCheck.MSG_KEY;
 
+import org.junit.Assert;
 import org.junit.Test;
 
 import com.puppycrawl.tools.checkstyle.AbstractModuleTestSupport;
@@ -219,4 +220,45 @@ public class ForbidAnnotationElementValueCheckTest extends AbstractModuleTestSup
         verify(checkConfig, getPath("InputForbidAnnotationElementValueCheck2.java"), expected);
     }
 
+    @Test
+    public void testAnnotationRules() throws Exception {
+        final DefaultConfiguration checkConfig =
+                createModuleConfig(ForbidAnnotationElementValueCheck.class);
+
+        checkConfig.addAttribute("annotationRules", "Anno1(str=someString\\d+) "
+                + "### Anno2(intVal=[1-5]) ### Anno3 (floatVal = 2\\.\\d+f)");
+        checkConfig.addAttribute("annotationName", "Anno4");
+        checkConfig.addAttribute("elementName", "boolVal");
+
+        final String[] expected = {
+            "47:12: " + getCheckMessage(MSG_KEY, "str", "Anno1"),
+            "52:12: " + getCheckMessage(MSG_KEY, "intVal", "Anno2"),
+            "57:12: " + getCheckMessage(MSG_KEY, "floatVal", "Anno3"),
+        };
+
+        verify(checkConfig, getPath("InputForbidAnnotationElementValueCheck.java"), expected);
+    }
+
+    @Test
+    public void testInvalidAnnotationRules() {
+        final ForbidAnnotationElementValueCheck check = new ForbidAnnotationElementValueCheck();
+        final String[] invalidRules = {
+            "(str=someString)",
+            "Anno1(str)",
+            "Anno1(str=someString",
+            "Anno1",
+        };
+
+        for (String rule : invalidRules) {
+            try {
+                check.setAnnotationRules("Valid(value=1) ### " + rule);
+                Assert.fail("Expecting IllegalArgumentException");
+            }
+            catch (IllegalArgumentException ex) {
+                Assert.assertEquals("Exception did not have correct error message.",
+                    "Unable to parse annotation rule: " + rule, ex.getMessage());
+            }
+        }
+    }
+
 }
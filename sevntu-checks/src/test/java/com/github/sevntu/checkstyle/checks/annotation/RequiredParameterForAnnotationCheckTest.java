@@ -26,6 +26,7 @@ import org.junit.Test;
 
 import com.puppycrawl.tools.checkstyle.AbstractModuleTestSupport;
 import com.puppycrawl.tools.checkstyle.DefaultConfiguration;
+import com.puppycrawl.tools.checkstyle.utils.CommonUtil;
 
 public class RequiredParameterForAnnotationCheckTest extends AbstractModuleTestSupport {
 
@@ -183,6 +184,77 @@ public class RequiredParameterForAnnotationCheckTest extends AbstractModuleTestS
         verify(checkConfig, getPath("InputRequiredParameterForAnnotationCheck.java"), expected);
     }
 
+    @Test
+    public void testAnnotationRules()
+            throws Exception {
+        final DefaultConfiguration checkConfig =
+                createModuleConfig(RequiredParameterForAnnotationCheck.class);
+
+        checkConfig.addAttribute("annotationRules", "testAnnotation1(firstParameter) ### "
+                + "com.github.sevntu.checkstyle.checks.annotation"
+                + ".InputRequiredParameterForAnnotationCheck.testAnnotation2 (par1, ) ### "
+                + "testAnnotation1(secondParameter)");
+        checkConfig.addAttribute("annotationName", "testAnnotation1");
+        checkConfig.addAttribute("requiredParameters", "thirdParameter");
+
+        final String annotation2 = "com.github.sevntu.checkstyle.checks.annotation"
+                + ".InputRequiredParameterForAnnotationCheck.testAnnotation2";
+        final String[] expected = {
+            "6:4: " + getCheckMessage(MSG_KEY,
+                    "testAnnotation1", "firstParameter, secondParameter"),
+            "18:4: " + getCheckMessage(MSG_KEY, "testAnnotation1", "secondParameter"),
+            "27:4: " + getCheckMessage(MSG_KEY, annotation2, "par1"),
+            "33:4: " + getCheckMessage(MSG_KEY,
+                    "testAnnotation1", "firstParameter, secondParameter"),
+            "48:4: " + getCheckMessage(MSG_KEY, "testAnnotation1", "secondParameter"),
+            "59:4: " + getCheckMessage(MSG_KEY, annotation2, "par1"),
+            "66:4: " + getCheckMessage(MSG_KEY,
+                    "testAnnotation1", "firstParameter, secondParameter"),
+            "75:4: " + getCheckMessage(MSG_KEY, "testAnnotation1", "secondParameter"),
+            "82:4: " + getCheckMessage(MSG_KEY, annotation2, "par1"),
+            "87:4: " + getCheckMessage(MSG_KEY,
+                    "testAnnotation1", "firstParameter, secondParameter"),
+            "99:4: " + getCheckMessage(MSG_KEY, "testAnnotation1", "secondParameter"),
+            "108:4: " + getCheckMessage(MSG_KEY, annotation2, "par1"),
+            "114:4: " + getCheckMessage(MSG_KEY,
+                    "testAnnotation1", "firstParameter, secondParameter"),
+            "126:4: " + getCheckMessage(MSG_KEY, "testAnnotation1", "secondParameter"),
+            "135:4: " + getCheckMessage(MSG_KEY, annotation2, "par1"),
+        };
+        verify(checkConfig, getPath("InputRequiredParameterForAnnotationCheck.java"), expected);
+    }
+
+    @Test
+    public void testWithoutAnnotationName()
+            throws Exception {
+        final DefaultConfiguration checkConfig =
+                createModuleConfig(RequiredParameterForAnnotationCheck.class);
+
+        verify(checkConfig, getPath("InputRequiredParameterForAnnotationCheck.java"),
+                CommonUtil.EMPTY_STRING_ARRAY);
+    }
+
+    @Test
+    public void testInvalidAnnotationRules() {
+        final RequiredParameterForAnnotationCheck check = new RequiredParameterForAnnotationCheck();
+        final String[] invalidRules = {
+            "(par1)",
+            "testAnnotation1(par1",
+            "testAnnotation1",
+        };
+
+        for (String rule : invalidRules) {
+            try {
+                check.setAnnotationRules("Valid(value) ### " + rule);
+                Assert.fail("Expecting IllegalArgumentException");
+            }
+            catch (IllegalArgumentException ex) {
+                Assert.assertEquals("Exception did not have correct error message.",
+                    "Unable to parse annotation rule: " + rule, ex.getMessage());
+            }
+        }
+    }
+
     @Test
     public void temporaryTestForCallGetRequiredTokens() {
         final RequiredParameterForAnnotationCheck check = new RequiredParameterForAnnotationCheck();
@@ -80,5 +80,31 @@ public class AvoidHidingCauseExceptionCheckTest extends AbstractModuleTestSuppor
                 CommonUtil.EMPTY_STRING_ARRAY);
     }
 
-}
+    @Test
+    public final void testNestedThrow() throws Exception {
+        final DefaultConfiguration checkConfig =
+                createModuleConfig(AvoidHidingCauseExceptionCheck.class);
+
+        final String[] expected = {
+            "8:13: " + getCheckMessage(MSG_KEY, "e"),
+            "22:17: " + getCheckMessage(MSG_KEY, "ex"),
+        };
 
+        verify(checkConfig, getPath("InputAvoidHidingCauseExceptionCheckNestedThrow.java"),
+                expected);
+    }
+
+    @Test
+    public final void testAssignEnclosingNestedCatch() throws Exception {
+        final DefaultConfiguration checkConfig =
+                createModuleConfig(AvoidHidingCauseExceptionCheck.class);
+
+        final String[] expected = {
+            "49:13: " + getCheckMessage(MSG_KEY, "e"),
+        };
+
+        verify(checkConfig, getPath("InputAvoidHidingCauseExceptionCheckNestedCatch.java"),
+                expected);
+    }
+
+}
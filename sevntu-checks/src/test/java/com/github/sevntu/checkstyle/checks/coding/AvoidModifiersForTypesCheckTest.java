@@ -285,6 +285,32 @@ public class AvoidModifiersForTypesCheckTest extends AbstractModuleTestSupport {
         verify(checkConfig, getPath("InputAvoidModifiersForTypesCheck2.java"), expected);
     }
 
+    @Test
+    public void testRepeatedClassNames() throws Exception {
+        final DefaultConfiguration checkConfig =
+                createModuleConfig(AvoidModifiersForTypesCheck.class);
+        checkConfig.addAttribute("forbiddenClassesRegexpStatic", "Logger|String");
+        checkConfig.addAttribute("forbiddenClassesRegexpFinal", "Logger");
+        checkConfig.addAttribute("forbiddenClassesRegexpPackagePrivate", "Logger");
+        checkConfig.addAttribute("forbiddenClassesRegexpTransient", "Log.*");
+
+        final String[] expected = {
+            "7:5: " + getCheckMessage(MSG_KEY, "Logger", "final"),
+            "7:5: " + getCheckMessage(MSG_KEY, "Logger", "static"),
+            "8:5: " + getCheckMessage(MSG_KEY, "Logger", "static"),
+            "9:5: " + getCheckMessage(MSG_KEY, "Logger", "final"),
+            "9:5: " + getCheckMessage(MSG_KEY, "Logger", "package-private"),
+            "9:5: " + getCheckMessage(MSG_KEY, "Logger", "static"),
+            "10:5: " + getCheckMessage(MSG_KEY, "Logger", "package-private"),
+            "11:5: " + getCheckMessage(MSG_KEY, "Logger", "transient"),
+            "14:9: " + getCheckMessage(MSG_KEY, "Logger", "final"),
+            "19:5: " + getCheckMessage(MSG_KEY, "String", "static"),
+        };
+
+        verify(checkConfig, getPath("InputAvoidModifiersForTypesCheckRepeatedNames.java"),
+                expected);
+    }
+
     /**
      * This test is needed in order to test the Invalid Token case which is not reproducible with
      * compilable sources and correctly worked parser.
@@ -26,10 +26,22 @@ import static com.github.sevntu.checkstyle.checks.coding.CustomDeclarationOrderC
 import static com.github.sevntu.checkstyle.checks.coding.CustomDeclarationOrderCheck.MSG_KEY_INVALID_SETTER;
 import static com.github.sevntu.checkstyle.checks.coding.CustomDeclarationOrderCheck.MSG_KEY_METHOD;
 
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
 import org.junit.Test;
 
 import com.puppycrawl.tools.checkstyle.AbstractModuleTestSupport;
 import com.puppycrawl.tools.checkstyle.DefaultConfiguration;
+import com.puppycrawl.tools.checkstyle.JavaParser;
+import com.puppycrawl.tools.checkstyle.api.DetailAST;
+import com.puppycrawl.tools.checkstyle.api.FileContents;
+import com.puppycrawl.tools.checkstyle.api.FileText;
+import com.puppycrawl.tools.checkstyle.api.LocalizedMessage;
 
 public class CustomDeclarationOrderCheckTest extends AbstractModuleTestSupport {
 
@@ -149,6 +161,23 @@ public class CustomDeclarationOrderCheckTest extends AbstractModuleTestSupport {
                 expected);
     }
 
+    @Test
+    public void gettersSettersPairing()
+            throws Exception {
+        final DefaultConfiguration checkConfig =
+                createModuleConfig(CustomDeclarationOrderCheck.class);
+        final String[] expected = {
+            "8:5: " + getCheckMessage(MSG_KEY_INVALID_SETTER, "setOther", "getOther"),
+            "12:5: " + getCheckMessage(MSG_KEY_INVALID_SETTER, "setField", "getField"),
+            "36:5: " + getCheckMessage(MSG_KEY_INVALID_SETTER, "setFlag", "isFlag"),
+            "49:9: " + getCheckMessage(MSG_KEY_INVALID_SETTER, "setField", "getField"),
+        };
+        checkConfig.addAttribute("customDeclarationOrder",
+                "Field(.*) ### GetterSetter(.*) ### Method(.*) ### InnerClass(.*)");
+        verify(checkConfig,
+                getPath("InputCustomDeclarationOrderCheckGettersSettersPairing.java"), expected);
+    }
+
     @Test
     public void innerInterfacesAndEnums()
             throws Exception {
@@ -189,4 +218,85 @@ public class CustomDeclarationOrderCheckTest extends AbstractModuleTestSupport {
         verify(checkConfig, getPath("InputCustomDeclarationOrderCheckMainMethod.java"), expected);
     }
 
+    @Test
+    public void repeatedSignatures()
+            throws Exception {
+        final DefaultConfiguration checkConfig =
+                createModuleConfig(CustomDeclarationOrderCheck.class);
+        final String[] expected = {
+            "7:5: " + getCheckMessage(MSG_KEY_FIELD, "Field(PUBLIC .*)", "Field(private .*)"),
+            "8:5: " + getCheckMessage(MSG_KEY_FIELD, "Field(PUBLIC .*)", "Field(private .*)"),
+            "14:9: " + getCheckMessage(MSG_KEY_FIELD, "Field(PUBLIC .*)", "Field(private .*)"),
+        };
+        checkConfig.addAttribute("customDeclarationOrder",
+                "Field(PUBLIC .*) ### Field(private .*)");
+        checkConfig.addAttribute("caseSensitive", "false");
+        verify(checkConfig,
+                getPath("InputCustomDeclarationOrderCheckRepeatedSignatures.java"), expected);
+    }
+
+    @Test
+    public void settersResetMatchedSignatures()
+            throws Exception {
+        final File file =
+                new File(getPath("InputCustomDeclarationOrderCheckRepeatedSignatures.java"));
+        final DetailAST rootAst = JavaParser.parseFile(file, JavaParser.Options.WITHOUT_COMMENTS);
+        final FileContents contents =
+                new FileContents(new FileText(file, StandardCharsets.UTF_8.name()));
+        final CustomDeclarationOrderCheck check = new CustomDeclarationOrderCheck();
+        check.configure(createModuleConfig(CustomDeclarationOrderCheck.class));
+        check.setCustomDeclarationOrder("Field(PUBLIC .*) ### Field(private .*)");
+        check.setCaseSensitive(true);
+
+        Assert.assertEquals("Case sensitive rules should not match",
+                Arrays.asList(), getViolationLines(check, rootAst, contents));
+        check.setCaseSensitive(false);
+        Assert.assertEquals("Case insensitive rules should match",
+                Arrays.asList(7, 8, 14), getViolationLines(check, rootAst, contents));
+        check.setCustomDeclarationOrder("Field(private .*) ### Field(public .*)");
+        Assert.assertEquals("New rules should be used",
+                Arrays.asList(9, 15), getViolationLines(check, rootAst, contents));
+    }
+
+    /**
+     * Runs the check on the tree the same way TreeWalker does.
+     * @param check the check.
+     * @param rootAst root of the tree.
+     * @param contents contents of the file.
+     * @return lines of the violations.
+     */
+    private static List<Integer> getViolationLines(CustomDeclarationOrderCheck check,
+            DetailAST rootAst, FileContents contents) {
+        check.setFileContents(contents);
+        check.clearMessages();
+        check.beginTree(rootAst);
+        walk(check, Arrays.asList(Arrays.stream(check.getDefaultTokens()).boxed()
+                .toArray(Integer[]::new)), rootAst);
+        check.finishTree(rootAst);
+        final List<Integer> result = new ArrayList<>();
+        for (LocalizedMessage message : check.getMessages()) {
+            result.add(message.getLineNo());
+        }
+        return result;
+    }
+
+    /**
+     * Visits and leaves the nodes of the tree, in the order of TreeWalker.
+     * @param check the check.
+     * @param tokens tokens the check is registered for.
+     * @param ast the first node to visit.
+     */
+    private static void walk(CustomDeclarationOrderCheck check, List<Integer> tokens,
+            DetailAST ast) {
+        for (DetailAST node = ast; node != null; node = node.getNextSibling()) {
+            if (tokens.contains(node.getType())) {
+                check.visitToken(node);
+            }
+            walk(check, tokens, node.getFirstChild());
+            if (tokens.contains(node.getType())) {
+                check.leaveToken(node);
+            }
+        }
+    }
+
 }
@@ -66,4 +66,17 @@ public class EitherLogOrThrowCheckTest extends AbstractModuleTestSupport {
                 expected);
     }
 
+    @Test
+    public void testScopes() throws Exception {
+        final DefaultConfiguration checkConfig = createModuleConfig(EitherLogOrThrowCheck.class);
+
+        final String[] expected = {
+            "18:25: " + warningMessage,
+            "23:29: " + warningMessage,
+            "42:21: " + warningMessage,
+        };
+        verify(checkConfig, getPath("InputEitherLogOrThrowCheckScopes.java"),
+                expected);
+    }
+
 }
@@ -72,4 +72,59 @@ public class ForbidCCommentsInMethodsCheckTest extends AbstractModuleTestSupport
         verify(checkConfig, getPath("InputForbidCCommentsInMethodsCheck3.java"), expected);
     }
 
+    @Test
+    public void testCommentsFromFileContents()
+            throws Exception {
+        final DefaultConfiguration checkConfig =
+                createModuleConfig(ForbidCCommentsInMethodsCheck.class);
+        checkConfig.addAttribute("useCommentNodes", "false");
+        final String[] expected = {
+            "10:9: " + warningMessage,
+            "17:9: " + warningMessage,
+            "26:13: " + warningMessage,
+            "33:13: " + warningMessage,
+            "45:9: " + warningMessage,
+            "52:9: " + warningMessage,
+            "61:13: " + warningMessage,
+            "68:13: " + warningMessage,
+            "78:22: " + warningMessage,
+        };
+        verify(checkConfig, getPath("InputForbidCCommentsInMethodsCheck.java"), expected);
+    }
+
+    @Test
+    public void testNestedScopes()
+            throws Exception {
+        final DefaultConfiguration checkConfig =
+                createModuleConfig(ForbidCCommentsInMethodsCheck.class);
+        final String[] expected = {
+            "8:13: " + warningMessage,
+            "16:17: " + warningMessage,
+            "20:11: " + warningMessage,
+            "22:29: " + warningMessage,
+            "24:16: " + warningMessage,
+            "25:9: " + warningMessage,
+            "31:17: " + warningMessage,
+        };
+        verify(checkConfig, getPath("InputForbidCCommentsInMethodsCheck4.java"), expected);
+    }
+
+    @Test
+    public void testNestedScopesWithCommentsFromFileContents()
+            throws Exception {
+        final DefaultConfiguration checkConfig =
+                createModuleConfig(ForbidCCommentsInMethodsCheck.class);
+        checkConfig.addAttribute("useCommentNodes", "false");
+        final String[] expected = {
+            "8:13: " + warningMessage,
+            "16:17: " + warningMessage,
+            "20:11: " + warningMessage,
+            "22:29: " + warningMessage,
+            "24:16: " + warningMessage,
+            "25:9: " + warningMessage,
+            "31:17: " + warningMessage,
+        };
+        verify(checkConfig, getPath("InputForbidCCommentsInMethodsCheck4.java"), expected);
+    }
+
 }
@@ -423,4 +423,66 @@ public class ForbidCertainMethodCheckTest extends AbstractModuleTestSupport {
         verify(checkConfig, getPath("InputForbidCertainMethodCheck.java"), expected);
     }
 
+    @Test
+    public void testMethodRules() throws Exception {
+        final DefaultConfiguration checkConfig =
+            createModuleConfig(ForbidCertainMethodCheck.class);
+        checkConfig.addAttribute("methodName", "exit");
+        checkConfig.addAttribute("methodRules",
+            "exit2:0 ### assert(True|False):1 ### asList:-1, 11- ### asList:12"
+                + " ### (?i:ASLIST):3 ### as.*:2-2 ### [a-z]+Stream");
+
+        final String[] expected = {
+            "29:26: " + getCheckMessage(MSG_KEY, "assertTrue", "assert(True|False)", 1,
+                "1"),
+            "30:26: " + getCheckMessage(MSG_KEY, "assertTrue", "as.*", 2, "2-2"),
+            "31:30: " + getCheckMessage(MSG_KEY, "exit2", "exit2", 0, "0"),
+            "32:39: " + getCheckMessage(MSG_KEY, "exit2", "exit2", 0, "0"),
+            "43:26: " + getCheckMessage(MSG_KEY, "asList", "asList", 1, "-1, 11-"),
+            "44:26: " + getCheckMessage(MSG_KEY, "asList", "as.*", 2, "2-2"),
+            "45:26: " + getCheckMessage(MSG_KEY, "asList", "(?i:ASLIST)", 3, "3"),
+            "53:26: " + getCheckMessage(MSG_KEY, "asList", "asList", 11, "-1, 11-"),
+            "54:26: " + getCheckMessage(MSG_KEY, "asList", "asList", 12, "-1, 11-"),
+            "54:26: " + getCheckMessage(MSG_KEY, "asList", "asList", 12, "12"),
+            "55:64: " + getCheckMessage(MSG_KEY, "asList", "as.*", 2, "2-2"),
+        };
+        verify(checkConfig, getPath("InputForbidCertainMethodCheck.java"), expected);
+    }
+
+    @Test
+    public void testMethodRulesWithBackreferences() throws Exception {
+        final DefaultConfiguration checkConfig =
+            createModuleConfig(ForbidCertainMethodCheck.class);
+        checkConfig.addAttribute("methodRules",
+            "(?<first>e)xit2:0 ### a(s)\\1ert.*:2 ### (?<first>a)sList:1 ### [a-z]+Stream");
+
+        final String[] expected = {
+            "30:26: " + getCheckMessage(MSG_KEY, "assertTrue", "a(s)\\1ert.*", 2, "2"),
+            "31:30: " + getCheckMessage(MSG_KEY, "exit2", "(?<first>e)xit2", 0, "0"),
+            "32:39: " + getCheckMessage(MSG_KEY, "exit2", "(?<first>e)xit2", 0, "0"),
+            "43:26: " + getCheckMessage(MSG_KEY, "asList", "(?<first>a)sList", 1, "1"),
+        };
+        verify(checkConfig, getPath("InputForbidCertainMethodCheck.java"), expected);
+    }
+
+    @Test
+    public void testInvalidMethodRules() {
+        final String[] invalidRules = {
+            "exit ### ### asList",
+            "exit:",
+            ":1",
+            "exit: - ",
+        };
+        for (String invalidRule : invalidRules) {
+            final ForbidCertainMethodCheck check = new ForbidCertainMethodCheck();
+            try {
+                check.setMethodRules(invalidRule);
+                Assert.fail("Expecting CheckstyleException for " + invalidRule);
+            }
+            catch (CheckstyleException ex) {
+                Assert.assertNotNull("Exception should have a message", ex.getMessage());
+            }
+        }
+    }
+
 }
@@ -124,6 +124,18 @@ public class ForbidInstantiationCheckTest extends AbstractModuleTestSupport {
         verify(checkConfig, getPath("InputForbidInstantiationCheckWithAsterisk.java"), expected);
     }
 
+    @Test
+    public void testSimpleNames() throws Exception {
+        final DefaultConfiguration checkConfig =
+                createModuleConfig(ForbidInstantiationCheck.class);
+
+        final String[] expected = {
+            "11:36: " + getCheckMessage(MSG_KEY, "NullPointerException"),
+        };
+
+        verify(checkConfig, getPath("InputForbidInstantiationCheckSimpleNames.java"), expected);
+    }
+
     @Test
     public void testUnsupportedNode() {
         final DetailAST sync = new DetailAST();
@@ -108,4 +108,24 @@ public class MapIterationInForEachLoopCheckTest extends AbstractModuleTestSuppor
                 CommonUtil.EMPTY_STRING_ARRAY);
     }
 
+    @Test
+    public final void testScopesOfMapVariables() throws Exception {
+        final DefaultConfiguration checkConfig =
+                createModuleConfig(MapIterationInForEachLoopCheck.class);
+        checkConfig.addAttribute("proposeValuesUsage", "true");
+        checkConfig.addAttribute("proposeKeySetUsage", "true");
+        checkConfig.addAttribute("proposeEntrySetUsage", "true");
+
+        final String[] expected = {
+            "14:9: " + getCheckMessage(MSG_KEY_ENTRYSET),
+            "37:17: " + getCheckMessage(MSG_KEY_ENTRYSET),
+            "50:13: " + getCheckMessage(MSG_KEY_ENTRYSET),
+            "73:9: " + getCheckMessage(MSG_KEY_VALUES),
+            "95:9: " + getCheckMessage(MSG_KEY_VALUES),
+        };
+        verify(checkConfig,
+                getPath("InputMapIterationInForEachLoopCheckScopes.java"),
+                expected);
+    }
+
 }
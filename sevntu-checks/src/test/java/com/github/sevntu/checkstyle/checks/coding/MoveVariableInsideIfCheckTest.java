@@ -69,4 +69,14 @@ public class MoveVariableInsideIfCheckTest extends AbstractModuleTestSupport {
                 expected);
     }
 
+    @Test
+    public final void testRedeclared() throws Exception {
+        final DefaultConfiguration checkConfig =
+                createModuleConfig(MoveVariableInsideIfCheck.class);
+        final String[] expected = {
+            "10:9: " + getCheckMessage(MSG_KEY, "variable", "12"),
+        };
+        verify(checkConfig, getPath("InputMoveVariableInsideIfCheckRedeclared.java"), expected);
+    }
+
 }
@@ -147,4 +147,41 @@ public class MultipleStringLiteralsExtendedCheckTest extends AbstractModuleTestS
         verify(checkConfig, getPath("InputMultipleStringLiteralsExtendedCheck.java"), expected);
     }
 
+    @Test
+    public void testNestedIgnoreOccurrenceContext() throws Exception {
+        final DefaultConfiguration checkConfig =
+                createModuleConfig(MultipleStringLiteralsExtendedCheck.class);
+        checkConfig.addAttribute("allowedDuplicates", "1");
+        checkConfig.addAttribute("highlightAllDuplicates", "true");
+
+        final String[] expected = {
+            "6:20: " + getCheckMessage(MSG_KEY, "\"nested\"", 4),
+            "10:16: " + getCheckMessage(MSG_KEY, "\"nested\"", 4),
+            "10:32: " + getCheckMessage(MSG_KEY, "\"nested\"", 4),
+            "10:47: " + getCheckMessage(MSG_KEY, "\"nested\"", 4),
+            "10:57: " + getCheckMessage(MSG_KEY, "\"other\"", 2),
+            "10:69: " + getCheckMessage(MSG_KEY, "\"other\"", 2),
+        };
+
+        verify(checkConfig,
+                getPath("InputMultipleStringLiteralsExtendedCheckNestedContext.java"), expected);
+    }
+
+    @Test
+    public void testNestedIgnoreOccurrenceContexts() throws Exception {
+        final DefaultConfiguration checkConfig =
+                createModuleConfig(MultipleStringLiteralsExtendedCheck.class);
+        checkConfig.addAttribute("allowedDuplicates", "1");
+        checkConfig.addAttribute("highlightAllDuplicates", "true");
+        checkConfig.addAttribute("ignoreOccurrenceContext", "ANNOTATION, METHOD_CALL");
+
+        final String[] expected = {
+            "6:20: " + getCheckMessage(MSG_KEY, "\"nested\"", 2),
+            "10:16: " + getCheckMessage(MSG_KEY, "\"nested\"", 2),
+        };
+
+        verify(checkConfig,
+                getPath("InputMultipleStringLiteralsExtendedCheckNestedContext.java"), expected);
+    }
+
 }
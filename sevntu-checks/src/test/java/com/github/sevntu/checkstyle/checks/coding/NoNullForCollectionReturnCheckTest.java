@@ -182,4 +182,19 @@ public class NoNullForCollectionReturnCheckTest extends AbstractModuleTestSuppor
                 expected);
     }
 
+    @Test
+    public void testVariables()
+            throws Exception {
+        final DefaultConfiguration checkConfig =
+                createModuleConfig(NoNullForCollectionReturnCheck.class);
+        checkConfig.addAttribute("searchThroughMethodBody", "true");
+        final String[] expected = {
+            "20:13: " + warningMessage,
+            "23:9: " + warningMessage,
+        };
+
+        verify(checkConfig, getPath("InputNoNullForCollectionReturnCheckVariables.java"),
+                expected);
+    }
+
 }
@@ -466,4 +466,32 @@ public class OverridableMethodInConstructorCheckTest extends AbstractModuleTestS
         verify(checkConfig, getPath("InputOverridableMethodInConstructorCheck28.java"), expected);
     }
 
+    @Test
+    public final void testOverloadedMethodsSeparatedByField() throws Exception {
+        final DefaultConfiguration checkConfig =
+                createModuleConfig(OverridableMethodInConstructorCheck.class);
+        checkConfig.addAttribute("checkCloneMethod", "true");
+        checkConfig.addAttribute("checkReadObjectMethod", "true");
+        checkConfig.addAttribute("matchMethodsByArgCount", "true");
+
+        final String[] expected = {
+            "5:13: " + getCheckMessage(MSG_KEY, "init", CTOR_KEY),
+            "6:13: " + getCheckMessage(MSG_KEY, "init", CTOR_KEY),
+        };
+
+        verify(checkConfig, getPath("InputOverridableMethodInConstructorCheck29.java"), expected);
+    }
+
+    @Test
+    public final void testBaseClassNamedAsInterface() throws Exception {
+        final DefaultConfiguration checkConfig =
+                createModuleConfig(OverridableMethodInConstructorCheck.class);
+
+        final String[] expected = {
+            "16:17: " + getCheckMessage(MSG_KEY, "init", CTOR_KEY),
+        };
+
+        verify(checkConfig, getPath("InputOverridableMethodInConstructorCheck30.java"), expected);
+    }
+
 }
@@ -23,6 +23,8 @@ import static com.github.sevntu.checkstyle.checks.coding.ReturnCountExtendedChec
 import static com.github.sevntu.checkstyle.checks.coding.ReturnCountExtendedCheck.MSG_KEY_LAMBDA;
 import static com.github.sevntu.checkstyle.checks.coding.ReturnCountExtendedCheck.MSG_KEY_METHOD;
 
+import java.io.File;
+
 import org.junit.Test;
 
 import com.puppycrawl.tools.checkstyle.AbstractModuleTestSupport;
@@ -302,4 +304,24 @@ public class ReturnCountExtendedCheckTest extends AbstractModuleTestSupport {
         verify(checkConfig, getPath("InputReturnCountExtendedCheckLambdas.java"), expected);
     }
 
+    @Test
+    public void testReturnInInitializer() throws Exception {
+        final DefaultConfiguration checkConfig =
+                createModuleConfig(ReturnCountExtendedCheck.class);
+        checkConfig.addAttribute("maxReturnCount", "1");
+        checkConfig.addAttribute("ignoreMethodLinesCount", "0");
+        checkConfig.addAttribute("minIgnoreReturnDepth", "99");
+        checkConfig.addAttribute("ignoreEmptyReturns", "false");
+        checkConfig.addAttribute("topLinesToIgnoreCount", "0");
+
+        final String[] expected = {
+            "12:16: " + getCheckMessage(MSG_KEY_METHOD, "method", 2, 1),
+        };
+
+        verify(checkConfig,
+                new File("src/test/resources-noncompilable/com/github/sevntu/"
+                        + "checkstyle/checks/coding/InputReturnCountExtendedCheckInitializers.java")
+                        .getCanonicalPath(), expected);
+    }
+
 }
@@ -231,4 +231,21 @@ public class TernaryPerExpressionCountCheckTest extends AbstractModuleTestSuppor
                 getPath("InputTernaryPerExpressionCountCheck.java"), expected);
     }
 
+    @Test
+    public void testIsolatedTernaryWithComments() throws Exception {
+        final DefaultConfiguration checkConfig =
+                createModuleConfig(TernaryPerExpressionCountCheck.class);
+        checkConfig.addAttribute("ignoreTernaryOperatorsInBraces",
+                "false");
+        checkConfig.addAttribute("ignoreIsolatedTernaryOnLine",
+                "true");
+        checkConfig.addAttribute("maxTernaryPerExpressionCount",
+                "0");
+        final String[] expected = {
+            "10:29: " + getCheckMessage(MSG_KEY, 0),
+        };
+        verify(checkConfig,
+                getPath("InputTernaryPerExpressionCountCheckComments.java"), expected);
+    }
+
 }
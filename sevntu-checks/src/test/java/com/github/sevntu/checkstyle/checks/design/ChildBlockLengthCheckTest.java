@@ -154,4 +154,23 @@ public class ChildBlockLengthCheckTest extends AbstractModuleTestSupport {
         verify(checkConfig, getPath("InputChildBlockLengthCheckNestedClass.java"), expected);
     }
 
+    @Test
+    public void testDeepNesting() throws Exception {
+        final DefaultConfiguration checkConfig = createModuleConfig(ChildBlockLengthCheck.class);
+        checkConfig.addAttribute("maxChildBlockPercentage", "30");
+        checkConfig.addAttribute("blockTypes", "LITERAL_IF, LITERAL_SWITCH, LITERAL_FOR, "
+                + "LITERAL_DO, LITERAL_WHILE, LITERAL_TRY, LITERAL_ELSE, LITERAL_CATCH");
+        checkConfig.addAttribute("ignoreBlockLinesCount", "1");
+
+        final String[] expected = {
+            "7:13: " + getCheckMessage(MSG_KEY, 5, 2),
+            "8:17: " + getCheckMessage(MSG_KEY, 3, 1),
+            "8:17: " + getCheckMessage(MSG_KEY, 3, 2),
+            "20:13: " + getCheckMessage(MSG_KEY, 7, 2),
+            "31:13: " + getCheckMessage(MSG_KEY, 2, 1),
+        };
+
+        verify(checkConfig, getPath("InputChildBlockLengthCheckDeepNesting.java"), expected);
+    }
+
 }
@@ -72,6 +72,15 @@ public class HideUtilityClassConstructorCheckTest extends AbstractModuleTestSupp
         verify(checkConfig, getPath("InputHideUtilityClassConstructorCheck6.java"), expected);
     }
 
+    @Test
+    public void testProtectedCtor() throws Exception {
+        final DefaultConfiguration checkConfig =
+            createModuleConfig(HideUtilityClassConstructorCheck.class);
+        final String[] expected = {
+        };
+        verify(checkConfig, getPath("InputHideUtilityClassConstructorCheck7.java"), expected);
+    }
+
     @Test
     public void testEmptyAbstractClass() throws Exception {
         final DefaultConfiguration checkConfig =
@@ -87,4 +87,35 @@ public class NoMainMethodInAbstractClassCheckTest extends AbstractModuleTestSupp
                 expected);
     }
 
+    @Test
+    public final void testMainMethodAfterNestedClass()
+            throws Exception {
+        final DefaultConfiguration checkConfig =
+                createModuleConfig(NoMainMethodInAbstractClassCheck.class);
+        final String[] expected = {
+            "7:5: " + warningMessage,
+            "16:5: " + warningMessage,
+        };
+
+        verify(checkConfig,
+                getPath("InputNoMainMethodInAbstractClassCheckNested.java"),
+                expected);
+    }
+
+    @Test
+    public final void testMethodDefTokenIgnored()
+            throws Exception {
+        final DefaultConfiguration checkConfig =
+                createModuleConfig(NoMainMethodInAbstractClassCheck.class);
+        checkConfig.addAttribute("tokens", "CLASS_DEF, METHOD_DEF");
+        final String[] expected = {
+            "7:5: " + warningMessage,
+            "16:5: " + warningMessage,
+        };
+
+        verify(checkConfig,
+                getPath("InputNoMainMethodInAbstractClassCheckNested.java"),
+                expected);
+    }
+
 }
@@ -57,6 +57,19 @@ public class StaticMethodCandidateCheckTest extends AbstractModuleTestSupport {
         verify(checkConfig, getPath("InputStaticMethodCandidateCheck.java"), expected);
     }
 
+    @Test
+    public void testTopLevelTypes() throws Exception {
+        final DefaultConfiguration checkConfig =
+                createModuleConfig(StaticMethodCandidateCheck.class);
+        final String[] expected = {
+            "4:5: " + getCheckMessage(MSG_KEY, "useLaterClass"),
+            "8:5: " + getCheckMessage(MSG_KEY, "useLaterEnum"),
+            "20:5: " + getCheckMessage(MSG_KEY, "useEarlierClass"),
+        };
+        verify(checkConfig, getPath("InputStaticMethodCandidateCheckTopLevelTypes.java"),
+                expected);
+    }
+
     @Test
     public void testSkippedMethods() throws Exception {
         final DefaultConfiguration checkConfig =
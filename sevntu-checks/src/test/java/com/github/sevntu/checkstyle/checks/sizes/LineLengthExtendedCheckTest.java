@@ -82,6 +82,26 @@ public class LineLengthExtendedCheckTest extends AbstractModuleTestSupport {
         verify(checkConfig, getPath("InputLineLengthExtendedCheck.java"), expected);
     }
 
+    @Test
+    public void testTabsAndIgnoredLines()
+            throws Exception {
+        final DefaultConfiguration checkConfig =
+                createModuleConfig(LineLengthExtendedCheck.class);
+        checkConfig.addAttribute("max", "30");
+        checkConfig.addAttribute("ignoreConstructor", "true");
+        checkConfig.addAttribute("ignoreField", "true");
+        checkConfig.addAttribute("ignoreMethod", "true");
+        final String[] expected = {
+            "1: " + getCheckMessage(MSG_KEY, 30, 50),
+            "3: " + getCheckMessage(MSG_KEY, 30, 45),
+            "7: " + getCheckMessage(MSG_KEY, 30, 47),
+            "10: " + getCheckMessage(MSG_KEY, 30, 55),
+            "15: " + getCheckMessage(MSG_KEY, 30, 51),
+            "18: " + getCheckMessage(MSG_KEY, 30, 45),
+        };
+        verify(checkConfig, getPath("InputLineLengthExtendedCheckTabs.java"), expected);
+    }
+
     @Test
     public void testProperty() throws Exception {
         final DefaultConfiguration checkConfig =
@@ -0,0 +1,268 @@
+////////////////////////////////////////////////////////////////////////////////
+// checkstyle: Checks Java source code for adherence to a set of rules.
+// Copyright (C) 2001-2019 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 2.1 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+////////////////////////////////////////////////////////////////////////////////
+
+package com.github.sevntu.checkstyle.instrumentation;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.github.sevntu.checkstyle.checks.coding.ForbidCCommentsInMethodsCheck;
+import com.github.sevntu.checkstyle.checks.coding.ReturnNullInsteadOfBooleanCheck;
+import com.github.sevntu.checkstyle.checks.design.NestedSwitchCheck;
+import com.puppycrawl.tools.checkstyle.AbstractModuleTestSupport;
+import com.puppycrawl.tools.checkstyle.DefaultConfiguration;
+import com.puppycrawl.tools.checkstyle.TreeWalker;
+import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+import com.puppycrawl.tools.checkstyle.utils.CommonUtil;
+
+public class InstrumentedCheckGroupTest extends AbstractModuleTestSupport {
+
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Override
+    protected String getPackageLocation() {
+        return "com/github/sevntu/checkstyle/instrumentation";
+    }
+
+    @Test
+    public void testCsvReport() throws Exception {
+        final File report = new File(temporaryFolder.getRoot(), "timing/report.csv");
+        final DefaultConfiguration checkConfig = createModuleConfig(InstrumentedCheckGroup.class);
+        checkConfig.addAttribute("reportFile", report.getPath());
+        final DefaultConfiguration switchConfig = createModuleConfig(NestedSwitchCheck.class);
+        switchConfig.addAttribute("id", "nestedSwitch");
+        checkConfig.addChild(switchConfig);
+        final DefaultConfiguration returnConfig =
+            createModuleConfig(ReturnNullInsteadOfBooleanCheck.class);
+        returnConfig.addAttribute("tokens", "METHOD_DEF, LITERAL_RETURN");
+        checkConfig.addChild(returnConfig);
+        final String[] expected = {
+            "7:13: " + getCheckMessage(ReturnNullInsteadOfBooleanCheck.class,
+                ReturnNullInsteadOfBooleanCheck.MSG_KEY),
+            "15:17: " + getCheckMessage(NestedSwitchCheck.class, NestedSwitchCheck.MSG_KEY),
+        };
+
+        verify(checkConfig, getPath("InputInstrumentedCheckGroup.java"), expected);
+
+        final List<String> lines = Files.readAllLines(report.toPath(), StandardCharsets.UTF_8);
+        Assert.assertEquals("Invalid number of report lines", 9, lines.size());
+        Assert.assertEquals("Invalid header", "check,method,calls,timeNanos", lines.get(0));
+        Assert.assertTrue("Invalid beginTree line",
+            lines.get(1).startsWith("nestedSwitch,beginTree,1,"));
+        Assert.assertTrue("Invalid visitToken line",
+            lines.get(2).startsWith("nestedSwitch,visitToken,2,"));
+        Assert.assertTrue("Invalid leaveToken line",
+            lines.get(3).startsWith("nestedSwitch,leaveToken,2,"));
+        Assert.assertTrue("Invalid finishTree line",
+            lines.get(4).startsWith("nestedSwitch,finishTree,1,"));
+        Assert.assertTrue("Invalid visitToken line",
+            lines.get(6).startsWith(ReturnNullInsteadOfBooleanCheck.class.getName()
+                + ",visitToken,7,"));
+    }
+
+    @Test
+    public void testCsvReportQuoting() throws Exception {
+        final File report = temporaryFolder.newFile("report.csv");
+        final DefaultConfiguration checkConfig = createModuleConfig(InstrumentedCheckGroup.class);
+        checkConfig.addAttribute("reportFile", report.getPath());
+        final DefaultConfiguration switchConfig = createModuleConfig(NestedSwitchCheck.class);
+        switchConfig.addAttribute("id", "nested,\"Switch\"");
+        checkConfig.addChild(switchConfig);
+        final String[] expected = {
+            "15:17: " + getCheckMessage(NestedSwitchCheck.class, NestedSwitchCheck.MSG_KEY),
+        };
+
+        verify(checkConfig, getPath("InputInstrumentedCheckGroup.java"), expected);
+
+        final List<String> lines = Files.readAllLines(report.toPath(), StandardCharsets.UTF_8);
+        Assert.assertEquals("Invalid number of report lines", 5, lines.size());
+        Assert.assertTrue("Invalid beginTree line",
+            lines.get(1).startsWith("\"nested,\"\"Switch\"\"\",beginTree,1,"));
+    }
+
+    @Test
+    public void testJsonReport() throws Exception {
+        final File report = temporaryFolder.newFile("report.json");
+        final DefaultConfiguration checkConfig = createModuleConfig(InstrumentedCheckGroup.class);
+        checkConfig.addAttribute("reportFile", report.getPath());
+        checkConfig.addAttribute("reportFormat", "JSON");
+        final DefaultConfiguration switchConfig = createModuleConfig(NestedSwitchCheck.class);
+        switchConfig.addAttribute("id", "nested\"Switch\\\t\u0001");
+        checkConfig.addChild(switchConfig);
+        final DefaultConfiguration strictSwitchConfig =
+            createModuleConfig(NestedSwitchCheck.class);
+        strictSwitchConfig.addAttribute("id", "strictNestedSwitch");
+        strictSwitchConfig.addAttribute("max", "-1");
+        checkConfig.addChild(strictSwitchConfig);
+        final String[] expected = {
+            "13:9: " + getCheckMessage(NestedSwitchCheck.class, NestedSwitchCheck.MSG_KEY),
+            "15:17: " + getCheckMessage(NestedSwitchCheck.class, NestedSwitchCheck.MSG_KEY),
+            "15:17: " + getCheckMessage(NestedSwitchCheck.class, NestedSwitchCheck.MSG_KEY),
+        };
+
+        verify(checkConfig, getPath("InputInstrumentedCheckGroup.java"), expected);
+
+        final List<String> lines = Files.readAllLines(report.toPath(), StandardCharsets.UTF_8);
+        Assert.assertEquals("Invalid number of report lines", 10, lines.size());
+        Assert.assertEquals("Invalid start of array", "[", lines.get(0));
+        Assert.assertTrue("Invalid beginTree object", lines.get(1).startsWith(
+            "  {\"check\": \"nested\\\"Switch\\\\\\t\\u0001\", \"method\": \"beginTree\", "
+            + "\"calls\": 1, "));
+        Assert.assertTrue("Invalid separator", lines.get(1).endsWith("},"));
+        Assert.assertTrue("Invalid visitToken object", lines.get(6).startsWith(
+            "  {\"check\": \"strictNestedSwitch\", \"method\": \"visitToken\", \"calls\": 2, "));
+        Assert.assertTrue("Invalid last object", lines.get(8).endsWith("}"));
+        Assert.assertEquals("Invalid end of array", "]", lines.get(9));
+    }
+
+    @Test
+    public void testTokensWithoutChecks() {
+        final InstrumentedCheckGroup check = new InstrumentedCheckGroup();
+        Assert.assertArrayEquals("Invalid default tokens",
+            CommonUtil.EMPTY_INT_ARRAY, check.getDefaultTokens());
+        Assert.assertArrayEquals("Invalid acceptable tokens",
+            CommonUtil.EMPTY_INT_ARRAY, check.getAcceptableTokens());
+        Assert.assertArrayEquals("Invalid required tokens",
+            CommonUtil.EMPTY_INT_ARRAY, check.getRequiredTokens());
+    }
+
+    @Test
+    public void testWithoutChecks() throws Exception {
+        final File report = new File(temporaryFolder.getRoot(), "report.csv");
+        final DefaultConfiguration checkConfig = createModuleConfig(InstrumentedCheckGroup.class);
+        checkConfig.addAttribute("reportFile", report.getPath());
+
+        verify(checkConfig, getPath("InputInstrumentedCheckGroup.java"),
+            CommonUtil.EMPTY_STRING_ARRAY);
+
+        final List<String> lines = Files.readAllLines(report.toPath(), StandardCharsets.UTF_8);
+        Assert.assertEquals("Report should only have a header", 1, lines.size());
+    }
+
+    @Test
+    public void testCommentNodesRequired() throws Exception {
+        final File report = new File(temporaryFolder.getRoot(), "report.csv");
+        final DefaultConfiguration checkConfig = createModuleConfig(InstrumentedCheckGroup.class);
+        checkConfig.addAttribute("reportFile", report.getPath());
+        checkConfig.addChild(createModuleConfig(ForbidCCommentsInMethodsCheck.class));
+
+        verify(checkConfig, getPath("InputInstrumentedCheckGroup.java"),
+            CommonUtil.EMPTY_STRING_ARRAY);
+
+        Assert.assertTrue("Report should be written", report.exists());
+    }
+
+    @Test
+    public void testMixedCommentNodesRequirement() throws Exception {
+        final DefaultConfiguration checkConfig = createModuleConfig(InstrumentedCheckGroup.class);
+        checkConfig.addChild(createModuleConfig(ForbidCCommentsInMethodsCheck.class));
+        checkConfig.addChild(createModuleConfig(NestedSwitchCheck.class));
+
+        try {
+            verify(checkConfig, getPath("InputInstrumentedCheckGroup.java"),
+                CommonUtil.EMPTY_STRING_ARRAY);
+            Assert.fail("Expecting CheckstyleException");
+        }
+        catch (CheckstyleException ex) {
+            Assert.assertTrue("Invalid exception message: " + ex.getMessage(),
+                ex.getMessage().endsWith("Checks nested in InstrumentedCheckGroup should "
+                    + "either all require comment nodes or all not require them: "
+                    + NestedSwitchCheck.class.getName()));
+        }
+    }
+
+    @Test
+    public void testNotCheckChild() throws Exception {
+        final DefaultConfiguration checkConfig = createModuleConfig(InstrumentedCheckGroup.class);
+        checkConfig.addChild(createModuleConfig(TreeWalker.class));
+
+        try {
+            verify(checkConfig, getPath("InputInstrumentedCheckGroup.java"),
+                CommonUtil.EMPTY_STRING_ARRAY);
+            Assert.fail("Expecting CheckstyleException");
+        }
+        catch (CheckstyleException ex) {
+            Assert.assertTrue("Invalid exception message: " + ex.getMessage(),
+                ex.getMessage().endsWith("InstrumentedCheckGroup is not allowed as a parent of "
+                    + TreeWalker.class.getName() + ", only checks can be nested in it"));
+        }
+    }
+
+    @Test
+    public void testUnacceptableToken() throws Exception {
+        final DefaultConfiguration checkConfig = createModuleConfig(InstrumentedCheckGroup.class);
+        final DefaultConfiguration switchConfig = createModuleConfig(NestedSwitchCheck.class);
+        switchConfig.addAttribute("tokens", "METHOD_DEF");
+        checkConfig.addChild(switchConfig);
+
+        try {
+            verify(checkConfig, getPath("InputInstrumentedCheckGroup.java"),
+                CommonUtil.EMPTY_STRING_ARRAY);
+            Assert.fail("Expecting CheckstyleException");
+        }
+        catch (CheckstyleException ex) {
+            Assert.assertTrue("Invalid exception message: " + ex.getMessage(),
+                ex.getMessage().endsWith("Token \"METHOD_DEF\" was not found in Acceptable "
+                    + "tokens list in check " + NestedSwitchCheck.class.getName()));
+        }
+    }
+
+    @Test
+    public void testInvalidReportFormat() throws Exception {
+        final DefaultConfiguration checkConfig = createModuleConfig(InstrumentedCheckGroup.class);
+        checkConfig.addAttribute("reportFormat", "xml");
+
+        try {
+            verify(checkConfig, getPath("InputInstrumentedCheckGroup.java"),
+                CommonUtil.EMPTY_STRING_ARRAY);
+            Assert.fail("Expecting CheckstyleException");
+        }
+        catch (CheckstyleException ex) {
+            Assert.assertTrue("Invalid exception message: " + ex.getMessage(),
+                ex.getMessage().endsWith("Cannot set property 'reportFormat' to 'xml'"));
+        }
+    }
+
+    @Test
+    public void testUnwritableReport() throws Exception {
+        final File report = temporaryFolder.getRoot();
+        final DefaultConfiguration checkConfig = createModuleConfig(InstrumentedCheckGroup.class);
+        checkConfig.addAttribute("reportFile", report.getPath());
+
+        try {
+            verify(checkConfig, getPath("InputInstrumentedCheckGroup.java"),
+                CommonUtil.EMPTY_STRING_ARRAY);
+            Assert.fail("Expecting IllegalStateException");
+        }
+        catch (IllegalStateException ex) {
+            Assert.assertEquals("Invalid exception message",
+                "Unable to write report file " + report.getPath(),
+                ex.getMessage());
+        }
+    }
+
+}
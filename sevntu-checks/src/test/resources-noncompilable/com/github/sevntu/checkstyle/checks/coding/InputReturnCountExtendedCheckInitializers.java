@@ -0,0 +1,19 @@
+package com.github.sevntu.checkstyle.checks.coding;
+
+public class InputReturnCountExtendedCheckInitializers {
+
+    static {
+        if (System.currentTimeMillis() > 0) {
+            return;
+        }
+        return;
+    }
+
+    public int method(int value) {
+        if (value > 0) {
+            return 1;
+        }
+        return 0;
+    }
+
+}
@@ -0,0 +1,64 @@
+package com.github.sevntu.checkstyle;
+
+import java.util.function.Function;
+
+public abstract class InputSemanticModel extends java.util.AbstractList<String> {
+
+    private static int count;
+
+    private final Function<String, String> identity = (value) -> value;
+
+    static {
+        int staticLocal = 0;
+    }
+
+    {
+        int instanceLocal = 0;
+    }
+
+    public InputSemanticModel(int size) {
+        count = size;
+    }
+
+    public void method(String first, String second) {
+        for (String local : new String[] {first, second}) {
+            Runnable runnable = new Runnable() {
+                private int anonymousField;
+
+                @Override
+                public void run() {
+                    int anonymousLocal = 0;
+                }
+            };
+        }
+        class Local extends Inner {
+            void localMethod() {
+            }
+        }
+    }
+
+    public void method() {
+    }
+
+    static class Inner {
+        int innerField;
+    }
+
+    interface Nested {
+        void method();
+    }
+
+    enum Kind {
+        FIRST {
+            private int constantField;
+        };
+    }
+
+    @interface Marker {
+        String value();
+    }
+
+}
+
+class Inner {
+}
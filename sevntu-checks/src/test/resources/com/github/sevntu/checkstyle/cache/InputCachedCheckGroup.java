@@ -0,0 +1,19 @@
+package com.github.sevntu.checkstyle.cache;
+
+public class InputCachedCheckGroup {
+
+    public String describe(int first, int second) {
+        switch (first) {
+            case 1:
+                switch (second) {
+                    case 2:
+                        return "nested";
+                    default:
+                        return "nested";
+                }
+            default:
+                return "none";
+        }
+    }
+
+}
@@ -0,0 +1,52 @@
+package com.github.sevntu.checkstyle.checks.coding;
+
+public class InputAvoidHidingCauseExceptionCheckNestedCatch {
+    public void lambda() {
+        try {
+        }
+        catch (IllegalStateException e) {
+            final Runnable wrapper = () -> {
+                try {
+                }
+                catch (RuntimeException ex) {
+                    System.out.println(e);
+                }
+            };
+            throw new IllegalStateException(String.valueOf(wrapper));
+        }
+    }
+
+    public void anonymousClass() {
+        Runnable wrapper;
+        try {
+        }
+        catch (IllegalStateException e) {
+            wrapper = new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                    }
+                    catch (RuntimeException ex) {
+                        System.out.println(e);
+                    }
+                }
+            };
+            throw new IllegalStateException(String.valueOf(wrapper));
+        }
+    }
+
+    public void notWrapped() {
+        try {
+        }
+        catch (IllegalStateException e) {
+            final Runnable wrapper = () -> {
+                try {
+                }
+                catch (RuntimeException ex) {
+                    System.out.println(ex);
+                }
+            };
+            throw new IllegalStateException(String.valueOf(wrapper)); // violation
+        }
+    }
+}
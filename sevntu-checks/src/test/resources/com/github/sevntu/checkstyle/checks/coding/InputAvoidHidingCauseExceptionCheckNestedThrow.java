@@ -0,0 +1,26 @@
+package com.github.sevntu.checkstyle.checks.coding;
+
+public class InputAvoidHidingCauseExceptionCheckNestedThrow {
+    public void nestedThrow() {
+        try {
+        }
+        catch (IllegalStateException e) {
+            throw new IllegalStateException(String.valueOf((Runnable) () -> { // violation
+                throw new UnsupportedOperationException();
+            }));
+        }
+    }
+
+    public void nestedTry() {
+        try {
+        }
+        catch (IllegalStateException e) {
+            try {
+                throw new UnsupportedOperationException();
+            }
+            catch (UnsupportedOperationException ex) {
+                throw new IllegalStateException(ex.getMessage()); // violation
+            }
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.github.sevntu.checkstyle.checks.coding;
+
+import java.util.logging.Logger;
+
+public class InputAvoidModifiersForTypesCheckRepeatedNames
+{
+    private static final Logger FIRST = null;
+    private static Logger second = null;
+    static final java.util.logging.Logger THIRD = null;
+    Logger fourth = null;
+    protected transient Logger fifth = null;
+    private final String first = null;
+    public static String second() {
+        final Logger local = null;
+        final String string = null;
+        return string;
+    }
+    private final Logger[] loggers = null;
+    static String last = null;
+}
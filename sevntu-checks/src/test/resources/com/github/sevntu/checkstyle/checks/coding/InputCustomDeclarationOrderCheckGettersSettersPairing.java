@@ -0,0 +1,57 @@
+package com.github.sevntu.checkstyle.checks.coding;
+
+class InputCustomDeclarationOrderCheckGettersSettersPairing {
+    private int field;
+    private int other;
+    private boolean flag;
+
+    public void setOther(int other) {
+        this.other = other;
+    }
+
+    public void setField(int field) {
+        this.field = field;
+    }
+
+    public int getField() {
+        return field;
+    }
+
+    public void setField(String field) {
+        this.field = Integer.parseInt(field);
+    }
+
+    public int getOther() {
+        return other;
+    }
+
+    public boolean isFlag() {
+        return flag;
+    }
+
+    public void setOther(String other) {
+        this.other = Integer.parseInt(other);
+    }
+
+    public void setFlag(boolean flag) {
+        this.flag = flag;
+    }
+
+    public void setFlag(String flag) {
+        this.flag = Boolean.parseBoolean(flag);
+    }
+
+    public int getX() { return field; } public void setX(int x) { this.field = x; }
+
+    static class Inner {
+        private int field;
+
+        public void setField(int field) {
+            this.field = field;
+        }
+
+        public int getField() {
+            return field;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.github.sevntu.checkstyle.checks.coding;
+
+public class InputCustomDeclarationOrderCheckRepeatedSignatures
+{
+    private int first;
+    private int second;
+    public int third;
+    public int fourth;
+    private int fifth;
+
+    class Inner
+    {
+        private int first;
+        public int second;
+        private int third;
+    }
+}
@@ -0,0 +1,53 @@
+package com.github.sevntu.checkstyle.checks.coding;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class InputEitherLogOrThrowCheckScopes
+{
+    private Recorder logger = new Recorder();
+
+    public void catchLogger()
+            throws Exception
+    {
+        try {
+            throw new Exception();
+        }
+        catch (IllegalStateException e) { // warning
+            Logger logger = LoggerFactory.getLogger(Object.class);
+            logger.error("Exception: ", e);
+            try {
+                e.getCause();
+            }
+            catch (RuntimeException ex) { // warning
+                logger.error("Exception: ", ex);
+                throw ex;
+            }
+            throw e;
+        }
+        catch (Exception e) { // ok, logger of another catch is out of scope
+            logger.error("Exception: ", e);
+            throw e;
+        }
+    }
+
+    public void methodLogger()
+            throws Exception
+    {
+        Logger log = LoggerFactory.getLogger(Object.class);
+        try {
+            throw new Exception();
+        }
+        catch (Exception e) { // warning
+            log.warn("Exception: ", e);
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static class Recorder
+    {
+        public void error(String message, Exception exception)
+        {
+        }
+    }
+}
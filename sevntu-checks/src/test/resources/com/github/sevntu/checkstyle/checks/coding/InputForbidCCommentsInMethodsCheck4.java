@@ -0,0 +1,37 @@
+package com.github.sevntu.checkstyle.checks.coding;
+
+public class InputForbidCCommentsInMethodsCheck4 {
+
+    public Object /* Comment in definition. */ method1(int /* Comment in parameters. */ value)
+            /* Comment before body. */ {
+        Runnable runnable = () -> {
+            /* Comment in lambda. */
+        };
+        Object object = new Object() /* Comment before anonymous class body. */ {
+            /* Comment inside anonymous class. */
+            private int field = /* Comment in field. */ 0;
+
+            @Override
+            public /* Comment in nested definition. */ String toString() {
+                /* Comment in nested method. */
+                return "";
+            }
+            /* Comment after nested method. */
+        } /* Comment after anonymous class. */;
+        class Local /* Comment before local class body. */ {
+            void method() { /* Comment in local class method. */ }
+        }
+        return /* Comment in expression. */ object;
+        /* Comment before closing brace. */
+    }
+
+    enum Enum {
+        FIRST /* Comment before constant body. */ {
+            void method() {
+                /* Comment in constant method. */
+            }
+        };
+    }
+    /* Comment at the end of class. */
+}
+/* Comment at the end of file. */
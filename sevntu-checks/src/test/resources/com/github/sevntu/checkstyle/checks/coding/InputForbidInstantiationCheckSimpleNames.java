@@ -0,0 +1,16 @@
+package com.github.sevntu.checkstyle.checks.coding;
+
+import java.io.File;
+import java.util.*;
+
+public class InputForbidInstantiationCheckSimpleNames
+{
+    public void method() {
+        Exception ex = new Exception("message");
+        RuntimeException ex2 = new RuntimeException("message");
+        NullPointerException ex3 = new NullPointerException("message"); // !
+        Thread.State state = null;
+        File file = new File("");
+    }
+
+}
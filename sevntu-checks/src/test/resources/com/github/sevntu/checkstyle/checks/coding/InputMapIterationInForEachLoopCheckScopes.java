@@ -0,0 +1,117 @@
+package com.github.sevntu.checkstyle.checks.coding;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+public class InputMapIterationInForEachLoopCheckScopes
+{
+    private Map<String, String> map = new HashMap<String, String>();
+
+    public void mapInMethod()
+    {
+        Map<String, String> cache = new HashMap<String, String>();
+        for (String key : cache.keySet())
+        {
+            System.out.println(key + " --> " + cache.get(key));
+        }
+    }
+
+    public void sameNameInOtherMethod()
+    {
+        Cache cache = new Cache();
+        for (String key : cache.keySet())
+        {
+            System.out.println(key + " --> " + cache.get(key));
+        }
+    }
+
+    public void mapInSwitch(int value)
+    {
+        switch (value) {
+            case 1:
+                Map<String, String> map = new HashMap<String, String>();
+                break;
+            default:
+                map = new HashMap<String, String>();
+                for (String key : map.keySet())
+                {
+                    System.out.println(key + " --> " + map.get(key));
+                }
+                break;
+        }
+    }
+
+    public void mapInForInit()
+    {
+        for (Map<String, String> first = new HashMap<String, String>(), second = null;
+                first != second;)
+        {
+            for (String key : first.keySet())
+            {
+                System.out.println(key + " --> " + first.get(key));
+            }
+        }
+    }
+
+    public void mapInForInitShadowed()
+    {
+        for (Map<String, String> m = new HashMap<String, String>(), n = null; m != n;)
+        {
+            System.out.println(m);
+        }
+        Cache m = new Cache();
+        for (String key : m.keySet())
+        {
+            System.out.println(key + " --> " + m.get(key));
+        }
+    }
+
+    public void bodyWithoutBraces()
+    {
+        Map<String, String> map = new HashMap<String, String>();
+        for (String key : map.keySet())
+            System.out.println(map.get(key));
+        String key = "";
+        System.out.println(key);
+    }
+
+    public void blocksOnOneLine()
+    {
+        { Map<String, String> a = new HashMap<String, String>(); } { Map<String, String> b = new HashMap<String, String>(); Map<String, String> c = new HashMap<String, String>(); }
+    }
+
+    public void fieldMap(String value)
+    {
+        for (String key : map.keySet())
+        {
+            if (key == value) {
+                System.out.println(map.get(key));
+            }
+            if (key != value) {
+                System.out.println(key);
+            }
+        }
+        for (Map.Entry<String, String> entry : map.entrySet())
+        {
+            entry.setValue(entry.getValue());
+        }
+        for (String key : map.keySet())
+        {
+            System.out.println(map.get(value));
+        }
+    }
+
+    private static class Cache
+    {
+        public Set<String> keySet()
+        {
+            return null;
+        }
+
+        public String get(String key)
+        {
+            return key;
+        }
+    }
+}
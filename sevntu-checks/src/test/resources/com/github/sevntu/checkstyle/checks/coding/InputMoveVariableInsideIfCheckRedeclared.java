@@ -0,0 +1,25 @@
+package com.github.sevntu.checkstyle.checks.coding;
+
+public class InputMoveVariableInsideIfCheckRedeclared {
+    public void method1(boolean condition) {
+        if (condition) {
+            String variable = "";
+            variable = variable.substring(0);
+        }
+
+        String variable = "";
+
+        if (condition) {
+            variable = variable.substring(0);
+        }
+    }
+
+    public void method2(boolean condition) {
+        if (condition) {
+            String variable = "";
+            variable = variable.substring(0);
+        }
+
+        String variable = "";
+    }
+}
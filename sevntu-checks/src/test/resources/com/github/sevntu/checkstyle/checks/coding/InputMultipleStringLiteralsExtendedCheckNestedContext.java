@@ -0,0 +1,25 @@
+package com.github.sevntu.checkstyle.checks.coding;
+
+public class InputMultipleStringLiteralsExtendedCheckNestedContext
+{
+    @Outer(inner = @Inner("nested"), value = "nested")
+    String field = "nested";
+
+    @Inner("nested")
+    String method() {
+        return "nested" + call("nested", call("nested", "other")) + "other";
+    }
+
+    String call(String first, String second) {
+        return first + second;
+    }
+
+    @interface Outer {
+        Inner inner();
+        String value();
+    }
+
+    @interface Inner {
+        String value();
+    }
+}
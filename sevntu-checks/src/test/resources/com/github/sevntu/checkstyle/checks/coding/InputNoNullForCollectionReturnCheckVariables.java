@@ -0,0 +1,31 @@
+package com.github.sevntu.checkstyle.checks.coding;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class InputNoNullForCollectionReturnCheckVariables {
+    private List<String> field;
+
+    public int[] arrayInitializer() {
+        int[] values = {1, 2};
+        int[] empty = null;
+        this.field = new ArrayList<String>();
+        return values;
+    }
+
+    public List<String> fieldAssignment(boolean condition) {
+        List<String> result = null;
+        this.field = new ArrayList<String>();
+        if (condition) {
+            return result;
+        }
+        List<String> other;
+        return result;
+    }
+
+    public List<String> reassigned() {
+        List<String> result = null;
+        result = new ArrayList<String>();
+        return result;
+    }
+}
@@ -0,0 +1,21 @@
+package com.github.sevntu.checkstyle.checks.coding;
+
+public class InputOverridableMethodInConstructorCheck29 {
+    public InputOverridableMethodInConstructorCheck29() {
+        init(1);
+        init("", 1);
+    }
+
+    public void init(int value) {
+    }
+
+    private int field = 0;
+
+    public void init(String name, int value) {
+    }
+
+    class Inner {
+        public void init(int value) {
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.github.sevntu.checkstyle.checks.coding;
+
+public class InputOverridableMethodInConstructorCheck30 {
+    static class Holder {
+        interface Base {
+        }
+    }
+
+    static class Base {
+        public void init() {
+        }
+    }
+
+    static class Child extends Base {
+        Child() {
+            init();
+        }
+    }
+}
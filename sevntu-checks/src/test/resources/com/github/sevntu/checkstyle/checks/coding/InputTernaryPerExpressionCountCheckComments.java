@@ -0,0 +1,15 @@
+package com.github.sevntu.checkstyle.checks.coding;
+
+public class InputTernaryPerExpressionCountCheckComments {
+
+    public int method(int a, int b) {
+        int c = (a == b) ? 5 : 6; // why?
+        int d = (a == b) ? 5 : 6; /* why? */
+        int e = (a == b) ? 5 : 6; /* first line
+            why? */ int f = (a == b) ? 5 : 6;
+        String g = (a == b) ? "why?" : "";
+        /* why? */ int h = (a == b) ? 5 : 6; /* why? */
+        return c + d + e + f + h + g.length();
+    }
+
+}
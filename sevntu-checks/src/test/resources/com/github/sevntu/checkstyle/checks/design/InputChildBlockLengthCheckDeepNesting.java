@@ -0,0 +1,98 @@
+package com.github.sevntu.checkstyle.checks.design;
+
+public class InputChildBlockLengthCheckDeepNesting {
+
+    public void method(int value) {
+        if (value > 0) {
+            for (int i = 0; i < value; i++) {
+                while (value > i) {
+                    value--;
+                    value--;
+                    value--;
+                }
+            }
+        }
+        else {
+            value++;
+        }
+
+        try {
+            switch (value) {
+                case 1:
+                    if (value == 1) {
+                        value++;
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+        catch (IllegalStateException ex) {
+            if (value > 1) {
+                value++;
+                value++;
+            }
+        }
+
+        if (value > 2)
+            for (int i = 0; i < value; i++) {
+                value--;
+            }
+
+        do {
+            new Thread() {
+                public void run() {
+                    if (isTrue()) {
+                        isTrue();
+                        isTrue();
+                    }
+                }
+            }.start();
+        } while (value > 3);
+
+        if (value > 4) {
+            Runnable runnable = () -> {
+                if (isTrue()) {
+                    isTrue();
+                }
+            };
+        }
+
+        while (value > 5) {
+            class Local {
+                {
+                    if (isTrue()) {
+                        isTrue();
+                        isTrue();
+                    }
+                }
+
+                void method() {
+                    if (isTrue()) {
+                        isTrue();
+                        isTrue();
+                    }
+                }
+            }
+            switch (compute(() -> {
+                if (isTrue()) {
+                    isTrue();
+                    isTrue();
+                }
+                return 1;
+            })) {
+                default:
+                    break;
+            }
+        }
+    }
+
+    public static int compute(java.util.function.IntSupplier supplier) {
+        return supplier.getAsInt();
+    }
+
+    public static boolean isTrue() {
+        return Boolean.TRUE;
+    }
+
+}
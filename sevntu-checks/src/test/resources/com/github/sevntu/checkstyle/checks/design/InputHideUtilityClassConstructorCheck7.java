@@ -0,0 +1,18 @@
+package com.github.sevntu.checkstyle.checks.design;
+
+/**
+ * Input for HideUtilityClassConstructorCheck, a utility class with a protected constructor
+ */
+public class InputHideUtilityClassConstructorCheck7
+{
+    public static final int CONSTANT = 1;
+
+    protected InputHideUtilityClassConstructorCheck7()
+    {
+    }
+
+    public static int getConstant()
+    {
+        return CONSTANT;
+    }
+}
@@ -0,0 +1,17 @@
+package com.github.sevntu.checkstyle.checks.design;
+
+abstract class InputNoMainMethodInAbstractClassCheckNested {
+    static abstract class Inner {
+        void met() {}
+    }
+    public static void main(String[] args) {} // violation
+}
+
+abstract class InputNoMainMethodInAbstractClassCheckLocal {
+    void met() {
+        class Local {
+            public static final int VALUE = 1;
+        }
+    }
+    public static void main(String[] args) {} // violation
+}
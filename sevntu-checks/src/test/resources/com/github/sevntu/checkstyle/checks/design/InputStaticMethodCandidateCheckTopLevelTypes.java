@@ -0,0 +1,32 @@
+package com.github.sevntu.checkstyle.checks.design;
+
+public class InputStaticMethodCandidateCheckTopLevelTypes {
+    private int useLaterClass() {
+        return LaterClass.compute() + LaterClass.CONSTANT;
+    }
+
+    private int useLaterEnum() {
+        return LaterEnum.compute();
+    }
+}
+
+class LaterClass {
+    public static final int CONSTANT = 1;
+
+    public static int compute() {
+        return CONSTANT;
+    }
+
+    private int useEarlierClass() {
+        return InputStaticMethodCandidateCheckTopLevelTypes.class.hashCode()
+                + LaterEnum.FIRST.ordinal();
+    }
+}
+
+enum LaterEnum {
+    FIRST;
+
+    public static int compute() {
+        return 0;
+    }
+}
@@ -0,0 +1,19 @@
+package com.github.sevntu.checkstyle.checks.sizes;
+
+public class InputLineLengthExtendedCheckTabs
+{
+	private String tabbedFieldWithLongName = "x";
+		// tab
+			// tabs longer than max
+    public InputLineLengthExtendedCheckTabs(String first,
+            String second) {
+			String tabbedVariable = "long";
+    }
+    void method(String first, String second, String third) { }
+    void next(String first, String second, String third,
+            String fourth) {
+			// tabs after ignored lines
+    }
+    class Inner { String innerFieldWithLongName = "long enough"; }
+    // not ignored, right after ignored lines
+}
@@ -0,0 +1,26 @@
+package com.github.sevntu.checkstyle.instrumentation;
+
+public class InputInstrumentedCheckGroup {
+
+    public Boolean isEmpty(String value) {
+        if (value == null) {
+            return null;
+        }
+        return value.isEmpty();
+    }
+
+    public int count(int first, int second) {
+        switch (first) {
+            case 1:
+                switch (second) {
+                    case 2:
+                        return 3;
+                    default:
+                        return 4;
+                }
+            default:
+                return 0;
+        }
+    }
+
+}
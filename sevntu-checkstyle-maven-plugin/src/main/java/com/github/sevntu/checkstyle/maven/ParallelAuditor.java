@@ -0,0 +1,470 @@
+////////////////////////////////////////////////////////////////////////////////
+// checkstyle: Checks Java source code for adherence to a set of rules.
+// Copyright (C) 2001-2019 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 2.1 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+////////////////////////////////////////////////////////////////////////////////
+
+package com.github.sevntu.checkstyle.maven;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.github.sevntu.checkstyle.cache.CachedCheckGroup;
+import com.github.sevntu.checkstyle.instrumentation.InstrumentedCheckGroup;
+import com.puppycrawl.tools.checkstyle.Checker;
+import com.puppycrawl.tools.checkstyle.ConfigurationLoader;
+import com.puppycrawl.tools.checkstyle.DefaultLogger;
+import com.puppycrawl.tools.checkstyle.PropertiesExpander;
+import com.puppycrawl.tools.checkstyle.XMLLogger;
+import com.puppycrawl.tools.checkstyle.api.AuditEvent;
+import com.puppycrawl.tools.checkstyle.api.AuditListener;
+import com.puppycrawl.tools.checkstyle.api.AutomaticBean.OutputStreamOptions;
+import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+import com.puppycrawl.tools.checkstyle.api.Configuration;
+import com.puppycrawl.tools.checkstyle.api.SeverityLevel;
+
+/**
+ * Audits files on all cores. The files are split into chunks that are audited by the tasks of
+ * a {@link ForkJoinPool}, each task creates its own {@link Checker}, with its own TreeWalker and
+ * checks, from the same configuration. Events of all chunks are collected and then passed to the
+ * listeners, file by file in order of file names, so the reports are the same as the ones of a
+ * single checker, e.g. {@link XMLLogger} writes the usual checkstyle-result.xml.
+ * <p>
+ * maven-checkstyle-plugin can only run a single checker, so this class can be called from the
+ * build with exec-maven-plugin, or used from code:
+ * </p>
+ * <pre>
+ * java -cp sevntu-checkstyle-maven-plugin.jar:... \
+ *     com.github.sevntu.checkstyle.maven.ParallelAuditor \
+ *     -c sevntu-checks.xml -f xml -o target/checkstyle-result.xml -p 16 src/main/java
+ * </pre>
+ * <p>
+ * Modules that check several files together, like TranslationCheck, only see files of their
+ * chunk. The {@code cacheFile} property of Checker, {@link CachedCheckGroup} and
+ * {@link InstrumentedCheckGroup} are not supported, as the checkers would overwrite the cache
+ * or the report of each other.
+ * </p>
+ */
+public final class ParallelAuditor {
+
+    /** Number of chunks per thread, so threads that finish early can take more work. */
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    /** Usage message of the command line. */
+    private static final String USAGE = "Usage: ParallelAuditor -c <config> [-f plain|xml]"
+        + " [-o <report>] [-p <threads>] <file or directory>...";
+
+    /** Modules that write a file when they are destroyed, so each checker overwrites it. */
+    private static final List<Class<?>> UNSUPPORTED_MODULES = Arrays.asList(
+        CachedCheckGroup.class, InstrumentedCheckGroup.class);
+
+    /** Configuration of the checkers. */
+    private final Configuration configuration;
+
+    /** Number of threads to audit files with. */
+    private final int parallelism;
+
+    /** Creates the pool of the given number of threads for each audit. */
+    private final IntFunction<ForkJoinPool> poolFactory;
+
+    /** Listeners to pass the events of the audit to. */
+    private final List<AuditListener> listeners = new ArrayList<>();
+
+    /**
+     * Creates a new instance.
+     * @param configuration configuration of the checkers, with Checker as the root module.
+     * @param parallelism number of threads to audit files with.
+     * @throws CheckstyleException if the configuration can't be used in parallel.
+     */
+    public ParallelAuditor(Configuration configuration, int parallelism)
+            throws CheckstyleException {
+        this(configuration, parallelism, ForkJoinPool::new);
+    }
+
+    /**
+     * Creates a new instance that audits files in pools created by the factory.
+     * @param configuration configuration of the checkers, with Checker as the root module.
+     * @param parallelism number of threads to audit files with.
+     * @param poolFactory creates the pool of the given number of threads for each audit.
+     * @throws CheckstyleException if the configuration can't be used in parallel.
+     */
+    ParallelAuditor(Configuration configuration, int parallelism,
+            IntFunction<ForkJoinPool> poolFactory) throws CheckstyleException {
+        if (Arrays.asList(configuration.getAttributeNames()).contains("cacheFile")) {
+            throw new CheckstyleException("cacheFile is not supported by ParallelAuditor");
+        }
+        validateModules(configuration);
+        if (parallelism < 1) {
+            throw new CheckstyleException("Parallelism should be positive: " + parallelism);
+        }
+        this.configuration = configuration;
+        this.parallelism = parallelism;
+        this.poolFactory = poolFactory;
+    }
+
+    /**
+     * Runs an audit from the command line. Supported options are {@code -c} for the
+     * configuration file, {@code -f} for the format of the report, {@code plain} or {@code xml},
+     * {@code -o} for the report file, standard output by default, and {@code -p} for the number
+     * of threads, all processors by default. All other arguments are files or directories to
+     * audit. Exits with the number of errors, as Checkstyle does.
+     * @param args command line arguments.
+     * @throws Exception if the audit fails.
+     */
+    public static void main(String... args) throws Exception {
+        String config = null;
+        String format = "plain";
+        String output = null;
+        int parallelism = Runtime.getRuntime().availableProcessors();
+        final List<File> files = new ArrayList<>();
+        for (int index = 0; index < args.length; index++) {
+            switch (args[index]) {
+                case "-c":
+                    index++;
+                    config = getOptionValue(args, index);
+                    break;
+                case "-f":
+                    index++;
+                    format = getOptionValue(args, index);
+                    break;
+                case "-o":
+                    index++;
+                    output = getOptionValue(args, index);
+                    break;
+                case "-p":
+                    index++;
+                    parallelism = parseParallelism(getOptionValue(args, index));
+                    break;
+                default:
+                    files.addAll(listFiles(Paths.get(args[index])));
+                    break;
+            }
+        }
+        if (config == null || files.isEmpty()) {
+            throw new IllegalArgumentException(USAGE);
+        }
+
+        final ParallelAuditor auditor = new ParallelAuditor(
+            ConfigurationLoader.loadConfiguration(config,
+                new PropertiesExpander(System.getProperties())), parallelism);
+        final OutputStream stream;
+        final OutputStreamOptions options;
+        if (output == null) {
+            stream = System.out;
+            options = OutputStreamOptions.NONE;
+        }
+        else {
+            stream = Files.newOutputStream(Paths.get(output));
+            options = OutputStreamOptions.CLOSE;
+        }
+        if ("xml".equals(format)) {
+            auditor.addListener(new XMLLogger(stream, options));
+        }
+        else {
+            auditor.addListener(new DefaultLogger(stream, options));
+        }
+        System.exit(auditor.process(files));
+    }
+
+    /**
+     * Gets the value of a command line option.
+     * @param args command line arguments.
+     * @param index index of the value, the one after the option.
+     * @return the value.
+     * @throws IllegalArgumentException if the option is the last argument.
+     */
+    private static String getOptionValue(String[] args, int index) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException(USAGE);
+        }
+        return args[index];
+    }
+
+    /**
+     * Parses the number of threads given on the command line.
+     * @param value value of the option.
+     * @return the number of threads.
+     * @throws IllegalArgumentException if the value is not a number.
+     */
+    private static int parseParallelism(String value) {
+        try {
+            return Integer.parseInt(value);
+        }
+        catch (NumberFormatException ex) {
+            throw new IllegalArgumentException(USAGE, ex);
+        }
+    }
+
+    /**
+     * Verifies that the configuration has no modules that can't be used in parallel.
+     * @param configuration the configuration or one of its children.
+     * @throws CheckstyleException if an unsupported module is found.
+     */
+    private static void validateModules(Configuration configuration)
+            throws CheckstyleException {
+        for (Class<?> module : UNSUPPORTED_MODULES) {
+            if (module.getName().equals(configuration.getName())
+                    || module.getSimpleName().equals(configuration.getName())) {
+                throw new CheckstyleException(module.getSimpleName()
+                    + " is not supported by ParallelAuditor");
+            }
+        }
+        for (Configuration child : configuration.getChildren()) {
+            validateModules(child);
+        }
+    }
+
+    /**
+     * Adds a listener to pass the events of the audit to.
+     * @param listener the listener.
+     */
+    public void addListener(AuditListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Audits the files.
+     * @param files the files to audit.
+     * @return number of errors found, as returned by {@link Checker#process(List)}.
+     * @throws CheckstyleException if a checker can't be created or a file can't be audited.
+     */
+    public int process(List<File> files) throws CheckstyleException {
+        final int chunkSize = Math.max(1,
+            (files.size() + parallelism * CHUNKS_PER_THREAD - 1)
+                / (parallelism * CHUNKS_PER_THREAD));
+        final ForkJoinPool pool = poolFactory.apply(parallelism);
+        final SortedMap<String, List<RecordedEvent>> events;
+        try {
+            events = pool.invoke(new AuditTask(new ArrayList<>(files), chunkSize));
+        }
+        catch (IllegalStateException ex) {
+            // the pool wraps the exception again when it was thrown by another thread
+            Throwable cause = ex.getCause();
+            while (cause instanceof IllegalStateException) {
+                cause = cause.getCause();
+            }
+            if (cause instanceof CheckstyleException) {
+                throw new CheckstyleException(cause.getMessage(), ex);
+            }
+            throw ex;
+        }
+        finally {
+            pool.shutdown();
+        }
+        return fireEvents(events);
+    }
+
+    /**
+     * Passes the collected events to the listeners, file by file.
+     * @param events events by file name.
+     * @return number of errors.
+     */
+    private int fireEvents(SortedMap<String, List<RecordedEvent>> events) {
+        int errors = 0;
+        final AuditEvent auditEvent = new AuditEvent(this);
+        for (AuditListener listener : listeners) {
+            listener.auditStarted(auditEvent);
+        }
+        for (Map.Entry<String, List<RecordedEvent>> entry : events.entrySet()) {
+            final AuditEvent fileEvent = new AuditEvent(this, entry.getKey());
+            for (AuditListener listener : listeners) {
+                listener.fileStarted(fileEvent);
+            }
+            for (RecordedEvent event : entry.getValue()) {
+                if (event.event.getSeverityLevel() == SeverityLevel.ERROR) {
+                    errors++;
+                }
+                for (AuditListener listener : listeners) {
+                    if (event.throwable == null) {
+                        listener.addError(event.event);
+                    }
+                    else {
+                        listener.addException(event.event, event.throwable);
+                    }
+                }
+            }
+            for (AuditListener listener : listeners) {
+                listener.fileFinished(fileEvent);
+            }
+        }
+        for (AuditListener listener : listeners) {
+            listener.auditFinished(auditEvent);
+        }
+        return errors;
+    }
+
+    /**
+     * Lists all regular files under the path.
+     * @param path a file or a directory.
+     * @return the files.
+     * @throws IOException if the directory can't be read.
+     */
+    private static List<File> listFiles(Path path) throws IOException {
+        try (Stream<Path> stream = Files.walk(path)) {
+            return stream
+                .filter(Files::isRegularFile)
+                .map(Path::toFile)
+                .collect(Collectors.toList());
+        }
+    }
+
+    /** Audits a chunk of files, or splits it into two tasks if it is too big. */
+    private final class AuditTask extends RecursiveTask<SortedMap<String, List<RecordedEvent>>> {
+
+        /** Serial version UID. */
+        private static final long serialVersionUID = 1L;
+
+        /** Files to audit. */
+        private final List<File> files;
+
+        /** Maximum number of files to audit in a single task. */
+        private final int chunkSize;
+
+        /**
+         * Creates a new instance.
+         * @param files files to audit.
+         * @param chunkSize maximum number of files to audit in a single task.
+         */
+        AuditTask(List<File> files, int chunkSize) {
+            this.files = files;
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        protected SortedMap<String, List<RecordedEvent>> compute() {
+            final SortedMap<String, List<RecordedEvent>> result;
+            if (files.size() <= chunkSize) {
+                result = audit();
+            }
+            else {
+                final int middle = files.size() / 2;
+                final AuditTask first = new AuditTask(files.subList(0, middle), chunkSize);
+                first.fork();
+                result = new AuditTask(files.subList(middle, files.size()), chunkSize)
+                    .compute();
+                result.putAll(first.join());
+            }
+            return result;
+        }
+
+        /**
+         * Audits the files with a new checker.
+         * @return events by file name.
+         */
+        private SortedMap<String, List<RecordedEvent>> audit() {
+            final EventRecorder recorder = new EventRecorder();
+            final Checker checker = new Checker();
+            try {
+                checker.setModuleClassLoader(Checker.class.getClassLoader());
+                checker.configure(configuration);
+                checker.addListener(recorder);
+                checker.process(files);
+            }
+            catch (CheckstyleException ex) {
+                throw new IllegalStateException(ex.getMessage(), ex);
+            }
+            finally {
+                checker.destroy();
+            }
+            return recorder.events;
+        }
+
+    }
+
+    /** An error or an exception reported by a checker. */
+    private static final class RecordedEvent {
+
+        /** The event. */
+        private final AuditEvent event;
+
+        /** The exception, or null for errors. */
+        private final Throwable throwable;
+
+        /**
+         * Creates a new instance.
+         * @param event the event.
+         * @param throwable the exception, or null for errors.
+         */
+        RecordedEvent(AuditEvent event, Throwable throwable) {
+            this.event = event;
+            this.throwable = throwable;
+        }
+
+    }
+
+    /** Collects the events of a single checker by file name. */
+    private static final class EventRecorder implements AuditListener {
+
+        /** Errors and exceptions by file name, files without them have empty lists. */
+        private final SortedMap<String, List<RecordedEvent>> events = new TreeMap<>();
+
+        @Override
+        public void auditStarted(AuditEvent event) {
+            // audit events are fired by ParallelAuditor
+        }
+
+        @Override
+        public void auditFinished(AuditEvent event) {
+            // audit events are fired by ParallelAuditor
+        }
+
+        @Override
+        public void fileStarted(AuditEvent event) {
+            getEvents(event.getFileName());
+        }
+
+        @Override
+        public void fileFinished(AuditEvent event) {
+            // file events are fired by ParallelAuditor
+        }
+
+        @Override
+        public void addError(AuditEvent event) {
+            getEvents(event.getFileName()).add(new RecordedEvent(event, null));
+        }
+
+        @Override
+        public void addException(AuditEvent event, Throwable throwable) {
+            getEvents(event.getFileName()).add(new RecordedEvent(event, throwable));
+        }
+
+        /**
+         * Gets the events of the file.
+         * @param fileName name of the file.
+         * @return the events, the list can be changed.
+         */
+        private List<RecordedEvent> getEvents(String fileName) {
+            return events.computeIfAbsent(fileName, name -> new ArrayList<>());
+        }
+
+    }
+
+}
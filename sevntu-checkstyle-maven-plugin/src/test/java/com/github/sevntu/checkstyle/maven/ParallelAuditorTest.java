@@ -0,0 +1,251 @@
+////////////////////////////////////////////////////////////////////////////////
+// checkstyle: Checks Java source code for adherence to a set of rules.
+// Copyright (C) 2001-2019 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 2.1 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+////////////////////////////////////////////////////////////////////////////////
+
+package com.github.sevntu.checkstyle.maven;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.puppycrawl.tools.checkstyle.Checker;
+import com.puppycrawl.tools.checkstyle.DefaultConfiguration;
+import com.puppycrawl.tools.checkstyle.TreeWalker;
+import com.puppycrawl.tools.checkstyle.api.AuditEvent;
+import com.puppycrawl.tools.checkstyle.api.AuditListener;
+import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+import com.puppycrawl.tools.checkstyle.checks.coding.MagicNumberCheck;
+
+public class ParallelAuditorTest {
+
+    private static final String INPUT_DIRECTORY =
+        "src/test/resources/com/github/sevntu/checkstyle/maven/";
+
+    private final List<ForkJoinPool> pools = new ArrayList<>();
+
+    @Test
+    public void testSameResultsAsChecker() throws Exception {
+        final List<File> files = getFiles("First", "Fourth", "Second", "Third");
+        final DefaultConfiguration configuration = createConfiguration();
+
+        final EventCollector expected = new EventCollector();
+        final Checker checker = new Checker();
+        checker.setModuleClassLoader(Checker.class.getClassLoader());
+        checker.configure(configuration);
+        checker.addListener(expected);
+        final int expectedErrors = checker.process(files);
+        checker.destroy();
+
+        final EventCollector actual = new EventCollector();
+        final ParallelAuditor auditor = new ParallelAuditor(configuration, 2, this::createPool);
+        auditor.addListener(actual);
+        final int errors = auditor.process(files);
+
+        Assert.assertEquals("Invalid number of errors", expectedErrors, errors);
+        Assert.assertEquals("Invalid events", expected.events, actual.events);
+        Assert.assertTrue("Files should have errors", errors > 0);
+        assertPoolsShutDown();
+    }
+
+    @Test
+    public void testExceptionInFile() throws Exception {
+        final List<File> files = getFiles("First", "Invalid", "Second");
+        final EventCollector collector = new EventCollector();
+        final ParallelAuditor auditor =
+            new ParallelAuditor(createConfiguration(), 2, this::createPool);
+        auditor.addListener(collector);
+
+        try {
+            auditor.process(files);
+            Assert.fail("Expecting CheckstyleException");
+        }
+        catch (CheckstyleException ex) {
+            Assert.assertTrue("Invalid exception message: " + ex.getMessage(),
+                ex.getMessage().contains(files.get(1).getPath()));
+        }
+        Assert.assertTrue("Events should not be passed to listeners",
+            collector.events.isEmpty());
+        assertPoolsShutDown();
+    }
+
+    @Test
+    public void testCacheFileNotSupported() {
+        final DefaultConfiguration configuration = createConfiguration();
+        configuration.addAttribute("cacheFile", "target/cache.properties");
+
+        try {
+            new ParallelAuditor(configuration, 2);
+            Assert.fail("Expecting CheckstyleException");
+        }
+        catch (CheckstyleException ex) {
+            Assert.assertEquals("Invalid exception message",
+                "cacheFile is not supported by ParallelAuditor", ex.getMessage());
+        }
+    }
+
+    @Test
+    public void testCachedCheckGroupNotSupported() {
+        final DefaultConfiguration configuration = createConfiguration();
+        final DefaultConfiguration cachedGroup = new DefaultConfiguration(
+            "com.github.sevntu.checkstyle.cache.CachedCheckGroup");
+        cachedGroup.addAttribute("cacheFile", "target/sevntu-checks.cache");
+        ((DefaultConfiguration) configuration.getChildren()[0]).addChild(cachedGroup);
+
+        try {
+            new ParallelAuditor(configuration, 2);
+            Assert.fail("Expecting CheckstyleException");
+        }
+        catch (CheckstyleException ex) {
+            Assert.assertEquals("Invalid exception message",
+                "CachedCheckGroup is not supported by ParallelAuditor", ex.getMessage());
+        }
+    }
+
+    @Test
+    public void testInstrumentedCheckGroupNotSupported() {
+        final DefaultConfiguration configuration = createConfiguration();
+        final DefaultConfiguration instrumentedGroup =
+            new DefaultConfiguration("InstrumentedCheckGroup");
+        ((DefaultConfiguration) configuration.getChildren()[0]).addChild(instrumentedGroup);
+
+        try {
+            new ParallelAuditor(configuration, 2);
+            Assert.fail("Expecting CheckstyleException");
+        }
+        catch (CheckstyleException ex) {
+            Assert.assertEquals("Invalid exception message",
+                "InstrumentedCheckGroup is not supported by ParallelAuditor", ex.getMessage());
+        }
+    }
+
+    @Test
+    public void testMissingOptionValue() throws Exception {
+        try {
+            ParallelAuditor.main(INPUT_DIRECTORY, "-c");
+            Assert.fail("Expecting IllegalArgumentException");
+        }
+        catch (IllegalArgumentException ex) {
+            Assert.assertTrue("Invalid exception message: " + ex.getMessage(),
+                ex.getMessage().startsWith("Usage: ParallelAuditor"));
+        }
+    }
+
+    @Test
+    public void testInvalidParallelismOption() throws Exception {
+        try {
+            ParallelAuditor.main("-p", "all", INPUT_DIRECTORY);
+            Assert.fail("Expecting IllegalArgumentException");
+        }
+        catch (IllegalArgumentException ex) {
+            Assert.assertTrue("Invalid exception message: " + ex.getMessage(),
+                ex.getMessage().startsWith("Usage: ParallelAuditor"));
+            Assert.assertTrue("Invalid exception cause",
+                ex.getCause() instanceof NumberFormatException);
+        }
+    }
+
+    @Test
+    public void testInvalidParallelism() {
+        try {
+            new ParallelAuditor(createConfiguration(), 0);
+            Assert.fail("Expecting CheckstyleException");
+        }
+        catch (CheckstyleException ex) {
+            Assert.assertEquals("Invalid exception message",
+                "Parallelism should be positive: 0", ex.getMessage());
+        }
+    }
+
+    private ForkJoinPool createPool(int parallelism) {
+        final ForkJoinPool pool = new ForkJoinPool(parallelism);
+        pools.add(pool);
+        return pool;
+    }
+
+    private void assertPoolsShutDown() {
+        Assert.assertEquals("Pool should be created once", 1, pools.size());
+        Assert.assertTrue("Pool should be shut down", pools.get(0).isShutdown());
+    }
+
+    private static List<File> getFiles(String... names) {
+        final List<File> files = new ArrayList<>();
+        for (String name : names) {
+            files.add(new File(INPUT_DIRECTORY + "InputParallelAuditor" + name + ".java")
+                .getAbsoluteFile());
+        }
+        return files;
+    }
+
+    private static DefaultConfiguration createConfiguration() {
+        final DefaultConfiguration treeWalker =
+            new DefaultConfiguration(TreeWalker.class.getName());
+        treeWalker.addChild(new DefaultConfiguration(MagicNumberCheck.class.getName()));
+        final DefaultConfiguration nestedSwitch = new DefaultConfiguration(
+            "com.github.sevntu.checkstyle.checks.design.NestedSwitchCheck");
+        nestedSwitch.addAttribute("max", "0");
+        treeWalker.addChild(nestedSwitch);
+        final DefaultConfiguration configuration = new DefaultConfiguration("Checker");
+        configuration.addChild(treeWalker);
+        return configuration;
+    }
+
+    /** Collects the events passed to a listener, in order. */
+    private static final class EventCollector implements AuditListener {
+
+        private final List<String> events = new ArrayList<>();
+
+        @Override
+        public void auditStarted(AuditEvent event) {
+            events.add("auditStarted");
+        }
+
+        @Override
+        public void auditFinished(AuditEvent event) {
+            events.add("auditFinished");
+        }
+
+        @Override
+        public void fileStarted(AuditEvent event) {
+            events.add("fileStarted " + event.getFileName());
+        }
+
+        @Override
+        public void fileFinished(AuditEvent event) {
+            events.add("fileFinished " + event.getFileName());
+        }
+
+        @Override
+        public void addError(AuditEvent event) {
+            events.add(String.join(" ", Arrays.asList("addError", event.getFileName(),
+                String.valueOf(event.getLine()), String.valueOf(event.getColumn()),
+                event.getSeverityLevel().getName(), event.getMessage())));
+        }
+
+        @Override
+        public void addException(AuditEvent event, Throwable throwable) {
+            events.add("addException " + event.getFileName() + " " + throwable);
+        }
+
+    }
+
+}
@@ -0,0 +1,19 @@
+package com.github.sevntu.checkstyle.maven;
+
+public class InputParallelAuditorFirst {
+    private int size = 42;
+
+    int next(int value) {
+        switch (value) {
+            case 1:
+                switch (size) {
+                    case 2:
+                        return 3;
+                    default:
+                        return 0;
+                }
+            default:
+                return value * 7;
+        }
+    }
+}
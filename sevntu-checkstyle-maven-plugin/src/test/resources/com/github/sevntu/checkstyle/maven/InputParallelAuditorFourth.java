@@ -0,0 +1,12 @@
+package com.github.sevntu.checkstyle.maven;
+
+public class InputParallelAuditorFourth {
+    double ratio(int value) {
+        switch (value) {
+            case 5:
+                return 0.5;
+            default:
+                return value / 100.0;
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.github.sevntu.checkstyle.maven;
+
+public class InputParallelAuditorInvalid {
+    int size( {
+        return 1;
+    }
+}
@@ -0,0 +1,9 @@
+package com.github.sevntu.checkstyle.maven;
+
+public class InputParallelAuditorSecond {
+    private final long timeout = 1000L;
+
+    long getTimeout() {
+        return timeout;
+    }
+}
@@ -0,0 +1,7 @@
+package com.github.sevntu.checkstyle.maven;
+
+public class InputParallelAuditorThird {
+    int size() {
+        return 0;
+    }
+}